@@ -0,0 +1,139 @@
+package fr.umontpellier.iut.gui;
+
+import javax.websocket.CloseReason;
+import javax.websocket.SendResult;
+import javax.websocket.Session;
+import java.io.IOException;
+import java.util.function.LongSupplier;
+
+/**
+ * Envoi asynchrone des états d'une partie à un client.
+ *
+ * Un seul message est en cours d'envoi à la fois, et la file d'envoi contient au plus un message : comme
+ * chaque message permet à lui seul d'obtenir l'état courant, un nouvel état remplace l'état qui n'a pas
+ * encore été envoyé. Un client lent reçoit donc moins d'états, sans jamais ralentir la partie ni les
+ * autres clients. Un client qui n'a toujours pas reçu le message en cours d'envoi après un délai
+ * maximal est déconnecté.
+ */
+public class DiffusionSession {
+    private final Session session;
+    /**
+     * Durée maximale (en nanosecondes) d'un envoi, au-delà de laquelle le client est déconnecté
+     */
+    private final long delaiMaxEnvoi;
+    /**
+     * Horloge (en nanosecondes) utilisée pour mesurer la durée des envois
+     */
+    private final LongSupplier horloge;
+    /**
+     * Message à envoyer après l'envoi en cours, ou null
+     */
+    private String enAttente;
+    /**
+     * Indique si un message est en cours d'envoi
+     */
+    private boolean envoiEnCours;
+    /**
+     * Instant (selon l'horloge) du début de l'envoi en cours
+     */
+    private long debutEnvoi;
+    /**
+     * Indique si le client a été déconnecté
+     */
+    private boolean fermee;
+
+    /**
+     * @param session          la session du client
+     * @param delaiMaxEnvoiMs durée maximale (en millisecondes) d'un envoi, au-delà de laquelle le
+     *                         client est déconnecté
+     */
+    public DiffusionSession(Session session, long delaiMaxEnvoiMs) {
+        this(session, delaiMaxEnvoiMs, System::nanoTime);
+    }
+
+    DiffusionSession(Session session, long delaiMaxEnvoiMs, LongSupplier horloge) {
+        this.session = session;
+        this.delaiMaxEnvoi = delaiMaxEnvoiMs * 1_000_000;
+        this.horloge = horloge;
+    }
+
+    public Session getSession() {
+        return session;
+    }
+
+    public synchronized boolean estFermee() {
+        return fermee;
+    }
+
+    /**
+     * Envoie un message au client sans attendre qu'il soit reçu. Si un envoi est déjà en cours, le
+     * message remplace celui qui attend d'être envoyé.
+     *
+     * @param message le message à envoyer
+     */
+    public void envoyer(String message) {
+        CloseReason raison = null;
+        synchronized (this) {
+            if (fermee) {
+                return;
+            }
+            if (!envoiEnCours) {
+                demarrerEnvoi(message);
+            } else if (horloge.getAsLong() - debutEnvoi > delaiMaxEnvoi) {
+                raison = new CloseReason(CloseReason.CloseCodes.TRY_AGAIN_LATER, "Client trop lent");
+                fermee = true;
+                enAttente = null;
+            } else {
+                enAttente = message;
+            }
+        }
+        fermer(raison);
+    }
+
+    private void demarrerEnvoi(String message) {
+        envoiEnCours = true;
+        debutEnvoi = horloge.getAsLong();
+        try {
+            session.getAsyncRemote().sendText(message, this::envoiTermine);
+        } catch (RuntimeException e) {
+            // session déjà fermée
+            envoiEnCours = false;
+            fermee = true;
+        }
+    }
+
+    private void envoiTermine(SendResult resultat) {
+        CloseReason raison = null;
+        synchronized (this) {
+            envoiEnCours = false;
+            if (fermee) {
+                return;
+            }
+            if (!resultat.isOK()) {
+                raison = new CloseReason(CloseReason.CloseCodes.UNEXPECTED_CONDITION, "Échec de l'envoi");
+                fermee = true;
+                enAttente = null;
+            } else if (enAttente != null) {
+                String message = enAttente;
+                enAttente = null;
+                demarrerEnvoi(message);
+            }
+        }
+        fermer(raison);
+    }
+
+    /**
+     * Déconnecte le client (la session est ensuite retirée de la partie par le serveur). La session
+     * est fermée en dehors de tout verrou, car sa fermeture peut appeler le serveur.
+     */
+    private void fermer(CloseReason raison) {
+        if (raison == null) {
+            return;
+        }
+        try {
+            session.close(raison);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
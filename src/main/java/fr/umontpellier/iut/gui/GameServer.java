@@ -1,98 +1,238 @@
 package fr.umontpellier.iut.gui;
 
-import fr.umontpellier.iut.rails.Jeu;
 import org.glassfish.tyrus.server.Server;
 
+import javax.websocket.CloseReason;
 import javax.websocket.DeploymentException;
 import javax.websocket.Session;
 import java.io.IOException;
-import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class GameServer {
     /**
-     * Liste des clients connectés au serveur
+     * Identifiant de la partie rejointe par les clients qui n'en précisent pas
      */
-    private static ArrayList<Session> clients = new ArrayList<>();
+    public static final String PARTIE_PAR_DEFAUT = "defaut";
     /**
-     * Description de l'état du jeu, envoyé aux clients pour la mise à jour de l'interface graphique
+     * Noms des joueurs d'une partie créée sans préciser de joueurs
      */
-    private static String etatJeu = "";
+    private static final String[] JOUEURS_PAR_DEFAUT = {"Guybrush", "Largo", "LeChuck", "Elaine"};
     /**
-     * Instance de jeu exécutée par le serveur
+     * Nom de la propriété de session contenant l'identifiant de la partie du client
      */
-    private static Jeu jeu;
+    private static final String PROPRIETE_PARTIE = "partie";
+    /**
+     * Préfixe des messages par lesquels un client acquitte une version de l'état (par exemple
+     * "#ack:12"), lorsqu'il ne reçoit que les modifications de l'état
+     */
+    public static final String PREFIXE_ACQUITTEMENT = "#ack:";
+    /**
+     * Parties hébergées par le serveur, indexées par leur identifiant
+     */
+    private static final Map<String, Partie> parties = new ConcurrentHashMap<>();
+    /**
+     * Nombre maximal de parties hébergées simultanément (propriété système "parties.max")
+     */
+    private static final int NB_MAX_PARTIES = Integer.getInteger("parties.max", 10_000);
+    /**
+     * Exécute les parties hébergées lorsqu'elles ne sont pas en mode événementiel
+     */
+    private static final OrdonnanceurParties ordonnanceur = OrdonnanceurParties.parDefaut(NB_MAX_PARTIES);
+    /**
+     * Indique si les parties sont exécutées en mode événementiel : elles avancent alors sur le thread
+     * qui reçoit les instructions, sans occuper de thread en attendant la suivante. C'est le mode par
+     * défaut ; la propriété système "parties.threads" exécute à la place chaque partie sur son propre
+     * thread, avec l'ordonnanceur.
+     */
+    private static final boolean evenementielles = !Boolean.getBoolean("parties.threads");
 
     public static void main(String[] args) {
-        // Lancement de la partie
-        jeu = new Jeu(new String[]{"Guybrush", "Largo", "LeChuck", "Elaine"});
-
         // Prépare le serveur websocket
         Server server = new Server("localhost", 3232, "/", WebSocketClient.class);
 
         try (Scanner scanner = new Scanner(System.in)) {
             server.start();             // lance le serveur
-            new Thread(jeu).start();    // démarre le jeu (exécute la méthode Jeu.run() dans un nouveau thread)
+            // Lancement de la partie par défaut, qui reçoit les instructions saisies dans la console
+            // (elle est recréée si elle a été retirée, par exemple abandonnée par ses clients)
+            creerPartie(PARTIE_PAR_DEFAUT, JOUEURS_PAR_DEFAUT);
 
             while (true) {
-                jeu.addInput(scanner.nextLine());
+                String ligne = scanner.nextLine();
+                transmettre(creerPartie(PARTIE_PAR_DEFAUT, JOUEURS_PAR_DEFAUT), ligne);
             }
         } catch (DeploymentException e) {
             throw new RuntimeException(e);
         } finally {
             server.stop();
+            ordonnanceur.arreter();
         }
     }
 
     /**
-     * Ajoute une nouvelle instruction à la file d'instructions
-     * (cette méthode est appelée lorsqu'un message est reçue sur la websocket)
-     * 
-     * @param message l'instruction à ajouter
+     * Crée une nouvelle partie et la démarre (en mode événementiel ou sur l'ordonnanceur). Si une partie
+     * existe déjà avec cet identifiant, c'est elle qui est renvoyée.
+     *
+     * @param id         identifiant de la partie
+     * @param nomJoueurs noms des joueurs de la partie
+     * @return la partie associée à l'identifiant
+     * @throws IllegalStateException si le nombre maximal de parties simultanées est atteint
+     */
+    public static Partie creerPartie(String id, String[] nomJoueurs) {
+        return parties.computeIfAbsent(id, cle -> nouvellePartie(cle, nomJoueurs));
+    }
+
+    private static Partie nouvellePartie(String id, String[] nomJoueurs) {
+        Partie partie = new Partie(id, nomJoueurs);
+        if (evenementielles) {
+            if (parties.size() >= NB_MAX_PARTIES) {
+                throw new IllegalStateException("Nombre maximal de parties atteint (" + NB_MAX_PARTIES + ")");
+            }
+            partie.demarrer();
+        } else {
+            ordonnanceur.lancer(partie, () -> retirerSiAbandonnee(partie));
+        }
+        return partie;
+    }
+
+    /**
+     * @return la partie associée à l'identifiant, ou null si aucune partie n'a cet identifiant
+     */
+    public static Partie getPartie(String id) {
+        return id == null ? null : parties.get(id);
+    }
+
+    public static OrdonnanceurParties getOrdonnanceur() {
+        return ordonnanceur;
+    }
+
+    /**
+     * @return le nombre de parties hébergées par le serveur
      */
-    public static void addInput(String message) {
-        jeu.addInput(message);
+    public static int getNbParties() {
+        return parties.size();
     }
 
     /**
-     * Met à jour l'état de la partie, et envoie le nouvel état à tous les clients connectés
-     * 
-     * @param etatJeu l'état de la partie
+     * Retire une partie du serveur (la partie n'est plus accessible aux nouveaux clients) et arrête
+     * son exécution si elle est encore en cours, ce qui libère sa place dans l'ordonnanceur
+     *
+     * @param id identifiant de la partie à retirer
      */
-    public static void setEtatJeu(String etatJeu) {
-        GameServer.etatJeu = etatJeu;
-        // Envoie l'état de la partie à tous les clients
-        try {
-            for (Session session : clients) {
-                session.getBasicRemote().sendText(etatJeu);
+    public static void terminerPartie(String id) {
+        Partie partie = parties.remove(id);
+        if (partie != null) {
+            ordonnanceur.arreter(partie);
+        }
+    }
+
+    /**
+     * Transmet une instruction à la partie du client
+     * (cette méthode est appelée lorsqu'un message est reçu sur la websocket)
+     *
+     * @param session la session du client qui envoie l'instruction
+     * @param message l'instruction à ajouter
+     */
+    public static void addInput(Session session, String message) {
+        Partie partie = getPartie((String) session.getUserProperties().get(PROPRIETE_PARTIE));
+        if (partie == null) {
+            return;
+        }
+        if (message.startsWith(PREFIXE_ACQUITTEMENT)) {
+            try {
+                partie.acquitter(session, Integer.parseInt(message.substring(PREFIXE_ACQUITTEMENT.length())));
+            } catch (NumberFormatException e) {
+                e.printStackTrace();
             }
-        } catch (IOException e) {
-            e.printStackTrace();
+        } else {
+            transmettre(partie, message);
+        }
+    }
+
+    private static void transmettre(Partie partie, String message) {
+        if (evenementielles) {
+            partie.soumettre(message);
+        } else {
+            partie.addInput(message);
         }
     }
 
     /**
-     * Ajoute un nouveau client à la liste, et lui transmet l'état actuel de la partie
+     * Rattache un nouveau client à une partie, et lui transmet l'état actuel de la partie
      * (cette méthode est appelée lorsqu'une nouvelle connexion est établie)
-     * 
+     *
+     * La partie est choisie par le paramètre de requête "partie" (partie par défaut s'il est absent).
+     * Si elle n'existe pas encore, elle est créée avec les joueurs indiqués par le paramètre "joueurs"
+     * (noms séparés par des virgules).
+     *
+     * Si le paramètre "protocole" vaut "diff", le client reçoit l'état complet à la connexion puis
+     * uniquement les modifications depuis la dernière version qu'il a acquittée (voir
+     * {@link HistoriqueEtats} et {@link #PREFIXE_ACQUITTEMENT}). Sinon il reçoit l'état complet à chaque
+     * modification.
+     *
      * @param session la session du nouveau client
      */
     public static void addClient(Session session) {
-        GameServer.clients.add(session);
+        String id = getParametre(session, "partie", PARTIE_PAR_DEFAUT);
+        String joueurs = getParametre(session, "joueurs", null);
+        String[] nomJoueurs = joueurs == null ? JOUEURS_PAR_DEFAUT : joueurs.split(",");
+        boolean diff = "diff".equals(getParametre(session, "protocole", null));
+        session.getUserProperties().put(PROPRIETE_PARTIE, id);
         try {
-            session.getBasicRemote().sendText(etatJeu);
-        } catch (IOException e) {
-            e.printStackTrace();
+            // le client est rattaché pendant que la partie est verrouillée dans la table, pour qu'elle ne
+            // puisse pas être retirée entre sa création et l'arrivée de son premier client
+            parties.compute(id, (cle, partie) -> {
+                Partie rejointe = partie == null ? nouvellePartie(cle, nomJoueurs) : partie;
+                rejointe.addClient(session, diff);
+                return rejointe;
+            });
+        } catch (IllegalStateException e) {
+            session.getUserProperties().remove(PROPRIETE_PARTIE);
+            fermer(session, new CloseReason(CloseReason.CloseCodes.TRY_AGAIN_LATER, e.getMessage()));
         }
     }
 
     /**
-     * Retire un client de la liste
+     * Retire un client de sa partie. Si c'était le dernier client de la partie, la partie est retirée du
+     * serveur et arrêtée, même si elle n'est pas terminée (voir {@link #terminerPartie(String)}).
      * (cette méthode est appelée lorsqu'une connexion est fermée)
-     * 
+     *
      * @param session la session du client à retirer
      */
     public static void removeClient(Session session) {
-        GameServer.clients.remove(session);
+        Partie partie = getPartie((String) session.getUserProperties().get(PROPRIETE_PARTIE));
+        if (partie != null) {
+            partie.removeClient(session);
+            retirerSiAbandonnee(partie);
+        }
+    }
+
+    /**
+     * Retire une partie du serveur et arrête son exécution s'il n'y a plus de clients pour la suivre
+     * (appelée lorsqu'un client part et lorsque l'exécution de la partie se termine)
+     */
+    private static void retirerSiAbandonnee(Partie partie) {
+        parties.computeIfPresent(partie.getId(), (id, p) -> p == partie && p.getNbClients() == 0 ? null : p);
+        if (parties.get(partie.getId()) != partie) {
+            ordonnanceur.arreter(partie);
+        }
+    }
+
+    private static void fermer(Session session, CloseReason raison) {
+        try {
+            session.close(raison);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static String getParametre(Session session, String nom, String valeurParDefaut) {
+        List<String> valeurs = session.getRequestParameterMap().get(nom);
+        if (valeurs == null || valeurs.isEmpty() || valeurs.get(0).isBlank()) {
+            return valeurParDefaut;
+        }
+        return valeurs.get(0);
     }
 }
@@ -0,0 +1,186 @@
+package fr.umontpellier.iut.gui;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import fr.umontpellier.iut.rails.SerialiseurEtat;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+
+/**
+ * Historique versionné des états d'une partie, utilisé pour n'envoyer aux clients que ce qui a changé
+ * depuis la dernière version qu'ils ont acquittée.
+ *
+ * Deux types de messages sont produits :
+ * <ul>
+ *     <li>{@code {"type": "complet", "version": n, "etat": {...}}} : l'état complet de la partie</li>
+ *     <li>{@code {"type": "diff", "version": n, "diffs": [{"version": v, "modifs": {...}}, ...]}} : les
+ *     modifications successives depuis la version acquittée par le client. Un client ignore les
+ *     modifications dont la version est inférieure ou égale à celle de son état.</li>
+ * </ul>
+ *
+ * Les modifications ({@code "modifs"}) reprennent la structure de l'état mais ne contiennent que les
+ * valeurs qui ont changé. Elles sont produites par {@link SerialiseurEtat#serialiserModifications} à
+ * partir de ce qui a changé dans la partie : l'historique se contente de les appliquer à sa copie de
+ * l'état (pour les clients qui ont besoin de l'état complet), sans jamais comparer deux états.
+ */
+public class HistoriqueEtats {
+    /**
+     * Clé des éléments ajoutés à la fin d'un tableau (par exemple les nouvelles lignes du log)
+     */
+    static final String AJOUTS = SerialiseurEtat.AJOUTS;
+    /**
+     * Clé des éléments modifiés d'un tableau, indexés par leur position (par exemple les joueurs)
+     */
+    static final String ELEMENTS = SerialiseurEtat.ELEMENTS;
+
+    /**
+     * Nombre maximal de modifications conservées : un client plus en retard reçoit l'état complet
+     */
+    private final int nbMaxModifications;
+    /**
+     * Version de l'état courant
+     */
+    private int version;
+    /**
+     * État courant de la partie
+     */
+    private JsonObject etat;
+    /**
+     * Dernières modifications de l'état, de la plus ancienne à la plus récente
+     */
+    private final Deque<JsonObject> modifications;
+    /**
+     * État courant au format JSON, ou null s'il n'a pas encore été écrit depuis la dernière version
+     */
+    private String etatTexte;
+
+    public HistoriqueEtats(int nbMaxModifications) {
+        this.nbMaxModifications = nbMaxModifications;
+        this.version = 0;
+        this.etat = new JsonObject();
+        this.modifications = new ArrayDeque<>();
+    }
+
+    public synchronized int getVersion() {
+        return version;
+    }
+
+    /**
+     * Enregistre une nouvelle version de l'état de la partie
+     *
+     * @param modifs les modifications de l'état depuis la version précédente (voir
+     *               {@link SerialiseurEtat#serialiserModifications}), la première étant l'état complet
+     */
+    public synchronized void ajouter(String modifs) {
+        JsonElement m = JsonParser.parseString(modifs);
+        version++;
+        JsonObject modification = new JsonObject();
+        modification.addProperty("version", version);
+        modification.add("modifs", m);
+        modifications.addLast(modification);
+        if (modifications.size() > nbMaxModifications) {
+            modifications.removeFirst();
+        }
+        // l'état ne doit pas partager de tableaux avec les modifications conservées, qu'il complète ensuite
+        etat = appliquer(etat, m.deepCopy()).getAsJsonObject();
+        etatTexte = null;
+    }
+
+    /**
+     * @return l'état courant de la partie au format JSON (pour les clients qui reçoivent l'état complet
+     * à chaque modification), ou null si aucun état n'a encore été enregistré
+     */
+    public synchronized String etatComplet() {
+        if (version == 0) {
+            return null;
+        }
+        if (etatTexte == null) {
+            etatTexte = etat.toString();
+        }
+        return etatTexte;
+    }
+
+    /**
+     * @return le message contenant l'état complet de la partie
+     */
+    public synchronized String messageComplet() {
+        JsonObject message = new JsonObject();
+        message.addProperty("type", "complet");
+        message.addProperty("version", version);
+        message.add("etat", etat);
+        return message.toString();
+    }
+
+    /**
+     * @param versionAcquittee dernière version de l'état acquittée par le client
+     * @return le message à envoyer au client pour qu'il obtienne l'état courant : les modifications
+     * depuis la version acquittée si elles sont encore connues, l'état complet sinon. Renvoie null si le
+     * client a déjà l'état courant.
+     */
+    public synchronized String messagePour(int versionAcquittee) {
+        if (versionAcquittee == version) {
+            return null;
+        }
+        int premiereVersionConnue = version - modifications.size();
+        if (versionAcquittee < premiereVersionConnue || versionAcquittee > version) {
+            return messageComplet();
+        }
+        // les modifications sont envoyées de la plus ancienne à la plus récente
+        JsonArray diffs = new JsonArray(version - versionAcquittee);
+        int v = premiereVersionConnue;
+        for (JsonObject modification : modifications) {
+            v++;
+            if (v > versionAcquittee) {
+                diffs.add(modification);
+            }
+        }
+        JsonObject message = new JsonObject();
+        message.addProperty("type", "diff");
+        message.addProperty("version", version);
+        message.add("diffs", diffs);
+        return message.toString();
+    }
+
+    /**
+     * Applique des modifications à un état (c'est le traitement que doit réaliser un client)
+     *
+     * @return le nouvel état (l'état passé en argument peut avoir été modifié)
+     */
+    static JsonElement appliquer(JsonElement etat, JsonElement modifs) {
+        if (!modifs.isJsonObject()) {
+            return modifs;
+        }
+        JsonObject m = modifs.getAsJsonObject();
+        if (etat.isJsonArray() && m.has(AJOUTS)) {
+            etat.getAsJsonArray().addAll(m.getAsJsonArray(AJOUTS));
+            return etat;
+        }
+        if (etat.isJsonArray() && m.has(ELEMENTS)) {
+            JsonArray tableau = etat.getAsJsonArray();
+            for (Map.Entry<String, JsonElement> e : m.getAsJsonObject(ELEMENTS).entrySet()) {
+                int i = Integer.parseInt(e.getKey());
+                tableau.set(i, appliquer(tableau.get(i), e.getValue()));
+            }
+            return etat;
+        }
+        if (!etat.isJsonObject()) {
+            return modifs;
+        }
+        JsonObject objet = etat.getAsJsonObject();
+        for (Map.Entry<String, JsonElement> e : m.entrySet()) {
+            JsonElement valeur = objet.get(e.getKey());
+            if (e.getValue().isJsonNull()) {
+                objet.remove(e.getKey());
+            } else if (valeur == null) {
+                objet.add(e.getKey(), e.getValue());
+            } else {
+                objet.add(e.getKey(), appliquer(valeur, e.getValue()));
+            }
+        }
+        return objet;
+    }
+}
@@ -0,0 +1,154 @@
+package fr.umontpellier.iut.gui;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Exécute les parties hébergées par le serveur.
+ *
+ * Une partie passe l'essentiel de son temps bloquée dans {@code Jeu.lireLigne()} à attendre une
+ * instruction. Par défaut, l'ordonnanceur exécute donc chaque partie sur un thread virtuel lorsque la
+ * JVM le permet (Java 21 et plus), et sur un pool de threads classiques sinon. Dans ce dernier cas,
+ * chaque partie en cours occupe un thread système : le nombre de threads n'est borné que par le nombre
+ * maximal de parties, et c'est pourquoi le serveur exécute par défaut ses parties en mode événementiel
+ * (voir {@code GameServer}), sans ordonnanceur. N'importe quel autre exécuteur peut être fourni à la
+ * construction.
+ */
+public class OrdonnanceurParties {
+    /**
+     * Exécuteur sur lequel les parties sont lancées
+     */
+    private final ExecutorService executeur;
+    /**
+     * Nombre maximal de parties exécutées simultanément
+     */
+    private final int nbMaxParties;
+    /**
+     * Places disponibles pour de nouvelles parties
+     */
+    private final Semaphore places;
+    /**
+     * Parties en cours d'exécution, avec la tâche qui exécute chacune d'elles. Une place est libérée
+     * par celui qui retire la partie de cette table (fin de l'exécution ou {@link #arreter(Partie)}),
+     * ce qui garantit qu'elle n'est libérée qu'une fois.
+     */
+    private final Map<Partie, Future<?>> partiesEnCours;
+
+    public OrdonnanceurParties(ExecutorService executeur, int nbMaxParties) {
+        this.executeur = executeur;
+        this.nbMaxParties = nbMaxParties;
+        this.places = new Semaphore(nbMaxParties);
+        this.partiesEnCours = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * @param nbMaxParties nombre maximal de parties exécutées simultanément
+     * @return un ordonnanceur qui exécute chaque partie sur un thread virtuel si la JVM le permet,
+     * ou sur un pool de threads démons sinon
+     */
+    public static OrdonnanceurParties parDefaut(int nbMaxParties) {
+        return new OrdonnanceurParties(creerExecuteurParDefaut(), nbMaxParties);
+    }
+
+    private static ExecutorService creerExecuteurParDefaut() {
+        try {
+            // Executors.newVirtualThreadPerTaskExecutor() n'existe qu'à partir de Java 21
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(tache -> {
+                Thread thread = new Thread(tache);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Lance l'exécution d'une partie
+     *
+     * @param partie         la partie à exécuter
+     * @param apresExecution action exécutée lorsque la partie est terminée
+     * @throws IllegalStateException si le nombre maximal de parties simultanées est atteint
+     */
+    public void lancer(Partie partie, Runnable apresExecution) {
+        if (!places.tryAcquire()) {
+            throw new IllegalStateException("Nombre maximal de parties atteint (" + nbMaxParties + ")");
+        }
+        FutureTask<Void> tache = new FutureTask<>(() -> {
+            try {
+                partie.executer();
+            } finally {
+                liberer(partie);
+                apresExecution.run();
+            }
+        }, null);
+        // la tâche est enregistrée avant d'être soumise, pour pouvoir être annulée dès son lancement
+        partiesEnCours.put(partie, tache);
+        try {
+            executeur.execute(tache);
+        } catch (RuntimeException e) {
+            liberer(partie);
+            throw e;
+        }
+    }
+
+    /**
+     * Arrête l'exécution d'une partie (par exemple abandonnée par tous ses clients) : la partie est
+     * interrompue si elle est en cours, et sa place est libérée immédiatement. Sans effet si la partie
+     * n'est pas en cours d'exécution.
+     *
+     * @param partie la partie à arrêter
+     */
+    public void arreter(Partie partie) {
+        Future<?> tache = partiesEnCours.get(partie);
+        if (tache != null) {
+            liberer(partie);
+            tache.cancel(true);
+        }
+    }
+
+    /**
+     * Retire une partie des parties en cours et libère sa place (si elle n'a pas déjà été libérée)
+     */
+    private void liberer(Partie partie) {
+        if (partiesEnCours.remove(partie) != null) {
+            places.release();
+        }
+    }
+
+    public int getNbMaxParties() {
+        return nbMaxParties;
+    }
+
+    /**
+     * @return le nombre de parties en cours d'exécution
+     */
+    public int getNbPartiesEnCours() {
+        return partiesEnCours.size();
+    }
+
+    /**
+     * @return le nombre de parties en cours bloquées dans l'attente d'une instruction
+     */
+    public int getNbPartiesEnAttente() {
+        int nb = 0;
+        for (Partie partie : partiesEnCours.keySet()) {
+            if (partie.getJeu().estEnAttenteEntree()) {
+                nb++;
+            }
+        }
+        return nb;
+    }
+
+    /**
+     * Arrête l'ordonnanceur : les parties en cours sont interrompues
+     */
+    public void arreter() {
+        executeur.shutdownNow();
+    }
+}
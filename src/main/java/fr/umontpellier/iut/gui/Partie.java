@@ -0,0 +1,191 @@
+package fr.umontpellier.iut.gui;
+
+import fr.umontpellier.iut.rails.Jeu;
+import fr.umontpellier.iut.rails.SerialiseurEtat;
+
+import javax.websocket.Session;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Partie hébergée par le serveur : une instance de jeu et la liste des clients qui la suivent.
+ * Chaque partie a ses propres clients et son propre état, de sorte que les diffusions d'une partie
+ * ne bloquent jamais celles des autres parties.
+ */
+public class Partie {
+    /**
+     * Nombre de versions de l'état pour lesquelles les modifications sont conservées
+     */
+    private static final int NB_MAX_MODIFICATIONS = 64;
+    /**
+     * Durée maximale (en millisecondes) de l'envoi d'un message à un client, au-delà de laquelle le
+     * client est déconnecté (propriété système "clients.delaiMaxEnvoi")
+     */
+    private static final long DELAI_MAX_ENVOI_MS = Long.getLong("clients.delaiMaxEnvoi", 30_000);
+
+    /**
+     * Identifiant de la partie (utilisé par les clients pour rejoindre la partie)
+     */
+    private final String id;
+    /**
+     * Instance de jeu exécutée pour cette partie
+     */
+    private final Jeu jeu;
+    /**
+     * Clients connectés à cette partie, avec l'envoi asynchrone des états à chacun d'eux. La liste est
+     * copiée à chaque connexion ou déconnexion, ce qui permet de la parcourir sans verrou pendant les
+     * diffusions (beaucoup plus fréquentes).
+     */
+    private final List<DiffusionSession> clients;
+    /**
+     * Sérialiseur des modifications de l'état du jeu (réutilisé à chaque mise à jour)
+     */
+    private final SerialiseurEtat serialiseur;
+    /**
+     * Versions successives de l'état du jeu, envoyé aux clients pour la mise à jour de l'interface
+     * graphique (l'état complet ou les modifications depuis la version acquittée par le client)
+     */
+    private final HistoriqueEtats historique;
+    /**
+     * Dernière version de l'état acquittée par chacun des clients qui ne reçoivent que les
+     * modifications (les autres clients reçoivent l'état complet à chaque modification)
+     */
+    private final Map<Session, Integer> versionsAcquittees;
+    /**
+     * Indique si l'exécution du jeu est terminée
+     */
+    private volatile boolean terminee;
+
+    public Partie(String id, String[] nomJoueurs) {
+        this.id = id;
+        this.clients = new CopyOnWriteArrayList<>();
+        this.serialiseur = new SerialiseurEtat();
+        this.historique = new HistoriqueEtats(NB_MAX_MODIFICATIONS);
+        this.versionsAcquittees = new ConcurrentHashMap<>();
+        this.jeu = new Jeu(nomJoueurs);
+        this.jeu.setObservateur(j -> mettreAJourEtat(serialiseur.serialiserModifications(j)));
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Jeu getJeu() {
+        return jeu;
+    }
+
+    public boolean estTerminee() {
+        return terminee;
+    }
+
+    /**
+     * Exécute la partie jusqu'à son terme (cette méthode est bloquante)
+     */
+    public void executer() {
+        try {
+            jeu.run();
+        } finally {
+            terminee = true;
+        }
+    }
+
+    /**
+     * Démarre la partie en mode événementiel : aucun thread n'est dédié à la partie, qui avance
+     * directement à chaque instruction reçue par {@link #soumettre(String)}
+     */
+    public synchronized void demarrer() {
+        terminee = jeu.demarrer() == null;
+    }
+
+    /**
+     * Fait avancer une partie démarrée en mode événementiel (voir {@link #demarrer()})
+     *
+     * @param message l'instruction du joueur
+     */
+    public synchronized void soumettre(String message) {
+        if (!terminee) {
+            terminee = jeu.soumettre(message) == null;
+        }
+    }
+
+    /**
+     * Ajoute une nouvelle instruction à la file d'instructions du jeu
+     *
+     * @param message l'instruction à ajouter
+     */
+    public void addInput(String message) {
+        jeu.addInput(message);
+    }
+
+    /**
+     * Met à jour l'état de la partie, et envoie le nouvel état (ou ses modifications) à tous les clients
+     * de la partie. Rien n'est envoyé si l'état n'a pas changé (par exemple lorsqu'une instruction
+     * invalide est répétée).
+     *
+     * @param modifs les modifications de l'état depuis la mise à jour précédente (voir
+     *               {@link SerialiseurEtat#serialiserModifications}), ou null si l'état n'a pas changé
+     */
+    public synchronized void mettreAJourEtat(String modifs) {
+        if (modifs == null) {
+            return;
+        }
+        historique.ajouter(modifs);
+        for (DiffusionSession diffusion : clients) {
+            Integer versionAcquittee = versionsAcquittees.get(diffusion.getSession());
+            envoyer(diffusion, versionAcquittee == null ? historique.etatComplet() : historique.messagePour(versionAcquittee));
+        }
+    }
+
+    /**
+     * Ajoute un nouveau client à la partie, et lui transmet l'état actuel de la partie (sans concurrence
+     * avec une diffusion, pour que le client ne reçoive pas un état plus ancien après le nouvel état)
+     *
+     * @param session la session du nouveau client
+     * @param diff    si vrai, le client reçoit ensuite uniquement les modifications de l'état depuis la
+     *                dernière version qu'il a acquittée (voir {@link HistoriqueEtats})
+     */
+    public synchronized void addClient(Session session, boolean diff) {
+        DiffusionSession diffusion = new DiffusionSession(session, DELAI_MAX_ENVOI_MS);
+        clients.add(diffusion);
+        if (diff) {
+            // l'état complet envoyé sert de référence jusqu'au premier acquittement
+            versionsAcquittees.put(session, historique.getVersion());
+            envoyer(diffusion, historique.messageComplet());
+        } else {
+            envoyer(diffusion, historique.etatComplet());
+        }
+    }
+
+    /**
+     * Enregistre la dernière version de l'état reçue par un client
+     *
+     * @param session la session du client
+     * @param version la version acquittée
+     */
+    public void acquitter(Session session, int version) {
+        versionsAcquittees.computeIfPresent(session,
+                (s, versionAcquittee) -> version > versionAcquittee && version <= historique.getVersion() ? version : versionAcquittee);
+    }
+
+    /**
+     * Retire un client de la partie
+     *
+     * @param session la session du client à retirer
+     */
+    public void removeClient(Session session) {
+        clients.removeIf(diffusion -> diffusion.getSession() == session);
+        versionsAcquittees.remove(session);
+    }
+
+    private void envoyer(DiffusionSession diffusion, String message) {
+        if (message != null) {
+            diffusion.envoyer(message);
+        }
+    }
+
+    public int getNbClients() {
+        return clients.size();
+    }
+}
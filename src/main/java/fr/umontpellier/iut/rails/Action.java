@@ -0,0 +1,64 @@
+package fr.umontpellier.iut.rails;
+
+import fr.umontpellier.iut.rails.data.CarteTransport;
+import fr.umontpellier.iut.rails.data.Ville;
+
+/**
+ * Action proposée à un joueur pendant son tour (options d'une invite de nature
+ * {@link Invite.Nature#ACTION})
+ *
+ * @param type  le type de l'action
+ * @param carte la carte visible à prendre, ou null
+ * @param route la route à capturer, ou null
+ * @param port  la ville dans laquelle construire un port, ou null
+ */
+public record Action(Action.Type type, CarteTransport carte, Route route, Ville port) {
+
+    public enum Type {
+        PRENDRE_CARTE_VISIBLE,
+        PIOCHER_WAGON,
+        PIOCHER_BATEAU,
+        CONSTRUIRE_PORT,
+        CAPTURER_ROUTE,
+        PIOCHER_DESTINATIONS,
+        ECHANGER_PIONS_WAGON,
+        ECHANGER_PIONS_BATEAU,
+        PASSER
+    }
+
+    public static final Action PIOCHER_WAGON = new Action(Type.PIOCHER_WAGON, null, null, null);
+    public static final Action PIOCHER_BATEAU = new Action(Type.PIOCHER_BATEAU, null, null, null);
+    public static final Action PIOCHER_DESTINATIONS = new Action(Type.PIOCHER_DESTINATIONS, null, null, null);
+    public static final Action ECHANGER_PIONS_WAGON = new Action(Type.ECHANGER_PIONS_WAGON, null, null, null);
+    public static final Action ECHANGER_PIONS_BATEAU = new Action(Type.ECHANGER_PIONS_BATEAU, null, null, null);
+    public static final Action PASSER = new Action(Type.PASSER, null, null, null);
+
+    public static Action prendreCarteVisible(CarteTransport carte) {
+        return new Action(Type.PRENDRE_CARTE_VISIBLE, carte, null, null);
+    }
+
+    public static Action capturerRoute(Route route) {
+        return new Action(Type.CAPTURER_ROUTE, null, route, null);
+    }
+
+    public static Action construirePort(Ville port) {
+        return new Action(Type.CONSTRUIRE_PORT, null, null, port);
+    }
+
+    /**
+     * @return la réponse correspondant à l'action, telle qu'elle est transmise à la partie
+     */
+    public String valeur() {
+        return switch (type) {
+            case PRENDRE_CARTE_VISIBLE -> carte.getNom();
+            case PIOCHER_WAGON -> "WAGON";
+            case PIOCHER_BATEAU -> "BATEAU";
+            case CONSTRUIRE_PORT -> port.nom();
+            case CAPTURER_ROUTE -> route.getNom();
+            case PIOCHER_DESTINATIONS -> "DESTINATION";
+            case ECHANGER_PIONS_WAGON -> "PIONS WAGON";
+            case ECHANGER_PIONS_BATEAU -> "PIONS BATEAU";
+            case PASSER -> "";
+        };
+    }
+}
@@ -0,0 +1,104 @@
+package fr.umontpellier.iut.rails;
+
+/**
+ * Étape de la partie qui attend un ou plusieurs choix d'un joueur (un tour, la capture d'une route,
+ * le choix des destinations, etc.).
+ *
+ * Une étape ne bloque jamais : elle indique le choix qu'elle attend ({@link #invite()}) et avance
+ * lorsqu'on lui transmet la réponse ({@link #traiter(String)}). Elle peut être exécutée de façon
+ * bloquante ({@code Jeu.executer}) ou pilotée par les entrées reçues ({@code Jeu.soumettre}).
+ * Une étape peut déléguer une partie de son travail à une sous-étape ; elle est prévenue lorsque la
+ * sous-étape est terminée ({@link #sousEtapeTerminee(Etape)}).
+ *
+ * Toute l'étape en cours (avec ses sous-étapes) peut être copiée pour une copie de la partie
+ * ({@link #copier(Jeu)}) : c'est pourquoi la suite d'une sous-étape n'est pas une fonction, qui ne
+ * pourrait pas être rattachée à la copie, mais une méthode de l'étape.
+ */
+abstract class Etape {
+    /**
+     * Sous-étape en cours, ou null
+     */
+    private Etape sousEtape;
+
+    /**
+     * @return le choix attendu pour que l'étape avance, ou null si l'étape est terminée
+     */
+    final Invite invite() {
+        while (true) {
+            if (sousEtape != null) {
+                Invite invite = sousEtape.invite();
+                if (invite != null) {
+                    return invite;
+                }
+                Etape terminee = sousEtape;
+                sousEtape = null;
+                sousEtapeTerminee(terminee);
+            } else {
+                Invite invite = prochaineInvite();
+                if (invite != null || sousEtape == null) {
+                    return invite;
+                }
+            }
+        }
+    }
+
+    /**
+     * Fait avancer l'étape avec la réponse du joueur à la dernière invite
+     *
+     * @param choix une réponse acceptée par l'invite renvoyée par {@link #invite()}
+     */
+    final void traiter(String choix) {
+        if (sousEtape != null) {
+            sousEtape.traiter(choix);
+        } else {
+            traiterChoix(choix);
+        }
+    }
+
+    /**
+     * Lance une sous-étape, qui reçoit les choix suivants jusqu'à ce qu'elle soit terminée
+     */
+    protected void lancer(Etape etape) {
+        this.sousEtape = etape;
+    }
+
+    /**
+     * Appelée lorsque la sous-étape lancée par {@link #lancer(Etape)} est terminée (ne fait rien par
+     * défaut). L'étape peut y lancer une nouvelle sous-étape.
+     */
+    protected void sousEtapeTerminee(Etape etape) {
+    }
+
+    /**
+     * @return une copie de l'étape et de ses sous-étapes, rattachée à la copie de la partie (voir
+     * {@code Jeu.copier})
+     */
+    final Etape copier(Jeu copie) {
+        Etape etape = copierPour(copie);
+        if (sousEtape != null) {
+            etape.sousEtape = sousEtape.copier(copie);
+        }
+        return etape;
+    }
+
+    /**
+     * @return une copie de l'étape seule (sans sa sous-étape), rattachée à la copie de la partie et aux
+     * copies de ses joueurs
+     */
+    protected abstract Etape copierPour(Jeu copie);
+
+    /**
+     * Avance l'étape jusqu'au prochain choix attendu.
+     * Cette méthode peut être appelée plusieurs fois pour le même choix et ne doit donc modifier
+     * l'état de la partie qu'une seule fois.
+     *
+     * @return le prochain choix attendu, ou null si l'étape est terminée ou qu'elle vient de lancer
+     * une sous-étape
+     */
+    protected abstract Invite prochaineInvite();
+
+    /**
+     * Applique la réponse du joueur à la dernière invite renvoyée par {@link #prochaineInvite()}
+     */
+    protected abstract void traiterChoix(String choix);
+}
@@ -0,0 +1,172 @@
+package fr.umontpellier.iut.rails;
+
+import fr.umontpellier.iut.rails.data.Couleur;
+import fr.umontpellier.iut.rails.data.Ville;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static fr.umontpellier.iut.rails.data.TypeCarteTransport.*;
+
+/**
+ * Liste les routes qu'un joueur peut capturer et les ports qu'il peut construire, sans tester les
+ * routes libres une à une.
+ *
+ * Les routes libres sont rangées par catégorie (terrestre, maritime ou paire, et couleur), chaque
+ * catégorie étant triée par longueur. Pour chaque catégorie, les cartes du joueur permettent de
+ * payer toutes les routes jusqu'à une certaine longueur, calculée directement à partir des compteurs
+ * de sa main : les routes capturables sont donc un début de chaque catégorie. Les catégories ne sont
+ * reconstruites que lorsque la liste des routes libres de la partie change (elles sont alors
+ * remplacées et jamais modifiées, ce qui permet de les partager avec une copie de la partie).
+ */
+class GenerateurCoups {
+    private static final int NB_COULEURS = Couleur.values().length;
+    private static final int TERRESTRE = 0;
+    private static final int MARITIME = 1;
+    private static final int PAIRE = 2;
+
+    private final Jeu jeu;
+    /**
+     * Routes libres de chaque catégorie (indice famille * NB_COULEURS + couleur), par longueur croissante
+     */
+    private List<List<Route>> routesParCategorie;
+    /**
+     * Version de la liste des routes libres à partir de laquelle les catégories ont été construites
+     */
+    private int versionRoutes = -1;
+
+    GenerateurCoups(Jeu jeu) {
+        this.jeu = jeu;
+        this.routesParCategorie = List.of();
+    }
+
+    /**
+     * Construit le générateur d'une copie de la partie, qui partage les catégories déjà construites
+     */
+    GenerateurCoups(GenerateurCoups generateur, Jeu jeu) {
+        this.jeu = jeu;
+        this.routesParCategorie = generateur.routesParCategorie;
+        this.versionRoutes = generateur.versionRoutes;
+    }
+
+    private static int famille(Route r) {
+        if (r.estPaire()) {
+            return PAIRE;
+        }
+        return r.estMaritime() ? MARITIME : TERRESTRE;
+    }
+
+    private void mettreAJourCategories() {
+        ListeVersionnee<Route> routesLibres = jeu.getVraiRouteLibres();
+        if (routesLibres.getVersion() == versionRoutes) {
+            return;
+        }
+        List<List<Route>> categories = new ArrayList<>(3 * NB_COULEURS);
+        for (int i = 0; i < 3 * NB_COULEURS; i++) {
+            categories.add(new ArrayList<>());
+        }
+        for (Route r : routesLibres) {
+            categories.get(famille(r) * NB_COULEURS + r.getCouleur().ordinal()).add(r);
+        }
+        for (List<Route> categorie : categories) {
+            categorie.sort(Comparator.comparingInt(Route::getLongueur));
+        }
+        routesParCategorie = categories;
+        versionRoutes = routesLibres.getVersion();
+    }
+
+    /**
+     * @return les routes libres que le joueur peut capturer avec ses cartes et ses pions (mêmes
+     * règles que {@code Joueur.peutPoserRoute} et les pions disponibles)
+     */
+    List<Route> routesCapturables(Joueur joueur) {
+        mettreAJourCategories();
+        int[] longueursMax = longueursPayables(joueur.getMain());
+        List<Route> routes = new ArrayList<>();
+        for (int i = 0; i < routesParCategorie.size(); i++) {
+            int nbPions = i / NB_COULEURS == MARITIME ? joueur.getNbPionsBateau() : joueur.getNbPionsWagon();
+            int longueurMax = Math.min(longueursMax[i], nbPions);
+            for (Route r : routesParCategorie.get(i)) {
+                if (r.getLongueur() > longueurMax) {
+                    break;
+                }
+                // on ne peut pas capturer une route dont on possède déjà une route parallèle
+                if (!joueur.possedeRouteParallele(r)) {
+                    routes.add(r);
+                }
+            }
+        }
+        return routes;
+    }
+
+    /**
+     * @return la longueur maximale des routes de chaque catégorie que le joueur peut payer avec les
+     * cartes de sa main
+     */
+    private static int[] longueursPayables(MainJoueur main) {
+        int[] longueurs = new int[3 * NB_COULEURS];
+        int nbJokers = main.nb(JOKER);
+        int maxWagons = 0;
+        int maxBateaux = 0;
+        for (Couleur c : Couleur.values()) {
+            int nbWagons = main.nb(WAGON, c);
+            // une carte double bateau compte pour deux espaces
+            int nbBateaux = main.nb(BATEAU, c) + main.nb(BATEAU, c, true, false) + main.nb(BATEAU, c, true, true);
+            longueurs[TERRESTRE * NB_COULEURS + c.ordinal()] = nbJokers + nbWagons;
+            longueurs[MARITIME * NB_COULEURS + c.ordinal()] = nbJokers + nbBateaux;
+            maxWagons = Math.max(maxWagons, nbWagons);
+            maxBateaux = Math.max(maxBateaux, nbBateaux);
+        }
+        // une route grise peut être payée avec n'importe quelle couleur
+        longueurs[TERRESTRE * NB_COULEURS + Couleur.GRIS.ordinal()] = nbJokers + maxWagons;
+        longueurs[MARITIME * NB_COULEURS + Couleur.GRIS.ordinal()] = nbJokers + maxBateaux;
+        int nbPaires = nbPaires(main, nbJokers);
+        for (Couleur c : Couleur.values()) {
+            longueurs[PAIRE * NB_COULEURS + c.ordinal()] = nbPaires;
+        }
+        return longueurs;
+    }
+
+    /**
+     * @return le nombre de paires que le joueur peut former pour payer une route paire (même calcul
+     * que {@code Joueur.peutPoserRoute})
+     */
+    private static int nbPaires(MainJoueur main, int nbJokers) {
+        int nbPaires = 0;
+        int nbJokersDisponibles = nbJokers;
+        for (Couleur c : Couleur.values()) {
+            int nbWagons = main.nb(WAGON, c);
+            nbPaires += nbWagons / 2;
+            if (nbWagons % 2 == 1 && nbJokersDisponibles > 0) {
+                nbPaires++;
+                nbJokersDisponibles--;
+            }
+        }
+        return nbPaires + nbJokersDisponibles / 2;
+    }
+
+    /**
+     * @return les ports libres que le joueur peut construire avec ses cartes (mêmes règles que
+     * {@code Joueur.peutPoserPort}), sans tenir compte du nombre de ports qu'il lui reste
+     */
+    List<Ville> portsConstructibles(Joueur joueur) {
+        List<Ville> ports = new ArrayList<>();
+        if (!joueur.getMain().peutPayerPort()) {
+            return ports;
+        }
+        Set<String> villesCapturees = new HashSet<>();
+        for (Route r : joueur.getRoutes()) {
+            villesCapturees.add(r.getVille1().nom());
+            villesCapturees.add(r.getVille2().nom());
+        }
+        for (Ville v : jeu.getVraiPortLibre()) {
+            if (villesCapturees.contains(v.nom())) {
+                ports.add(v);
+            }
+        }
+        return ports;
+    }
+}
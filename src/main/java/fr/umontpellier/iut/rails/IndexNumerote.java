@@ -0,0 +1,78 @@
+package fr.umontpellier.iut.rails;
+
+import java.util.Collection;
+import java.util.function.Function;
+
+/**
+ * Index d'objets dont le nom est formé d'une lettre suivie d'un numéro (par exemple "C123" pour les
+ * cartes ou "R45" pour les routes). Les objets du jeu ont des numéros fixes qui se suivent (C1 à C140,
+ * R1 à R130, D1 à D65) : ils sont donc rangés dans un tableau à la position de leur numéro, ce qui
+ * permet de les retrouver sans parcours ni hachage.
+ */
+class IndexNumerote<T> {
+    private final char prefixe;
+    private final Function<T, String> nom;
+    /**
+     * Plus petit numéro indexé (1 pour les objets du jeu, mais un index peut contenir n'importe quelle
+     * suite de numéros)
+     */
+    private final int premierNumero;
+    private final Object[] objets;
+
+    /**
+     * @param prefixe lettre par laquelle commencent les noms des objets
+     * @param objets  les objets à indexer
+     * @param nom     fonction qui donne le nom d'un objet
+     */
+    IndexNumerote(char prefixe, Collection<? extends T> objets, Function<T, String> nom) {
+        this.prefixe = prefixe;
+        this.nom = nom;
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (T o : objets) {
+            int numero = numero(nom.apply(o));
+            if (numero < 0) {
+                throw new IllegalArgumentException("Nom invalide : " + nom.apply(o));
+            }
+            min = Math.min(min, numero);
+            max = Math.max(max, numero);
+        }
+        this.premierNumero = objets.isEmpty() ? 0 : min;
+        this.objets = new Object[objets.isEmpty() ? 0 : max - min + 1];
+        for (T o : objets) {
+            this.objets[numero(nom.apply(o)) - premierNumero] = o;
+        }
+    }
+
+    /**
+     * @return l'objet dont le nom est passé en argument, ou null s'il n'y en a pas
+     */
+    @SuppressWarnings("unchecked")
+    T get(String nom) {
+        int i = numero(nom) - premierNumero;
+        if (i < 0 || i >= objets.length) {
+            return null;
+        }
+        T o = (T) objets[i];
+        // vérifie le nom complet (par exemple "C012" a le même numéro que "C12")
+        return o != null && this.nom.apply(o).equals(nom) ? o : null;
+    }
+
+    /**
+     * @return le numéro contenu dans le nom, ou -1 si le nom n'a pas la forme attendue
+     */
+    private int numero(String nom) {
+        if (nom == null || nom.length() < 2 || nom.length() > 10 || nom.charAt(0) != prefixe) {
+            return -1;
+        }
+        int numero = 0;
+        for (int i = 1; i < nom.length(); i++) {
+            char c = nom.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            numero = numero * 10 + (c - '0');
+        }
+        return numero;
+    }
+}
@@ -0,0 +1,151 @@
+package fr.umontpellier.iut.rails;
+
+import fr.umontpellier.iut.rails.data.CarteTransport;
+import fr.umontpellier.iut.rails.data.Destination;
+import fr.umontpellier.iut.rails.data.TypeCarteTransport;
+
+import java.util.List;
+
+/**
+ * Choix demandé à un joueur pendant la partie : l'instruction affichée et les réponses acceptées
+ * (mêmes règles que {@code Joueur.choisir})
+ *
+ * @param joueur      le joueur qui doit faire le choix
+ * @param instruction message indiquant au joueur la nature du choix attendu
+ * @param choix       les choix valides attendus du joueur
+ * @param boutons     les choix valides représentés par des boutons sur l'interface graphique
+ * @param peutPasser  indique si le joueur peut passer sans faire de choix (en répondant "")
+ * @param nature      la nature du choix, qui indique le type des options (null si le choix n'est pas typé)
+ * @param options     les objets que le joueur peut choisir (voir {@link Nature}), pour les stratégies
+ *                    qui travaillent directement sur les objets du jeu ({@link StrategieTypee})
+ */
+public record Invite(
+        Joueur joueur,
+        String instruction,
+        List<String> choix,
+        List<Bouton> boutons,
+        boolean peutPasser,
+        Nature nature,
+        List<?> options) {
+
+    /**
+     * Nature d'un choix, et type des options correspondantes
+     */
+    public enum Nature {
+        /**
+         * action d'un tour ({@link Action})
+         */
+        ACTION(Action.class),
+        /**
+         * carte à défausser pour payer une route ou un port ({@link CarteTransport})
+         */
+        CARTE(CarteTransport.class),
+        /**
+         * destination à défausser ({@link Destination}), ou aucune pour garder les autres
+         */
+        DESTINATION(Destination.class),
+        /**
+         * nombre de pions wagon à prendre en début de partie ({@link Integer})
+         */
+        PIONS_WAGON(Integer.class),
+        /**
+         * nombre de pions à échanger ({@link Integer})
+         */
+        ECHANGE_PIONS(Integer.class),
+        /**
+         * pile dans laquelle piocher une carte à retourner ({@link TypeCarteTransport})
+         */
+        PILE(TypeCarteTransport.class);
+
+        private final Class<?> typeOptions;
+
+        Nature(Class<?> typeOptions) {
+            this.typeOptions = typeOptions;
+        }
+
+        /**
+         * @return le type des options d'une invite de cette nature
+         */
+        public Class<?> getTypeOptions() {
+            return typeOptions;
+        }
+    }
+
+    public Invite {
+        choix = copier("choix", choix);
+        boutons = copier("boutons", boutons);
+        options = copier("options", options);
+        for (Object option : options) {
+            if (nature == null || !nature.typeOptions.isInstance(option)) {
+                throw new IllegalArgumentException("Option " + option + " incompatible avec la nature " + nature);
+            }
+        }
+    }
+
+    /**
+     * @return une copie non modifiable de la liste (vide si la liste est null)
+     * @throws IllegalArgumentException si la liste contient null
+     */
+    private static <T> List<T> copier(String champ, List<T> liste) {
+        if (liste == null) {
+            return List.of();
+        }
+        for (int i = 0; i < liste.size(); i++) {
+            if (liste.get(i) == null) {
+                throw new IllegalArgumentException("Élément null à l'indice " + i + " de " + champ);
+            }
+        }
+        return List.copyOf(liste);
+    }
+
+    public Invite(Joueur joueur, String instruction, List<String> choix, List<Bouton> boutons, boolean peutPasser) {
+        this(joueur, instruction, choix, boutons, peutPasser, null, null);
+    }
+
+    /**
+     * @return la même invite adressée à un autre joueur (le joueur correspondant d'une copie de la
+     * partie : les options ne désignent que des objets partagés entre les copies)
+     */
+    Invite pour(Joueur joueur) {
+        return new Invite(joueur, instruction, choix, boutons, peutPasser, nature, options);
+    }
+
+    /**
+     * @param type le type des options, qui doit correspondre à la nature de l'invite (voir
+     *             {@link Nature#getTypeOptions()})
+     * @return les options de l'invite
+     * @throws IllegalStateException si le type ne correspond pas à la nature de l'invite (ou si l'invite
+     *                               n'est pas typée)
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> options(Class<T> type) {
+        if (nature == null || nature.typeOptions != type) {
+            throw new IllegalStateException(
+                    "Options de type " + type.getSimpleName() + " demandées pour une invite de nature " + nature);
+        }
+        // toutes les options sont du type de la nature (vérifié à la construction)
+        return (List<T>) options;
+    }
+
+    /**
+     * @return true si l'entrée est une réponse valide à l'invite : un élément de `choix`, la valeur
+     * d'un élément de `boutons`, ou la chaîne vide si le joueur peut passer ou qu'aucun choix n'est proposé
+     */
+    public boolean accepte(String entree) {
+        if (entree == null) {
+            return false;
+        }
+        if (entree.equals("") && (peutPasser || (choix.isEmpty() && boutons.isEmpty()))) {
+            return true;
+        }
+        if (choix.contains(entree)) {
+            return true;
+        }
+        for (Bouton bouton : boutons) {
+            if (bouton.valeur().equals(entree)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
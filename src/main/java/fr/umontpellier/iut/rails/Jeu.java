@@ -1,14 +1,16 @@
 package fr.umontpellier.iut.rails;
 
-import com.google.gson.Gson;
-import fr.umontpellier.iut.gui.GameServer;
+import com.google.gson.stream.JsonWriter;
 import fr.umontpellier.iut.rails.data.*;
 
 import java.awt.*;
+import java.io.IOException;
 import java.util.*;
 import java.util.List;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+import java.util.random.RandomGenerator;
 
 public class Jeu implements Runnable {
     /**
@@ -22,19 +24,50 @@ public class Jeu implements Runnable {
     /**
      * Liste des villes disponibles sur le plateau de jeu
      */
-    private final List<Ville> portsLibres;
+    private final ListeVersionnee<Ville> portsLibres;
     private final List<Ville> portsDebut;
     /**
      * Liste des routes disponibles sur le plateau de jeu
      */
-    private final List<Route> routesLibres;
+    private final ListeVersionnee<Route> routesLibres;
     private final List<Route> routesDebut;
+    /**
+     * Graphe des villes et de toutes les routes du plateau
+     */
+    private final GraphePlateau graphe;
+    /**
+     * Vues en lecture seule des listes de la partie, renvoyées par les accesseurs publics (elles
+     * suivent les modifications de la partie sans copier les listes à chaque appel)
+     */
+    private final List<Ville> vuePortsLibres;
+    private final List<Route> vueRoutesLibres;
+    private final List<Route> vueRoutesDebut;
+    private final List<CarteTransport> vueCartesTransportVisibles;
+    private final List<Destination> vuePileDestinations;
 
     /**
-     * TOUTES LES CARTES, TTES LES VILLES, TTES LES ROUTES
-     * */
-    private static final List<CarteTransport> allCartesTransports = new ArrayList<>();
-    private final List<Ville> allVilles;
+     * Index des cartes transport, des ports et des routes du jeu par leur nom. Ces objets sont partagés
+     * par toutes les parties : les index sont construits une seule fois.
+     */
+    private static final IndexNumerote<CarteTransport> CARTES_PAR_NOM = indexerCartes();
+    private static final Map<String, Ville> PORTS_PAR_NOM = indexerPorts();
+    private static final IndexNumerote<Route> ROUTES_PAR_NOM =
+            new IndexNumerote<>('R', Plateau.makePlateauMonde().getRoutes(), Route::getNom);
+    /**
+     * Liste des coups possibles des joueurs (routes capturables et ports constructibles)
+     */
+    private final GenerateurCoups generateurCoups;
+
+    /**
+     * Graine du générateur aléatoire de la partie : deux parties créées avec la même graine et les
+     * mêmes joueurs se déroulent à l'identique si les joueurs font les mêmes choix
+     */
+    private final long graine;
+    /**
+     * Générateur aléatoire utilisé pour tous les mélanges de la partie (propre à la partie, il n'est
+     * pas partagé avec les autres parties)
+     */
+    private final RandomGenerator aleatoire;
 
     /**
      * Pile de pioche et défausse des cartes wagon
@@ -47,32 +80,70 @@ public class Jeu implements Runnable {
     /**
      * Cartes de la pioche face visible (normalement il y a 6 cartes face visible)
      */
-    private final List<CarteTransport> cartesTransportVisibles;
+    private final ListeVersionnee<CarteTransport> cartesTransportVisibles;
     /**
      * Pile des cartes "Destination"
      */
-    private final List<Destination> pileDestinations;
+    private final ListeVersionnee<Destination> pileDestinations;
+    /**
+     * File d'attente des instructions recues par le serveur (créée à la première utilisation : les
+     * copies de la partie n'en ont jamais besoin)
+     */
+    private BlockingQueue<String> inputQueue;
     /**
-     * File d'attente des instructions recues par le serveur
+     * Indique si la partie est bloquée dans l'attente d'une instruction
      */
-    private final BlockingQueue<String> inputQueue;
+    private volatile boolean enAttenteEntree;
     /**
      * Messages d'information du jeu
      */
     private final List<String> log;
 
+    /**
+     * Destinataire de l'état de la partie à chaque prompt (par exemple le serveur qui héberge la partie),
+     * ou null si personne ne suit la partie
+     */
+    private Consumer<Jeu> observateur;
+    /**
+     * Indique si la partie est jouée sans affichage (voir {@link #setSansAffichage(boolean)})
+     */
+    private boolean sansAffichage;
+    /**
+     * Déroulement de la partie en mode événementiel (voir {@link #demarrer()}), ou null
+     */
+    private Etape deroulement;
+    /**
+     * Choix attendu par la partie en mode événementiel, ou null si la partie est terminée
+     */
+    private Invite inviteCourante;
+    /**
+     * Journal des coups joués en mode événementiel, pour les annuler (voir {@link #activerJournal()}),
+     * ou null
+     */
+    private Journal journal;
+
     private String instruction;
     private Collection<Bouton> boutons;
 
     public Jeu(String[] nomJoueurs) {
+        this(nomJoueurs, new SplittableRandom().nextLong());
+    }
+
+    /**
+     * @param graine graine du générateur aléatoire de la partie
+     */
+    public Jeu(String[] nomJoueurs, long graine) {
+        this.graine = graine;
+        this.aleatoire = new SplittableRandom(graine);
+
         // initialisation des entrées/sorties
-        inputQueue = new LinkedBlockingQueue<>();
         log = new ArrayList<>();
 
         // création des villes et des routes
         Plateau plateau = Plateau.makePlateauMonde();
-        portsLibres = plateau.getPorts();
-        routesLibres = plateau.getRoutes();
+        portsLibres = new ListeVersionnee<>(plateau.getPorts());
+        routesLibres = new ListeVersionnee<>(plateau.getRoutes());
+        graphe = plateau.getGraphe();
         this.routesDebut = new ArrayList<Route>();
         for (Route r : routesLibres) {
             this.routesDebut.add(r);
@@ -84,117 +155,210 @@ public class Jeu implements Runnable {
 
         // création des piles de pioche et défausses des cartes Transport (wagon et
         // bateau)
-        ArrayList<CarteTransport> cartesWagon = new ArrayList<>();
-        ArrayList<CarteTransport> cartesBateau = new ArrayList<>();
-        ArrayList<CarteTransport> toutesCartesTransport = new ArrayList<>();
-        for (Couleur c : Couleur.values()) {
-            if (c == Couleur.GRIS) {
-                continue;
-            }
-            for (int i = 0; i < 4; i++) {
-                // Cartes wagon simples avec une ancre
-                cartesWagon.add(new CarteTransport(TypeCarteTransport.WAGON, c, false, true));
-            }
-            for (int i = 0; i < 7; i++) {
-                // Cartes wagon simples sans ancre
-                cartesWagon.add(new CarteTransport(TypeCarteTransport.WAGON, c, false, false));
-            }
-            for (int i = 0; i < 4; i++) {
-                // Cartes bateau simples (toutes avec une ancre)
-                cartesBateau.add(new CarteTransport(TypeCarteTransport.BATEAU, c, false, true));
-            }
-            for (int i = 0; i < 6; i++) {
-                // Cartes bateau doubles (toutes sans ancre)
-                cartesBateau.add(new CarteTransport(TypeCarteTransport.BATEAU, c, true, false));
-            }
-        }
-        for (int i = 0; i < 14; i++) {
-            // Cartes wagon joker
-            cartesWagon.add(new CarteTransport(TypeCarteTransport.JOKER, Couleur.GRIS, false, true));
-        }
-        for (CarteTransport c: cartesBateau) {
-            toutesCartesTransport.add(c);
-        }
-        for (CarteTransport c: cartesWagon) {
-            toutesCartesTransport.add(c);
-        }
-        pilesDeCartesWagon = new PilesCartesTransport(cartesWagon);
-        pilesDeCartesBateau = new PilesCartesTransport(cartesBateau);
+        ArrayList<CarteTransport> cartesWagon = CarteTransport.makeCartesWagon();
+        ArrayList<CarteTransport> cartesBateau = CarteTransport.makeCartesBateau();
+        pilesDeCartesWagon = new PilesCartesTransport(cartesWagon, aleatoire);
+        pilesDeCartesBateau = new PilesCartesTransport(cartesBateau, aleatoire);
 
         // création de la liste pile de cartes transport visibles
         // (les cartes seront retournées plus tard, au début de la partie dans run())
-        cartesTransportVisibles = new ArrayList<>();
+        cartesTransportVisibles = new ListeVersionnee<>(List.of());
 
         // création des destinations
-        pileDestinations = Destination.makeDestinationsMonde();
-        Collections.shuffle(pileDestinations);
+        pileDestinations = new ListeVersionnee<>(Destination.makeDestinationsMonde());
+        melanger(pileDestinations);
 
         // création des joueurs
         ArrayList<Joueur.CouleurJouer> couleurs = new ArrayList<>(Arrays.asList(Joueur.CouleurJouer.values()));
-        Collections.shuffle(couleurs);
+        melanger(couleurs);
         joueurs = new ArrayList<>();
         for (String nomJoueur : nomJoueurs) {
             joueurs.add(new Joueur(nomJoueur, this, couleurs.remove(0)));
         }
         this.joueurCourant = joueurs.get(0);
 
-        allCartesTransports.addAll(toutesCartesTransport);
+        this.generateurCoups = new GenerateurCoups(this);
+        this.vuePortsLibres = Collections.unmodifiableList(portsLibres);
+        this.vueRoutesLibres = Collections.unmodifiableList(routesLibres);
+        this.vueRoutesDebut = Collections.unmodifiableList(routesDebut);
+        this.vueCartesTransportVisibles = Collections.unmodifiableList(cartesTransportVisibles);
+        this.vuePileDestinations = Collections.unmodifiableList(pileDestinations);
+
+    }
+
+    /**
+     * Construit une copie de la partie (voir {@link #copier(long)})
+     */
+    private Jeu(Jeu jeu, long graine) {
+        this.graine = graine;
+        this.aleatoire = new SplittableRandom(graine);
+        log = new ArrayList<>();
+        sansAffichage = true;
+
+        // le plateau et les routes sont partagés : ils ne changent pas pendant la partie
+        graphe = jeu.graphe;
+        routesDebut = jeu.routesDebut;
+        portsDebut = jeu.portsDebut;
+        vueRoutesDebut = jeu.vueRoutesDebut;
 
-        this.allVilles = new ArrayList<>();
-        this.allVilles.addAll(portsLibres);
+        portsLibres = new ListeVersionnee<>(jeu.portsLibres);
+        routesLibres = new ListeVersionnee<>(jeu.routesLibres);
+        pileDestinations = new ListeVersionnee<>(jeu.pileDestinations);
+        pilesDeCartesWagon = new PilesCartesTransport(jeu.pilesDeCartesWagon, aleatoire);
+        pilesDeCartesBateau = new PilesCartesTransport(jeu.pilesDeCartesBateau, aleatoire);
+        cartesTransportVisibles = new ListeVersionnee<>(jeu.cartesTransportVisibles);
+        joueurs = new ArrayList<>(jeu.joueurs.size());
+        for (Joueur j : jeu.joueurs) {
+            joueurs.add(new Joueur(j, this));
+        }
+        joueurCourant = jeu.joueurCourant.copieDans(this);
+        generateurCoups = new GenerateurCoups(jeu.generateurCoups, this);
+        vuePortsLibres = Collections.unmodifiableList(portsLibres);
+        vueRoutesLibres = Collections.unmodifiableList(routesLibres);
+        vueCartesTransportVisibles = Collections.unmodifiableList(cartesTransportVisibles);
+        vuePileDestinations = Collections.unmodifiableList(pileDestinations);
 
+        if (jeu.deroulement != null) {
+            deroulement = jeu.deroulement.copier(this);
+        }
+        if (jeu.inviteCourante != null) {
+            inviteCourante = jeu.inviteCourante.pour(jeu.inviteCourante.joueur().copieDans(this));
+        }
+        instruction = jeu.instruction;
+        boutons = jeu.boutons;
     }
 
-    public static CarteTransport getCarteByNom(String nom){
-        for (CarteTransport c : allCartesTransports) {
-            if (c.getNom().equals(nom)){
-                return c;
-            }
+    /**
+     * Copie la partie démarrée par {@link #demarrer()}, par exemple pour explorer les suites possibles
+     * d'une partie en cours : la copie attend le même choix que la partie et avance de son côté avec
+     * {@link #soumettre(String)}, sans modifier la partie copiée.
+     *
+     * La copie partage avec la partie tout ce qui ne change pas (plateau, routes, cartes, destinations,
+     * index), et les listes versionnées jusqu'à leur prochaine modification. Elle est jouée sans
+     * affichage, sans observateur et sans stratégies, et elle a son propre générateur aléatoire (les
+     * pioches gardent l'ordre de leurs cartes, mais les prochains mélanges diffèrent de ceux de la
+     * partie copiée).
+     *
+     * @param graine graine du générateur aléatoire de la copie
+     */
+    public Jeu copier(long graine) {
+        return new Jeu(this, graine);
+    }
+
+    /**
+     * Copie la partie avec la même graine (voir {@link #copier(long)})
+     */
+    public Jeu copier() {
+        return copier(graine);
+    }
+
+    /**
+     * Mélange une liste sur place avec le générateur aléatoire de la partie (algorithme de Fisher-Yates)
+     */
+    private <T> void melanger(List<T> liste) {
+        for (int i = liste.size() - 1; i > 0; i--) {
+            Collections.swap(liste, i, aleatoire.nextInt(i + 1));
         }
-        return null;
     }
-    public Ville getVillebyNom(String nom){
-        for (Ville v  : allVilles) {
-            if (v.getNom().equals(nom))
-                return v;
+
+    public long getGraine() {
+        return graine;
+    }
+
+    private static IndexNumerote<CarteTransport> indexerCartes() {
+        List<CarteTransport> cartes = CarteTransport.makeCartesWagon();
+        cartes.addAll(CarteTransport.makeCartesBateau());
+        return new IndexNumerote<>('C', cartes, CarteTransport::getNom);
+    }
+
+    private static Map<String, Ville> indexerPorts() {
+        Map<String, Ville> ports = new HashMap<>();
+        for (Ville v : Plateau.makePlateauMonde().getPorts()) {
+            ports.put(v.getNom(), v);
         }
-        return null;
+        return Map.copyOf(ports);
     }
 
+    /**
+     * @return la carte transport de la partie dont le nom est passé en argument, ou null
+     */
+    public CarteTransport getCarteByNom(String nom){
+        return CARTES_PAR_NOM.get(nom);
+    }
+
+    /**
+     * @return le port dont le nom est passé en argument, ou null
+     */
+    public Ville getVillebyNom(String nom){
+        return PORTS_PAR_NOM.get(nom);
+    }
+
+    /**
+     * @return la route du plateau dont le nom est passé en argument, ou null
+     */
     public Route getRoutebyNom(String nom){
-        for (Route r  : routesDebut) {
-            if (r.getNom().equals(nom))
-                return r;
-        }
-        return null;
+        return ROUTES_PAR_NOM.get(nom);
+    }
+
+    public GraphePlateau getGraphe() {
+        return graphe;
+    }
+
+    GenerateurCoups getGenerateurCoups() {
+        return generateurCoups;
     }
 
     public List<Joueur> getJoueurs() {
         return joueurs;
     }
 
+    /**
+     * @return les ports libres, en lecture seule (la liste suit l'état de la partie : il faut la copier
+     * pour la parcourir pendant que des ports sont construits)
+     */
     public List<Ville> getPortsLibres() {
-        return new ArrayList<>(portsLibres);
+        return vuePortsLibres;
     }
-    public List<Ville> getVraiPortLibre(){
+    ListeVersionnee<Ville> getVraiPortLibre(){
         return portsLibres;
     }
 
+    /**
+     * @return les routes libres, en lecture seule (la liste suit l'état de la partie : il faut la copier
+     * pour la parcourir pendant que des routes sont capturées)
+     */
     public List<Route> getRoutesLibres() {
-        return new ArrayList<>(routesLibres);
+        return vueRoutesLibres;
     }
-    public List<Route> getVraiRouteLibres(){
+    ListeVersionnee<Route> getVraiRouteLibres(){
         return this.routesLibres;
     }
+    /**
+     * @return les cartes transport visibles, en lecture seule (la liste suit l'état de la partie)
+     */
     public List<CarteTransport> getCartesTransportVisibles() {
-        return new ArrayList<>(cartesTransportVisibles);
+        return vueCartesTransportVisibles;
+    }
+    /**
+     * @return la pile des destinations, en lecture seule (voir {@link #piocherDestination()} et
+     * {@link #remettreDestination(Destination)})
+     */
+    public List<Destination> getPileDestinations() {
+        return vuePileDestinations;
     }
-    public List<CarteTransport> cartesTransportVisibles() {
-        return this.cartesTransportVisibles;
+
+    /**
+     * Retire et renvoie la destination du dessus de la pile, ou null si la pile est vide
+     */
+    Destination piocherDestination() {
+        return pileDestinations.isEmpty() ? null : pileDestinations.remove(0);
     }
 
-    public List<Destination> getPileDestinations() {
-        return pileDestinations;
+    /**
+     * Remet une destination défaussée au fond de la pile
+     */
+    void remettreDestination(Destination destination) {
+        pileDestinations.add(destination);
     }
 
     /**
@@ -206,50 +370,327 @@ public class Jeu implements Runnable {
      * méthode Joueur.jouerTour() jusqu'à ce que la condition de fin de partie soit réalisée.
      */
     public void run() {
-        // IMPORTANT : Le corps de cette fonction est à réécrire entièrement
-        // Un exemple très simple est donné pour illustrer l'utilisation de certaines méthodes
+        executer(new Deroulement());
+        // Fin de la partie
+        prompt("Fin de la partie.", new ArrayList<>(), true);
+    }
 
-        this.poserCartesVisibles(false);
-        // Début du jeu
-        for (Joueur j: joueurs) {
-            joueurCourant = j;
-            //prendre cartes Destination
-            j.prendreDestinations(true);
-            // changement ratio pions
-            j.setRatioPions();
-            // le nombre de ports que chaque j peut poser est j.nbPorts (= à 3 au début du jeu dans constructeur)
-
-        }
-
-        // jeu normal
-        boolean finAnnoncee = false;
-        while (getMinPionsJoueurs() > 6){
-            for (Joueur j : joueurs) {
-                joueurCourant = j;
-                joueurCourant.jouerTour();
-                if (finAnnoncee){
-                    joueurCourant.incrementerNbToursFin();
-                }
-                if (joueurCourant.getSommePions() <= 6 && !finAnnoncee){
-                    finAnnoncee = true;
+    /**
+     * Démarre la partie en mode événementiel : au lieu de bloquer dans {@code lireLigne()} jusqu'à
+     * recevoir une instruction valide, la partie avance à chaque appel de {@link #soumettre(String)}.
+     * Ce mode permet à un même thread de faire avancer de nombreuses parties.
+     *
+     * Comme {@link #run()}, cette méthode retourne les cartes visibles puis demande au premier joueur
+     * de choisir ses destinations initiales.
+     *
+     * @return le premier choix attendu
+     */
+    public Invite demarrer() {
+        deroulement = new Deroulement();
+        return avancer();
+    }
+
+    /**
+     * Transmet une instruction à la partie démarrée par {@link #demarrer()} et fait avancer la partie
+     * jusqu'au prochain choix attendu. Une instruction qui n'est pas une réponse valide au choix
+     * attendu est ignorée.
+     *
+     * @param entree l'instruction du joueur
+     * @return le prochain choix attendu, ou null si la partie est terminée
+     */
+    public Invite soumettre(String entree) {
+        if (inviteCourante == null) {
+            throw new IllegalStateException("La partie n'attend pas d'instruction");
+        }
+        if (!inviteCourante.accepte(entree)) {
+            return inviteCourante;
+        }
+        if (journal == null) {
+            deroulement.traiter(entree);
+            return avancer();
+        }
+        journal.commencerCoup();
+        EtatPartie avant = new EtatPartie(this);
+        deroulement.traiter(entree);
+        avancer();
+        EtatPartie apres = new EtatPartie(this);
+        journal.noter(() -> avant.restaurer(this), () -> apres.restaurer(this));
+        journal.terminerCoup();
+        return inviteCourante;
+    }
+
+    /**
+     * Note dans un journal toutes les modifications de la partie faites par les choix transmis à
+     * {@link #soumettre(String)}, pour pouvoir les annuler ({@link #annuler()}) puis les refaire
+     * ({@link #refaire()}). Annuler un choix ne demande que de défaire ses modifications (cartes
+     * piochées ou défaussées, routes capturées, ports construits, destinations, pions...), et pas de
+     * copier toute la partie.
+     *
+     * Le générateur aléatoire de la partie n'est pas remis en arrière : un choix annulé puis refait
+     * avec {@link #refaire()} retrouve exactement le même état, mais un choix annulé puis soumis de
+     * nouveau qui remélange une pioche peut donner un autre ordre. Les messages du log ne sont pas
+     * retirés. Les copies de la partie ({@link #copier(long)}) n'ont pas de journal.
+     */
+    public void activerJournal() {
+        if (journal != null) {
+            return;
+        }
+        journal = new Journal();
+        portsLibres.setJournal(journal);
+        routesLibres.setJournal(journal);
+        pileDestinations.setJournal(journal);
+        cartesTransportVisibles.setJournal(journal);
+        pilesDeCartesWagon.setJournal(journal);
+        pilesDeCartesBateau.setJournal(journal);
+        for (Joueur j : joueurs) {
+            j.setJournal(journal);
+        }
+    }
+
+    /**
+     * Annule le dernier choix transmis à {@link #soumettre(String)} (y compris les choix faits ensuite
+     * par les joueurs pilotés par une stratégie) : la partie attend de nouveau ce choix.
+     *
+     * @return false si le journal n'est pas activé ou qu'il n'y a aucun choix à annuler
+     */
+    public boolean annuler() {
+        if (journal == null || !journal.annuler()) {
+            return false;
+        }
+        afficherInvite();
+        return true;
+    }
+
+    /**
+     * Refait le dernier choix annulé par {@link #annuler()}, si aucun autre choix n'a été soumis depuis
+     *
+     * @return false s'il n'y a aucun choix à refaire
+     */
+    public boolean refaire() {
+        if (journal == null || !journal.refaire()) {
+            return false;
+        }
+        afficherInvite();
+        return true;
+    }
+
+    public boolean peutAnnuler() {
+        return journal != null && journal.peutAnnuler();
+    }
+
+    public boolean peutRefaire() {
+        return journal != null && journal.peutRefaire();
+    }
+
+    /**
+     * État de la partie qui n'est pas rangé dans des listes journalisées : l'étape en cours, le choix
+     * attendu et les compteurs des joueurs (sauvés avant et après chaque coup du journal)
+     */
+    private record EtatPartie(Etape deroulement, Joueur joueurCourant, Invite invite, int[][] compteurs) {
+        EtatPartie(Jeu jeu) {
+            this(jeu.deroulement.copier(jeu), jeu.joueurCourant, jeu.inviteCourante, compteurs(jeu));
+        }
+
+        private static int[][] compteurs(Jeu jeu) {
+            int[][] compteurs = new int[jeu.joueurs.size()][];
+            for (int i = 0; i < compteurs.length; i++) {
+                compteurs[i] = jeu.joueurs.get(i).getCompteurs();
+            }
+            return compteurs;
+        }
+
+        void restaurer(Jeu jeu) {
+            // l'étape sauvée est de nouveau copiée, pour pouvoir être restaurée plusieurs fois
+            jeu.deroulement = deroulement.copier(jeu);
+            jeu.joueurCourant = joueurCourant;
+            jeu.inviteCourante = invite;
+            for (int i = 0; i < compteurs.length; i++) {
+                jeu.joueurs.get(i).restaurerCompteurs(compteurs[i]);
+            }
+        }
+    }
+
+    /**
+     * @return le choix attendu par la partie démarrée par {@link #demarrer()}, ou null si la partie
+     * est terminée
+     */
+    public Invite getInviteCourante() {
+        return inviteCourante;
+    }
+
+    private Invite avancer() {
+        inviteCourante = deroulement.invite();
+        // les joueurs pilotés par une stratégie jouent sans attendre d'instruction
+        while (inviteCourante != null && inviteCourante.joueur().getStrategie() != null) {
+            deroulement.traiter(choixStrategie(inviteCourante));
+            inviteCourante = deroulement.invite();
+        }
+        afficherInvite();
+        return inviteCourante;
+    }
+
+    private void afficherInvite() {
+        if (inviteCourante == null) {
+            prompt("Fin de la partie.", new ArrayList<>(), true);
+        } else {
+            prompt(inviteCourante.instruction(), inviteCourante.boutons(), inviteCourante.peutPasser());
+        }
+    }
+
+    /**
+     * Exécute une étape jusqu'à son terme en lisant les choix des joueurs (cette méthode est bloquante)
+     */
+    void executer(Etape etape) {
+        Invite invite;
+        while ((invite = etape.invite()) != null) {
+            if (invite.joueur().getStrategie() != null) {
+                etape.traiter(choixStrategie(invite));
+            } else {
+                etape.traiter(invite.joueur().choisir(invite.instruction(), invite.choix(), invite.boutons(), invite.peutPasser()));
+            }
+        }
+    }
+
+    /**
+     * @return la réponse de la stratégie du joueur à l'invite
+     * @throws IllegalStateException si la réponse n'est pas acceptée par l'invite
+     */
+    private String choixStrategie(Invite invite) {
+        String choix = invite.joueur().getStrategie().choisir(this, invite);
+        if (!invite.accepte(choix)) {
+            throw new IllegalStateException(String.format("Réponse invalide de %s : \"%s\" (%s)",
+                    invite.joueur().getNom(), choix, invite.instruction()));
+        }
+        return choix;
+    }
+
+    /**
+     * Déroulement complet de la partie (voir {@link #run()}), sous forme d'étape
+     */
+    private class Deroulement extends Etape {
+        private int phase = MISE_EN_PLACE;
+        /**
+         * Indice du prochain joueur à jouer dans la phase courante
+         */
+        private int indexJoueur = 0;
+        /**
+         * Nombre de tours de fin de jeu déjà joués
+         */
+        private int nbToursFinJoues = 0;
+        private boolean finAnnoncee = false;
+
+        private static final int MISE_EN_PLACE = 0;
+        private static final int DEBUT = 1;
+        private static final int TOURS = 2;
+        private static final int TOURS_FIN = 3;
+        private static final int TERMINEE = 4;
+
+        @Override
+        protected Invite prochaineInvite() {
+            while (true) {
+                switch (phase) {
+                    case MISE_EN_PLACE -> {
+                        poserCartesVisibles(false);
+                        phase = DEBUT;
+                    }
+                    case DEBUT -> { // Début du jeu
+                        if (indexJoueur == joueurs.size()) {
+                            indexJoueur = 0;
+                            phase = TOURS;
+                            continue;
+                        }
+                        Joueur j = joueurs.get(indexJoueur++);
+                        joueurCourant = j;
+                        //prendre cartes Destination puis changement ratio pions
+                        // le nombre de ports que chaque j peut poser est j.nbPorts (= à 3 au début du jeu dans constructeur)
+                        lancer(j.new PiocheDestinations(true));
+                        return null;
+                    }
+                    case TOURS -> { // jeu normal
+                        if (indexJoueur == joueurs.size()) {
+                            indexJoueur = 0;
+                        }
+                        if (indexJoueur == 0 && getMinPionsJoueurs() <= 6) {
+                            phase = TOURS_FIN;
+                            continue;
+                        }
+                        Joueur j = joueurs.get(indexJoueur++);
+                        joueurCourant = j;
+                        lancer(j.new Tour());
+                        return null;
+                    }
+                    case TOURS_FIN -> { // 2 TOURS FIN DE JEU
+                        if (indexJoueur == joueurs.size()) {
+                            indexJoueur = 0;
+                            nbToursFinJoues++;
+                        }
+                        if (nbToursFinJoues == 2) {
+                            designerGagnant();
+                            phase = TERMINEE;
+                            continue;
+                        }
+                        Joueur j = joueurs.get(indexJoueur++);
+                        joueurCourant = j;
+                        if (j.getNbToursFin() >= 2){
+                            continue;
+                        }
+                        lancer(j.new Tour());
+                        return null;
+                    }
+                    default -> {
+                        return null;
+                    }
                 }
             }
         }
-        // 2 TOURS FIN DE JEU
-        for (int i = 0; i < 2; i++) {
-            for (Joueur j : joueurs) {
-                joueurCourant = j;
-                if (joueurCourant.getNbToursFin() >= 2){
-                    continue;
+
+        @Override
+        protected void sousEtapeTerminee(Etape etape) {
+            // joueurCourant est le joueur de la sous-étape qui vient de se terminer
+            switch (phase) {
+                case DEBUT -> {
+                    if (etape instanceof Joueur.PiocheDestinations) {
+                        lancer(joueurCourant.new ChoixRatioPions());
+                    }
                 }
-                joueurCourant.jouerTour();
-                if (finAnnoncee){
-                    joueurCourant.incrementerNbToursFin();
+                case TOURS -> {
+                    if (finAnnoncee){
+                        joueurCourant.incrementerNbToursFin();
+                    }
+                    if (joueurCourant.getSommePions() <= 6 && !finAnnoncee){
+                        finAnnoncee = true;
+                    }
+                }
+                case TOURS_FIN -> {
+                    if (finAnnoncee){
+                        joueurCourant.incrementerNbToursFin();
+                    }
+                }
+                default -> {
                 }
             }
         }
 
-        // CALCUL DU GAGNANT
+        @Override
+        protected void traiterChoix(String choix) {
+            // les choix sont tous faits dans les sous-étapes
+        }
+
+        @Override
+        protected Etape copierPour(Jeu copie) {
+            Deroulement d = copie.new Deroulement();
+            d.phase = phase;
+            d.indexJoueur = indexJoueur;
+            d.nbToursFinJoues = nbToursFinJoues;
+            d.finAnnoncee = finAnnoncee;
+            return d;
+        }
+    }
+
+    /**
+     * CALCUL DU GAGNANT
+     */
+    private void designerGagnant() {
         int meilleurscore = joueurs.get(0).calculerScoreFinal() - 1;
         Joueur gagnant = null;
         for (Joueur j: joueurs) {
@@ -259,8 +700,6 @@ public class Jeu implements Runnable {
             }
         }
         log(String.format("Le joueur qui remporte la partie est %s !!!", gagnant.getNom()));
-        // Fin de la partie
-        prompt("Fin de la partie.", new ArrayList<>(), true);
     }
 
 
@@ -294,14 +733,24 @@ public class Jeu implements Runnable {
      * Ajoute un message au log du jeu
      */
     public void log(String message) {
+        if (sansAffichage) {
+            return;
+        }
         log.add(message);
     }
 
+    private synchronized BlockingQueue<String> fileEntrees() {
+        if (inputQueue == null) {
+            inputQueue = new LinkedBlockingQueue<>();
+        }
+        return inputQueue;
+    }
+
     /**
      * Ajoute un message à la file d'entrées
      */
     public void addInput(String message) {
-        inputQueue.add(message);
+        fileEntrees().add(message);
     }
 
     /**
@@ -313,14 +762,25 @@ public class Jeu implements Runnable {
      * file
      */
     public String lireLigne() {
+        enAttenteEntree = true;
         try {
-            return inputQueue.take();
+            return fileEntrees().take();
         } catch (InterruptedException e) {
-            e.printStackTrace();
-            return null;
+            // la partie est arrêtée : on ne peut plus lire d'instruction
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } finally {
+            enAttenteEntree = false;
         }
     }
 
+    /**
+     * @return true si la partie est bloquée dans {@code lireLigne()} en attente d'une instruction
+     */
+    public boolean estEnAttenteEntree() {
+        return enAttenteEntree;
+    }
+
     /**
      * Envoie l'état de la partie pour affichage aux joueurs avant de faire un choix
      *
@@ -331,6 +791,9 @@ public class Jeu implements Runnable {
     public void prompt(String instruction, Collection<Bouton> boutons, boolean peutPasser) {
         this.instruction = instruction;
         this.boutons = boutons;
+        if (sansAffichage) {
+            return;
+        }
 
         System.out.println();
         System.out.println(this);
@@ -343,7 +806,29 @@ public class Jeu implements Runnable {
             }
             System.out.printf(">>> %s: %s [%s] <<<\n", joueurCourant.getNom(), instruction, joiner);
         }
-        GameServer.setEtatJeu(new Gson().toJson(dataMap()));
+        if (observateur != null) {
+            observateur.accept(this);
+        }
+    }
+
+    /**
+     * Active ou désactive le mode sans affichage : les prompts n'écrivent rien sur la sortie standard
+     * et ne sont pas transmis à l'observateur, et les messages ne sont pas conservés dans le log.
+     * Ce mode est destiné aux parties simulées (voir {@link MoteurSimulation})
+     */
+    public void setSansAffichage(boolean sansAffichage) {
+        this.sansAffichage = sansAffichage;
+    }
+
+    public boolean estSansAffichage() {
+        return sansAffichage;
+    }
+
+    /**
+     * Fixe le destinataire de l'état de la partie, appelé à chaque prompt
+     */
+    public void setObservateur(Consumer<Jeu> observateur) {
+        this.observateur = observateur;
     }
 
     @Override
@@ -368,6 +853,130 @@ public class Jeu implements Runnable {
                 Map.entry("log", log));
     }
 
+    /**
+     * Écrit l'état du jeu (le même contenu que {@link #dataMap()}) sans construire de dictionnaires
+     * intermédiaires (voir {@link SerialiseurEtat})
+     */
+    void ecrireEtat(JsonWriter out) throws IOException {
+        out.beginObject();
+        out.name("joueurs").beginArray();
+        for (Joueur j : joueurs) {
+            j.ecrireEtat(out);
+        }
+        out.endArray();
+        out.name("joueurCourant").value(joueurs.indexOf(joueurCourant));
+        out.name("piocheWagon");
+        pilesDeCartesWagon.ecrireEtat(out);
+        out.name("piocheBateau");
+        pilesDeCartesBateau.ecrireEtat(out);
+        ecrireCartesVisibles(out);
+        out.name("nbDestinations").value(pileDestinations.size());
+        out.name("instruction").value(instruction);
+        ecrireBoutons(out);
+        out.name("log").beginArray();
+        for (String message : log) {
+            out.value(message);
+        }
+        out.endArray();
+        out.endObject();
+        out.flush();
+    }
+
+    /**
+     * Valeurs simples et versions des listes du jeu, qui suffisent à savoir ce qui a changé dans
+     * l'état envoyé aux clients (voir {@link SerialiseurEtat#serialiserModifications(Jeu)})
+     */
+    record Empreinte(List<Joueur.Empreinte> joueurs, int joueurCourant, int piocheWagon,
+                     int versionDefausseWagon, int piocheBateau, int versionDefausseBateau,
+                     int versionCartesVisibles, int nbDestinations, String instruction,
+                     Collection<Bouton> boutons, int nbMessagesLog) {
+    }
+
+    Empreinte empreinte() {
+        List<Joueur.Empreinte> empreintesJoueurs = new ArrayList<>(joueurs.size());
+        for (Joueur j : joueurs) {
+            empreintesJoueurs.add(j.empreinte());
+        }
+        return new Empreinte(empreintesJoueurs, joueurs.indexOf(joueurCourant),
+                pilesDeCartesWagon.getPilePioche().size(), pilesDeCartesWagon.getVersionDefausse(),
+                pilesDeCartesBateau.getPilePioche().size(), pilesDeCartesBateau.getVersionDefausse(),
+                cartesTransportVisibles.getVersion(), pileDestinations.size(), instruction, boutons, log.size());
+    }
+
+    /**
+     * Écrit uniquement ce qui diffère entre deux empreintes de l'état du jeu, au format des
+     * modifications de {@link SerialiseurEtat#serialiserModifications(Jeu)} : les joueurs modifiés
+     * sous {@code "$elements"}, les nouveaux messages du log sous {@code "$ajouts"}, et la nouvelle
+     * valeur des autres parties modifiées
+     */
+    void ecrireModifications(JsonWriter out, Empreinte avant, Empreinte apres) throws IOException {
+        out.beginObject();
+        if (!avant.joueurs().equals(apres.joueurs())) {
+            out.name("joueurs").beginObject().name(SerialiseurEtat.ELEMENTS).beginObject();
+            for (int i = 0; i < joueurs.size(); i++) {
+                if (!avant.joueurs().get(i).equals(apres.joueurs().get(i))) {
+                    out.name(Integer.toString(i));
+                    joueurs.get(i).ecrireModifications(out, avant.joueurs().get(i), apres.joueurs().get(i));
+                }
+            }
+            out.endObject().endObject();
+        }
+        if (avant.joueurCourant() != apres.joueurCourant()) {
+            out.name("joueurCourant").value(apres.joueurCourant());
+        }
+        boolean piocheWagon = avant.piocheWagon() != apres.piocheWagon();
+        boolean defausseWagon = avant.versionDefausseWagon() != apres.versionDefausseWagon();
+        if (piocheWagon || defausseWagon) {
+            out.name("piocheWagon");
+            pilesDeCartesWagon.ecrireEtat(out, piocheWagon, defausseWagon);
+        }
+        boolean piocheBateau = avant.piocheBateau() != apres.piocheBateau();
+        boolean defausseBateau = avant.versionDefausseBateau() != apres.versionDefausseBateau();
+        if (piocheBateau || defausseBateau) {
+            out.name("piocheBateau");
+            pilesDeCartesBateau.ecrireEtat(out, piocheBateau, defausseBateau);
+        }
+        if (avant.versionCartesVisibles() != apres.versionCartesVisibles()) {
+            ecrireCartesVisibles(out);
+        }
+        if (avant.nbDestinations() != apres.nbDestinations()) {
+            out.name("nbDestinations").value(apres.nbDestinations());
+        }
+        if (!Objects.equals(avant.instruction(), apres.instruction())) {
+            out.name("instruction").value(instruction);
+        }
+        if (!Objects.equals(avant.boutons(), apres.boutons())) {
+            ecrireBoutons(out);
+        }
+        if (avant.nbMessagesLog() != apres.nbMessagesLog()) {
+            out.name("log").beginObject().name(SerialiseurEtat.AJOUTS).beginArray();
+            for (String message : log.subList(avant.nbMessagesLog(), apres.nbMessagesLog())) {
+                out.value(message);
+            }
+            out.endArray().endObject();
+        }
+        out.endObject();
+        out.flush();
+    }
+
+    private void ecrireCartesVisibles(JsonWriter out) throws IOException {
+        out.name("cartesTransportVisibles").beginArray();
+        for (CarteTransport c : cartesTransportVisibles) {
+            SerialiseurEtat.ecrire(out, c);
+        }
+        out.endArray();
+    }
+
+    private void ecrireBoutons(JsonWriter out) throws IOException {
+        out.name("boutons").beginArray();
+        if (boutons != null) {
+            for (Bouton b : boutons) {
+                SerialiseurEtat.ecrire(out, b);
+            }
+        }
+        out.endArray();
+    }
+
 
     public PilesCartesTransport getPilesDeCartesBateau() {
         return this.pilesDeCartesBateau;
@@ -379,8 +988,11 @@ public class Jeu implements Runnable {
 
 
 
+    /**
+     * @return toutes les routes du plateau, en lecture seule
+     */
     public List<Route> getRoutesDebut() {
-        return routesDebut;
+        return vueRoutesDebut;
     }
 
     public int getMinPionsJoueurs(){
@@ -397,40 +1009,83 @@ public class Jeu implements Runnable {
     /* Fonctions cartes visibles */
 
     public void poserUneCarteVisible(){
-        ArrayList<Bouton> buttons = new ArrayList<Bouton>();
-        ArrayList<String> strChoixPossibles = new ArrayList<String>();
+        executer(retournementCarteVisible());
+    }
 
-        if (piocheBateauEstVide() && piocheWagonEstVide())
-            return;
-        else{
+    /**
+     * Ajoute une carte aux cartes visibles
+     */
+    void ajouterCarteVisible(CarteTransport carte) {
+        cartesTransportVisibles.add(carte);
+    }
+
+    /**
+     * Retire une carte des cartes visibles
+     *
+     * @return false si la carte n'était pas visible
+     */
+    boolean retirerCarteVisible(CarteTransport carte) {
+        return cartesTransportVisibles.remove(carte);
+    }
+
+    /**
+     * @return l'étape dans laquelle le joueur courant choisit la pile dans laquelle piocher une carte à
+     * retourner parmi les cartes visibles (voir {@link #poserUneCarteVisible()})
+     */
+    Etape retournementCarteVisible() {
+        return new RetournementCarteVisible();
+    }
+
+    private class RetournementCarteVisible extends Etape {
+        private boolean fait = false;
+
+        @Override
+        protected Invite prochaineInvite() {
+            if (fait || (piocheBateauEstVide() && piocheWagonEstVide())) {
+                return null;
+            }
+            ArrayList<Bouton> buttons = new ArrayList<Bouton>();
+            ArrayList<String> strChoixPossibles = new ArrayList<String>();
+            ArrayList<TypeCarteTransport> piles = new ArrayList<>(2);
             if (!piocheWagonEstVide()){
                 buttons.add(new Bouton("WAGON"));
                 strChoixPossibles.add("WAGON");
+                piles.add(TypeCarteTransport.WAGON);
             }
             if (!piocheBateauEstVide()){
                 buttons.add(new Bouton("BATEAU"));
                 strChoixPossibles.add("BATEAU");
+                piles.add(TypeCarteTransport.BATEAU);
             }
-            if (strChoixPossibles.size() > 0){
-                String choix = joueurCourant.choisir("Dans quelle pile voulez-vous piocher une carte à retourner ?", strChoixPossibles, buttons, false);
-                if (choix.equals("WAGON")){
-                    cartesTransportVisibles.add(piocherCarteWagon());
-                } else if (choix.equals("BATEAU")) { // pas besoin de verif car ne sort pas du choix si pas possible de tirer une carte du type ou pile vide
-                    cartesTransportVisibles.add(piocherCarteBateau());
-                }
-            }
+            return new Invite(joueurCourant, "Dans quelle pile voulez-vous piocher une carte à retourner ?", strChoixPossibles, buttons, false, Invite.Nature.PILE, piles);
+        }
 
+        @Override
+        protected void traiterChoix(String choix) {
+            if (choix.equals("WAGON")){
+                cartesTransportVisibles.add(piocherCarteWagon());
+            } else if (choix.equals("BATEAU")) { // pas besoin de verif car ne sort pas du choix si pas possible de tirer une carte du type ou pile vide
+                cartesTransportVisibles.add(piocherCarteBateau());
+            }
+            fait = true;
             verifierCartesVisibles(true);
         }
+
+        @Override
+        protected Etape copierPour(Jeu copie) {
+            RetournementCarteVisible r = copie.new RetournementCarteVisible();
+            r.fait = fait;
+            return r;
+        }
     }
-    
+
     public void poserCartesVisibles(boolean appelApresPoserUneCarte){
         PilesCartesTransport pTempW = new PilesCartesTransport(this.pilesDeCartesWagon);
         PilesCartesTransport pTempB = new PilesCartesTransport(this.pilesDeCartesBateau);
         if (appelApresPoserUneCarte){ //on a encore la config donc on ajoute cartes dans pTemp pour que calculs marchent
             CarteTransport cAPoser;
             for (int i = 0; i < cartesTransportVisibles.size(); i++) {
-                cAPoser = cartesTransportVisibles.get(0);
+                cAPoser = cartesTransportVisibles.get(i);
                 if(cAPoser.getType().equals(TypeCarteTransport.WAGON) || cAPoser.getType().equals(TypeCarteTransport.JOKER)){
                     pTempW.defausser(cAPoser);
                 }
@@ -497,19 +1152,43 @@ public class Jeu implements Runnable {
         if (appelApresPoserUneCarte && !doitVerifier){
             return;
         }
+        if (appelApresPoserUneCarte) {
+            defausserCartesVisibles();
+        }
 
-        //POSE DES CARTES
+        //POSE DES CARTES (les piles peuvent être vides si des cartes sont en main des joueurs)
         for (int i = 0; i < nbW; i++) {
-            cartesTransportVisibles.add(piocherCarteWagon());
+            CarteTransport c = piocherCarteWagon();
+            if (c != null) {
+                cartesTransportVisibles.add(c);
+            }
         }
         for (int i = 0; i < nbB; i++) {
-            cartesTransportVisibles.add(piocherCarteBateau());
+            CarteTransport c = piocherCarteBateau();
+            if (c != null) {
+                cartesTransportVisibles.add(c);
+            }
         }
         if(doitVerifier){
             verifierCartesVisibles(false); // dans ce cas on doit verif car apres remaniement total
         }
     }
 
+    /**
+     * Met toutes les cartes visibles dans les défausses
+     */
+    private void defausserCartesVisibles() {
+        while (!cartesTransportVisibles.isEmpty()) {
+            CarteTransport cAPoser = cartesTransportVisibles.remove(0);
+            if(cAPoser.getType().equals(TypeCarteTransport.WAGON) || cAPoser.getType().equals(TypeCarteTransport.JOKER)){
+                pilesDeCartesWagon.defausser(cAPoser);
+            }
+            else{
+                pilesDeCartesBateau.defausser(cAPoser);
+            }
+        }
+    }
+
     /**
      * @return true si les cartes sont valides et false si on doit remélanger et appelle dans ce cas la pose de nouvelles
      * cartes
@@ -526,18 +1205,7 @@ public class Jeu implements Runnable {
             if (appelApresPoserUneCarte)
                 poserCartesVisibles(true);
             else {
-                CarteTransport cAPoser;
-                for (int i = 0; i < cartesTransportVisibles.size(); i++) {
-                    cAPoser = cartesTransportVisibles.get(0);
-                    if(cAPoser.getType().equals(TypeCarteTransport.WAGON) || cAPoser.getType().equals(TypeCarteTransport.JOKER)){
-                        pilesDeCartesWagon.defausser(cAPoser);
-                        cartesTransportVisibles.remove(cAPoser);
-                    }
-                    else{
-                        pilesDeCartesBateau.defausser(cAPoser);
-                        cartesTransportVisibles.remove(cAPoser);
-                    }
-                }
+                defausserCartesVisibles();
                 poserCartesVisibles(false);}
             return false; // a rappellé la pose des cartes car c'est pas bon.
         }
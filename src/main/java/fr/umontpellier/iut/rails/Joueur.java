@@ -2,6 +2,9 @@ package fr.umontpellier.iut.rails;
 
 import fr.umontpellier.iut.rails.data.*;
 
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
 import java.util.*;
 
 import static fr.umontpellier.iut.rails.data.TypeCarteTransport.*;
@@ -32,12 +35,18 @@ public class Joueur {
     /**
      * Liste des villes sur lesquelles le joueur a construit un port
      */
-    private final List<Ville> ports;
+    private final ListeVersionnee<Ville> ports;
     private int nbPortsPeutPoser;
     /**
-     * Liste des routes capturées par le joueur
+     * Liste des routes capturées par le joueur (avec les groupes de villes qu'elles relient)
+     */
+    private final RoutesJoueur routes;
+    /**
+     * Destinations dont on sait déjà si elles sont complètes, pour la version courante des routes du
+     * joueur (voir {@link #destinationEstComplete(Destination)})
      */
-    private final List<Route> routes;
+    private final Map<Destination, Boolean> destinationsCompletes;
+    private int versionDestinationsCompletes = -1;
     /**
      * Nombre de pions wagons que le joueur peut encore poser sur le plateau
      */
@@ -57,37 +66,56 @@ public class Joueur {
     /**
      * Liste des destinations à réaliser pendant la partie
      */
-    private final List<Destination> destinations;
+    private final ListeVersionnee<Destination> destinations;
     /**
-     * Liste des cartes que le joueur a en main
+     * Liste des cartes que le joueur a en main (avec le nombre de cartes de chaque sorte)
      */
-    private final List<CarteTransport> cartesTransport;
+    private final MainJoueur cartesTransport;
     /**
      * Liste temporaire de cartes transport que le joueur est en train de jouer pour
      * payer la capture d'une route ou la construction d'un port
      */
-    private final List<CarteTransport> cartesTransportPosees;
+    private final ListeVersionnee<CarteTransport> cartesTransportPosees;
     /**
      * Score courant du joueur (somme des valeurs des routes capturées, et points
      * perdus lors des échanges de pions)
      */
     private int score;
+    /**
+     * Points perdus lors des échanges de pions (déjà déduits de score)
+     */
+    private int penalitesEchanges;
+    /**
+     * Dernier détail du score calculé (voir {@link #getScoreDetaille()}), et l'état du joueur pour
+     * lequel il a été calculé
+     */
+    private ScoreJoueur scoreDetaille;
+    private int versionRoutesScore;
+    private int versionPortsScore;
+    private int versionDestinationsScore;
+    private int scoreCalcule;
+    private int nbPortsPeutPoserScore;
+    /**
+     * Stratégie qui fait les choix du joueur à sa place, ou null si le joueur répond aux invites
+     */
+    private transient Strategie strategie;
 
     public Joueur(String nom, Jeu jeu, CouleurJouer couleur) {
         this.nom = nom;
         this.nbToursFin = 0;
         this.jeu = jeu;
         this.couleur = couleur;
-        this.ports = new ArrayList<>();
+        this.ports = new ListeVersionnee<>(List.of());
         this.nbPortsPeutPoser = 3;
-        this.routes = new ArrayList<>();
+        this.routes = new RoutesJoueur();
+        this.destinationsCompletes = new IdentityHashMap<>();
         this.nbPionsWagon = 25;
         this.nbPionsWagonEnReserve = 0;
         this.nbPionsBateau = 50;
         this.nbPionsBateauEnReserve = 0;
-        this.cartesTransport = new ArrayList<>();
-        this.cartesTransportPosees = new ArrayList<>();
-        this.destinations = new ArrayList<>();
+        this.cartesTransport = new MainJoueur();
+        this.cartesTransportPosees = new ListeVersionnee<>(List.of());
+        this.destinations = new ListeVersionnee<>(List.of());
         this.score = 0;
 
         //cartes en main
@@ -99,10 +127,103 @@ public class Joueur {
         }
     }
 
+    /**
+     * Construit la copie d'un joueur pour une copie de la partie (voir {@link Jeu#copier()}). Les
+     * listes versionnées sont partagées avec l'original jusqu'à leur prochaine modification, et les
+     * résultats déjà calculés (score, destinations complètes) restent valables pour la copie. La copie
+     * n'a pas de stratégie.
+     */
+    Joueur(Joueur joueur, Jeu jeu) {
+        this.jeu = jeu;
+        this.nom = joueur.nom;
+        this.nbToursFin = joueur.nbToursFin;
+        this.couleur = joueur.couleur;
+        this.ports = new ListeVersionnee<>(joueur.ports);
+        this.nbPortsPeutPoser = joueur.nbPortsPeutPoser;
+        this.routes = new RoutesJoueur(joueur.routes);
+        this.destinationsCompletes = new IdentityHashMap<>(joueur.destinationsCompletes);
+        this.versionDestinationsCompletes = joueur.versionDestinationsCompletes;
+        this.nbPionsWagon = joueur.nbPionsWagon;
+        this.nbPionsWagonEnReserve = joueur.nbPionsWagonEnReserve;
+        this.nbPionsBateau = joueur.nbPionsBateau;
+        this.nbPionsBateauEnReserve = joueur.nbPionsBateauEnReserve;
+        this.destinations = new ListeVersionnee<>(joueur.destinations);
+        this.cartesTransport = new MainJoueur(joueur.cartesTransport);
+        this.cartesTransportPosees = new ListeVersionnee<>(joueur.cartesTransportPosees);
+        this.score = joueur.score;
+        this.penalitesEchanges = joueur.penalitesEchanges;
+        this.scoreDetaille = joueur.scoreDetaille;
+        this.versionRoutesScore = joueur.versionRoutesScore;
+        this.versionPortsScore = joueur.versionPortsScore;
+        this.versionDestinationsScore = joueur.versionDestinationsScore;
+        this.scoreCalcule = joueur.scoreCalcule;
+        this.nbPortsPeutPoserScore = joueur.nbPortsPeutPoserScore;
+    }
+
+    /**
+     * Confie aux listes du joueur le journal de la partie (voir {@link Jeu#activerJournal()})
+     */
+    void setJournal(Journal journal) {
+        ports.setJournal(journal);
+        routes.setJournal(journal);
+        destinations.setJournal(journal);
+        cartesTransport.setJournal(journal);
+        cartesTransportPosees.setJournal(journal);
+    }
+
+    /**
+     * @return les compteurs du joueur (pions, ports, score, tours de fin de partie), qui sont sauvés
+     * d'un bloc avant et après chaque coup noté dans le journal de la partie
+     */
+    int[] getCompteurs() {
+        return new int[] { nbToursFin, nbPortsPeutPoser, nbPionsWagon, nbPionsWagonEnReserve, nbPionsBateau,
+                nbPionsBateauEnReserve, score, penalitesEchanges };
+    }
+
+    /**
+     * Remet les compteurs du joueur aux valeurs renvoyées par {@link #getCompteurs()}
+     */
+    void restaurerCompteurs(int[] compteurs) {
+        nbToursFin = compteurs[0];
+        nbPortsPeutPoser = compteurs[1];
+        nbPionsWagon = compteurs[2];
+        nbPionsWagonEnReserve = compteurs[3];
+        nbPionsBateau = compteurs[4];
+        nbPionsBateauEnReserve = compteurs[5];
+        score = compteurs[6];
+        penalitesEchanges = compteurs[7];
+    }
+
+    /**
+     * @return le joueur correspondant à ce joueur dans une copie de la partie
+     */
+    Joueur copieDans(Jeu copie) {
+        return copie.getJoueurs().get(jeu.getJoueurs().indexOf(this));
+    }
+
     public String getNom() {
         return nom;
     }
 
+    public Strategie getStrategie() {
+        return strategie;
+    }
+
+    /**
+     * Confie les choix du joueur à une stratégie : la partie ne lui envoie plus d'invite et ne lit
+     * plus ses entrées (null pour que le joueur fasse de nouveau ses choix)
+     */
+    public void setStrategie(Strategie strategie) {
+        this.strategie = strategie;
+    }
+
+    /**
+     * @return les cartes en main du joueur, avec le nombre de cartes de chaque sorte
+     */
+    MainJoueur getMain() {
+        return cartesTransport;
+    }
+
     public List<CarteTransport> getCartesTransport(){
         return cartesTransport;
     }
@@ -126,89 +247,112 @@ public class Joueur {
      *  - construire un port
      */
     void jouerTour() {
-        // IMPORTANT : Le corps de cette fonction est à réécrire entièrement
-        // Un exemple très simple est donné pour illustrer l'utilisation de certaines méthodes
-        ArrayList<String> options = new ArrayList<>();
-        List<Bouton> boutons = new ArrayList<>();
-        int cptActions = 2;
+        jeu.executer(new Tour());
+    }
 
-        while (cptActions > 0){
-            options.clear();
-            boutons.clear();
+    /**
+     * Tour de jeu du joueur (voir {@link #jouerTour()}), sous forme d'étape
+     */
+    class Tour extends Etape {
+        /**
+         * Nombre d'actions restant au joueur pendant ce tour
+         */
+        private int cptActions = 2;
+        /**
+         * Nombre de cartes à retourner pour compléter les cartes visibles avant la prochaine action
+         * (-1 si les cartes visibles n'ont pas encore été vérifiées avant la prochaine action)
+         */
+        private int nbCartesARemplacer = -1;
+        /**
+         * Indique si le joueur a choisi de passer
+         */
+        private boolean passe = false;
+        /**
+         * Carte visible prise par le joueur, retirée des cartes visibles une fois la carte qui la
+         * remplace retournée
+         */
+        private CarteTransport carteVisiblePrise;
+
+        Tour() {
+        }
+
+        private Tour(Tour tour) {
+            cptActions = tour.cptActions;
+            nbCartesARemplacer = tour.nbCartesARemplacer;
+            passe = tour.passe;
+            carteVisiblePrise = tour.carteVisiblePrise;
+        }
+
+        @Override
+        protected Etape copierPour(Jeu copie) {
+            return copieDans(copie).new Tour(this);
+        }
+
+        @Override
+        protected Invite prochaineInvite() {
+            if (passe || cptActions <= 0) {
+                return null;
+            }
 
              /*####################################################
              ############## Verif cartes Visibles #################
              ####################################################*/
-            if (jeu.cartesTransportVisibles().size() < 6){
-                if (!jeu.piocheBateauEstVide() && !jeu.piocheWagonEstVide()){
-                    ArrayList<String> choixCartesARemplacer = new ArrayList<>(2);
-                    ArrayList<Bouton> listeBoutons = new ArrayList<>(2);
-                    int nbCartesAAjouter = 6 - jeu.cartesTransportVisibles().size();
+            if (nbCartesARemplacer < 0) {
+                nbCartesARemplacer = 0;
+                if (jeu.getCartesTransportVisibles().size() < 6 && !jeu.piocheBateauEstVide() && !jeu.piocheWagonEstVide()) {
+                    int nbCartesAAjouter = 6 - jeu.getCartesTransportVisibles().size();
                     int sommeSizes = jeu.getPilesDeCartesWagon().getFullSize() + jeu.getPilesDeCartesBateau().getFullSize();
-                    if (nbCartesAAjouter <= sommeSizes ){ // si moins ou autant de cartes ajoute que dans piles
-                        for (int i = 0; i < nbCartesAAjouter; i++) {
-                            int sizeW = jeu.getPilesDeCartesWagon().getFullSize();
-                            int sizeB = jeu.getPilesDeCartesBateau().getFullSize();
-                            if (sizeW >= 1){
-                                choixCartesARemplacer.add("WAGON");
-                                listeBoutons.add(new Bouton("WAGON"));
-                            }
-                            if (sizeB >= 1){
-                                choixCartesARemplacer.add("BATEAU");
-                                listeBoutons.add(new Bouton("BATEAU"));
-                            }
-                            if (choixCartesARemplacer.size() >= 1 ){
-                                String choix = choisir("Choisissez une carte pour remettre dans les cartes visibles", choixCartesARemplacer, listeBoutons, false);
-                                if (choix == "WAGON"){
-                                    jeu.cartesTransportVisibles().add(jeu.piocherCarteWagon());
-                                } else jeu.cartesTransportVisibles().add(jeu.piocherCarteBateau());
-                            }
-                        }
-                    } else if (sommeSizes > 0){
-                        for (int i = 0; i < sommeSizes; i++) {
-                            int sizeW = jeu.getPilesDeCartesWagon().getFullSize();
-                            int sizeB = jeu.getPilesDeCartesBateau().getFullSize();
-                            sommeSizes = sizeB + sizeW;
-                            if (sizeW >= 1){
-                                choixCartesARemplacer.add("WAGON");
-                                listeBoutons.add(new Bouton("WAGON"));
-                            }
-                            if (sizeB >= 1){
-                                choixCartesARemplacer.add("BATEAU");
-                                listeBoutons.add(new Bouton("BATEAU"));
-                            }
-                            if (choixCartesARemplacer.size() >= 1 ){
-                                String choix = choisir("Choisissez une carte pour remettre dans les cartes visibles", choixCartesARemplacer, listeBoutons, false);
-                                if (choix == "WAGON"){
-                                    jeu.cartesTransportVisibles().add(jeu.piocherCarteWagon());
-                                } else jeu.cartesTransportVisibles().add(jeu.piocherCarteBateau());
-                            }
-                        }
-                    }
+                    // si moins ou autant de cartes ajoute que dans piles
+                    nbCartesARemplacer = Math.min(nbCartesAAjouter, sommeSizes);
                 }
             }
-
+            if (nbCartesARemplacer > 0) {
+                ArrayList<String> choixCartesARemplacer = new ArrayList<>(2);
+                ArrayList<Bouton> listeBoutons = new ArrayList<>(2);
+                ArrayList<TypeCarteTransport> piles = new ArrayList<>(2);
+                if (jeu.getPilesDeCartesWagon().getFullSize() >= 1){
+                    choixCartesARemplacer.add("WAGON");
+                    listeBoutons.add(new Bouton("WAGON"));
+                    piles.add(WAGON);
+                }
+                if (jeu.getPilesDeCartesBateau().getFullSize() >= 1){
+                    choixCartesARemplacer.add("BATEAU");
+                    listeBoutons.add(new Bouton("BATEAU"));
+                    piles.add(BATEAU);
+                }
+                if (!choixCartesARemplacer.isEmpty()) {
+                    return new Invite(Joueur.this, "Choisissez une carte pour remettre dans les cartes visibles", choixCartesARemplacer, listeBoutons, false, Invite.Nature.PILE, piles);
+                }
+                nbCartesARemplacer = 0;
+            }
 
             /*####################################################
              ################### CHOIX POSSIBLES #################
              ####################################################*/
 
+            ArrayList<String> options = new ArrayList<>();
+            List<Bouton> boutons = new ArrayList<>();
+            List<Action> actions = new ArrayList<>();
+
             if (cptActions >= 1){ // Actions réalisables 2 fois par tour
 
                 for (CarteTransport c: jeu.getCartesTransportVisibles()) {
                     if (!(cptActions == 1 && c.getType().equals(JOKER))){ // on prend pas les cartes J au t2
                         options.add(c.getNom());
+                        actions.add(Action.prendreCarteVisible(c));
                     }
                 } // POUR CARTES VISIBLES
 
                 if (!jeu.piocheWagonEstVide()){
                     options.add("WAGON");
                     boutons.add(new Bouton("Piocher une Carte Wagon", "WAGON"));
+                    actions.add(Action.PIOCHER_WAGON);
                 } // POUR PILE CARTES TRANSPORT WAGON
 
                 if (!jeu.piocheBateauEstVide()){
                     options.add("BATEAU");
                     boutons.add(new Bouton("Piocher une Carte Bateau", "BATEAU"));
+                    actions.add(Action.PIOCHER_BATEAU);
                 } // POUR PILE CARTES TRANSPORT BATEAU
 
             }
@@ -216,54 +360,51 @@ public class Joueur {
 
 
                 if (nbPortsPeutPoser > 0){
-                    for (Ville v : jeu.getPortsLibres()) {
-                        if (!peutPoserPort(v.getNom()).isEmpty())
-                            options.add(v.nom());
+                    for (Ville v : jeu.getGenerateurCoups().portsConstructibles(Joueur.this)) {
+                        options.add(v.nom());
+                        actions.add(Action.construirePort(v));
                     }
                 }// POUR BATIR PORT
 
-                for (Route r : jeu.getRoutesLibres()){
-                    if (!peutPoserRoute(r.getNom(), r.getLongueur()).isEmpty()){
-                        if (r.estMaritime()){
-                            if (nbPionsBateau >= r.getLongueur()){
-                                options.add(r.getNom());
-                            }
-                        } else {
-                            // Se renseigner sur le cout d'une route pair en terme de pions (pions >= longeurx2 ?)
-                            if (nbPionsWagon >= r.getLongueur()){
-                                options.add(r.getNom());
-                            }
-                        }
-                    }
+                // Se renseigner sur le cout d'une route pair en terme de pions (pions >= longeurx2 ?)
+                for (Route r : jeu.getGenerateurCoups().routesCapturables(Joueur.this)){
+                    options.add(r.getNom());
+                    actions.add(Action.capturerRoute(r));
                 } // POUR POSER ROUTE
 
                 if (!jeu.getPileDestinations().isEmpty()){
                     options.add("DESTINATION");
                     boutons.add(new Bouton("Piocher une carte Destination", "DESTINATION"));
+                    actions.add(Action.PIOCHER_DESTINATIONS);
                 } // POUR PIOCHER DESTINATION
 
                 if (nbPionsWagonEnReserve >= 1 && nbPionsBateau >= 1){
                     options.add("PIONS WAGON");
                     boutons.add(new Bouton("Echanger des pions Wagon", "PIONS WAGON"));
+                    actions.add(Action.ECHANGER_PIONS_WAGON);
                 } // POUR ECHANGER PIONS WAGON
 
                 if (nbPionsBateauEnReserve >= 1 && nbPionsWagon >= 1){
                     options.add("PIONS BATEAU");
                     boutons.add(new Bouton("Echanger des pions Bateau", "PIONS BATEAU"));
+                    actions.add(Action.ECHANGER_PIONS_BATEAU);
                 } // POUR ECHANGER PIONS BATEAU
 
-
-
             }
-           /*####################################################
-             ################# FAIRE LE CHOIX ###################
-             ####################################################*/
+            actions.add(Action.PASSER);
+            return new Invite(Joueur.this, "Que voulez vous faire ?", options, boutons, true, Invite.Nature.ACTION, actions);
+        }
 
-            String choix = choisir(
-                    "Que voulez vous faire ?",
-                    options,
-                    boutons,
-                    true);
+        @Override
+        protected void traiterChoix(String choix) {
+            if (nbCartesARemplacer > 0) { // CARTE RETOURNEE POUR COMPLETER LES CARTES VISIBLES
+                if (choix.equals("WAGON")){
+                    jeu.ajouterCarteVisible(jeu.piocherCarteWagon());
+                } else jeu.ajouterCarteVisible(jeu.piocherCarteBateau());
+                nbCartesARemplacer--;
+                return;
+            }
+            nbCartesARemplacer = -1; // les cartes visibles seront vérifiées avant la prochaine action
 
             /*####################################################
              ################# APPEL DU CHOIX ####################
@@ -272,67 +413,67 @@ public class Joueur {
             if (choix.equals("")) { // A CHOISI DE PASSER
 
                 log(String.format("%s ne souhaite rien faire", toLog()));
+                passe = true;
                 return;
+            }
 
+            // A FAIT UN CHOIX
+            log(String.format("%s a choisi %s", toLog(), choix));
 
-            } else { // A FAIT UN CHOIX
-
-                log(String.format("%s a choisi %s", toLog(), choix));
-
-                boolean aPuJouer = false;
-                for (CarteTransport c : jeu.cartesTransportVisibles()) {
-                    if(c.getNom().equals(choix)){
-                        if (c.getType().equals(JOKER)){
-                            piocherCarteVisible(choix);
-                            cptActions = 0; // piocher un joker visible empeche de repiocher apres
-                        } else {
-                            cptActions -= 1;
-                            piocherCarteVisible(choix);
-                        }
-                        aPuJouer = true;
-                        break;
+            for (CarteTransport c : jeu.getCartesTransportVisibles()) {
+                if(c.getNom().equals(choix)){
+                    if (c.getType().equals(JOKER)){
+                        cptActions = 0; // piocher un joker visible empeche de repiocher apres
+                    } else {
+                        cptActions -= 1;
                     }
+                    cartesTransport.add(c);
+                    carteVisiblePrise = c;
+                    lancer(jeu.retournementCarteVisible());
+                    return;
                 }
-                if (aPuJouer){
-                    continue;
+            }
+            if (choix.equals("WAGON")){ // ACTIONS COUTANT 1
+                cartesTransport.add(jeu.piocherCarteWagon());
+                cptActions -= 1;
+            } else if (choix.equals("BATEAU")) {
+                cartesTransport.add(jeu.piocherCarteBateau());
+                cptActions -= 1;
+            } else if (choix.equals("PIONS WAGON") || choix.equals("PIONS BATEAU")) { // ACTIONS COUTANT 2
+                cptActions = 0;
+                lancer(new EchangePions(choix));
+            } else if (choix.equals("DESTINATION")) {
+                cptActions = 0;
+                lancer(new PiocheDestinations(false));
+            } else if (jeu.getPortsLibres().contains(jeu.getVillebyNom(choix))) {
+                cptActions = 0;
+                lancer(new ConstructionPort(choix));
+            } else if (jeu.getRoutesLibres().contains(jeu.getRoutebyNom(choix))) {
+                cptActions = 0;
+                lancer(creerCaptureRoute(choix));
+            }
+        }
+
+        @Override
+        protected void sousEtapeTerminee(Etape etape) {
+            if (etape instanceof CaptureRoute capture) {
+                Route laRoute = capture.laRoute;
+                if (!routes.contains(laRoute)) {
+                    return; // la route n'a pas pu être payée
                 }
-                else if (choix.equals("WAGON")){ // ACTIONS COUTANT 1
-                    this.cartesTransport.add(jeu.piocherCarteWagon());
-                    cptActions -= 1;
-                } else if (choix.equals("BATEAU")) {
-                    this.cartesTransport.add(jeu.piocherCarteBateau());
-                    cptActions -= 1;
-                } else if (choix.equals("PIONS WAGON") || choix.equals("PIONS BATEAU")) { // ACTIONS COUTANT 2
-                    echangerPions(choix);
-                    cptActions = 0;
-                } else if (choix.equals("DESTINATION")) {
-                    prendreDestinations(false);
-                    cptActions = 0;
-                } else if (jeu.getPortsLibres().contains(jeu.getVillebyNom(choix))) {
-                    poserPort(choix);
-                    nbPortsPeutPoser--;
-                    cptActions = 0;
-                } else if (jeu.getRoutesLibres().contains(jeu.getRoutebyNom(choix))) {
-                    poserRoute(choix);
-                    cptActions = 0;
-                    if (jeu.getJoueurs().size() <4){
-                        supprimerRoute(choix);
-                    }
-                    if (jeu.getRoutebyNom(choix) instanceof RouteMaritime){
-                        nbPionsBateau -= jeu.getRoutebyNom(choix).getLongueur();
-                    } else{
-                        nbPionsWagon -= jeu.getRoutebyNom(choix).getLongueur();
-                    }
+                if (jeu.getJoueurs().size() <4){
+                    supprimerRoute(laRoute.getNom());
                 }
-
-
-
-
-        /*
-        if (choix.equals(boutons.get(1))){
-            Destination choisis = jeu.getPileDestinations().get(genererInt(0,jeu.getPileDestinations().size()));
-            destinations.add(choisis);
-           */
+                if (laRoute instanceof RouteMaritime){
+                    nbPionsBateau -= laRoute.getLongueur();
+                } else{
+                    nbPionsWagon -= laRoute.getLongueur();
+                }
+            } else if (etape instanceof ConstructionPort) {
+                nbPortsPeutPoser--;
+            } else if (carteVisiblePrise != null) { // la carte qui la remplace a été retournée
+                jeu.retirerCarteVisible(carteVisiblePrise);
+                carteVisiblePrise = null;
             }
         }
     }
@@ -347,59 +488,151 @@ public class Joueur {
     }
 
     private void poserPort(String nomDuPort){
-        List<Couleur> coulPossibles = peutPoserPort(nomDuPort);
-        Couleur choixCoul = null;
-        int cptW = 0; int cptB = 0; int cptJ = 0;
-
-        while(cptW + cptB + cptJ < 4){
-            List<String> cartesPossibles = new ArrayList<>();
-            for (CarteTransport c: this.cartesTransport) {
-                if((coulPossibles.contains(c.getCouleur()) && c.isAncre()) && (choixCoul == null || choixCoul == c.getCouleur()) || c.getType().equals(JOKER)){
-                    if (cptW < 2 && c.getType().equals(WAGON) || cptB < 2 && c.getType().equals(BATEAU) || c.getType().equals(JOKER)) {
-                        cartesPossibles.add(c.getNom());
+        jeu.executer(new ConstructionPort(nomDuPort));
+    }
+
+    /**
+     * Construction d'un port (voir {@link #poserPort(String)}), sous forme d'étape : le joueur choisit
+     * une à une les 4 cartes qui paient le port
+     */
+    class ConstructionPort extends Etape {
+        private final String nomDuPort;
+        private final List<Couleur> coulPossibles;
+        private Couleur choixCoul = null;
+        private int cptW = 0; private int cptB = 0; private int cptJ = 0;
+        private boolean termine = false;
+
+        ConstructionPort(String nomDuPort) {
+            this.nomDuPort = nomDuPort;
+            this.coulPossibles = peutPoserPort(nomDuPort);
+        }
+
+        private ConstructionPort(ConstructionPort construction) {
+            this.nomDuPort = construction.nomDuPort;
+            this.coulPossibles = construction.coulPossibles;
+            this.choixCoul = construction.choixCoul;
+            this.cptW = construction.cptW;
+            this.cptB = construction.cptB;
+            this.cptJ = construction.cptJ;
+            this.termine = construction.termine;
+        }
+
+        @Override
+        protected Etape copierPour(Jeu copie) {
+            return copieDans(copie).new ConstructionPort(this);
+        }
+
+        @Override
+        protected Invite prochaineInvite() {
+            if (termine) {
+                return null;
+            }
+            if (cptW + cptB + cptJ < 4) {
+                List<CarteTransport> cartesPossibles = new ArrayList<>();
+                for (CarteTransport c: cartesTransport) {
+                    if (estProposee(c)) {
+                        cartesPossibles.add(c);
                     }
                 }
+                return inviteCartes("Choisissez les cartes à défausser", cartesPossibles);
+            }
+            // on defausse et met ports dans liste joueur
+            CarteTransport c;
+            while (!cartesTransportPosees.isEmpty()) {
+                c = cartesTransportPosees.get(0);
+                if (c.getType().equals(WAGON) || c.getType().equals(JOKER)){
+                    jeu.getPilesDeCartesWagon().defausser(c);
+                } else {
+                    jeu.getPilesDeCartesBateau().defausser(c);
+                }
+                cartesTransportPosees.remove(0);
             }
-            String carteSelect = choisir("Choisissez les cartes à défausser", cartesPossibles, null, false);
-            if (choixCoul == null && !getCarteMainByNom(carteSelect).getType().equals(JOKER)){
-                choixCoul = getCarteMainByNom(carteSelect).getCouleur();
+            ports.add(jeu.getVillebyNom(nomDuPort));
+            jeu.getVraiPortLibre().remove(jeu.getVillebyNom(nomDuPort));
+            termine = true;
+            return null;
+        }
+
+        /**
+         * @return true si la carte peut être défaussée et que le port peut encore être payé ensuite
+         * (2 cartes wagon et 2 cartes bateau avec une ancre, d'une même couleur, ou des jokers)
+         */
+        private boolean estProposee(CarteTransport c) {
+            boolean joker = c.getType().equals(JOKER);
+            if (!joker && !(c.isAncre() && coulPossibles.contains(c.getCouleur())
+                    && (choixCoul == null || choixCoul == c.getCouleur()))) {
+                return false;
+            }
+            int w = cptW + (c.getType().equals(WAGON) ? 1 : 0);
+            int b = cptB + (c.getType().equals(BATEAU) ? 1 : 0);
+            if (w > 2 || b > 2) {
+                return false;
+            }
+            int nbRestantes = 4 - (cptW + cptB + cptJ + 1);
+            List<Couleur> couleurs = choixCoul != null ? List.of(choixCoul) : joker ? coulPossibles : List.of(c.getCouleur());
+            for (Couleur couleur : couleurs) {
+                int nbWagons = 0;
+                int nbBateaux = 0;
+                int nbJokers = 0;
+                for (CarteTransport carte : cartesTransport) {
+                    if (carte == c) {
+                        continue;
+                    }
+                    if (carte.getType().equals(JOKER)) {
+                        nbJokers++;
+                    } else if (carte.isAncre() && carte.getCouleur().equals(couleur)) {
+                        if (carte.getType().equals(WAGON)) {
+                            nbWagons++;
+                        } else {
+                            nbBateaux++;
+                        }
+                    }
+                }
+                if (Math.min(2 - w, nbWagons) + Math.min(2 - b, nbBateaux) + nbJokers >= nbRestantes) {
+                    return true;
+                }
             }
+            return false;
+        }
 
-            if (getCarteMainByNom(carteSelect).getType().equals(WAGON)){
+        @Override
+        protected void traiterChoix(String carteSelect) {
+            CarteTransport c = getCarteMainByNom(carteSelect);
+            if (c == null || !estProposee(c)) {
+                return;
+            }
+            if (choixCoul == null && !c.getType().equals(JOKER)){
+                choixCoul = c.getCouleur();
+            }
+
+            if (c.getType().equals(WAGON)){
                 cptW++;
-            } else if (getCarteMainByNom(carteSelect).getType().equals(BATEAU)) {
+            } else if (c.getType().equals(BATEAU)) {
                 cptB++;
             } else {
                 cptJ++;
             }
-            cartesTransportPosees.add(getCarteMainByNom(carteSelect));
-            cartesTransport.remove(getCarteMainByNom(carteSelect));
+            cartesTransportPosees.add(c);
+            cartesTransport.remove(c);
         }
-        // on defausse et met ports dans liste joueur
-        CarteTransport c;
-        while (!cartesTransportPosees.isEmpty()) {
-            c = cartesTransportPosees.get(0);
-            if (c.getType().equals(WAGON) || c.getType().equals(JOKER)){
-                jeu.getPilesDeCartesWagon().defausser(c);
-            } else {
-                jeu.getPilesDeCartesBateau().defausser(c);
-            }
-            cartesTransportPosees.remove(0);
+    }
+
+    /**
+     * @return l'invite demandant au joueur de choisir une des cartes de sa main
+     */
+    private Invite inviteCartes(String instruction, List<CarteTransport> cartes) {
+        List<String> noms = new ArrayList<>(cartes.size());
+        for (CarteTransport c : cartes) {
+            noms.add(c.getNom());
         }
-        ports.add(jeu.getVillebyNom(nomDuPort));
-        jeu.getVraiPortLibre().remove(jeu.getVillebyNom(nomDuPort));
+        return new Invite(this, instruction, noms, null, false, Invite.Nature.CARTE, cartes);
     }
 
     private List<Couleur> peutPoserPort(String nomDuPort){
         if (this.cartesTransport.isEmpty()) {
             return new ArrayList<Couleur>();
         }
-        Ville villeDuPort = null;
-        for (Ville v: jeu.getPortsLibres()) {
-            if (v.getNom().equals(nomDuPort)){
-                 villeDuPort=v;
-            }
-        }
+        Ville villeDuPort = jeu.getVillebyNom(nomDuPort);
         if (!lesVillescapturésParleJoueur().contains(villeDuPort)){ // si la ville ne fait pas partie des villes capturé
             return new ArrayList<Couleur>();
         }
@@ -409,76 +642,23 @@ public class Joueur {
         if (!jeu.getPortsLibres().contains(villeDuPort)) { // si la ville n'est pas libre on return une liste vide
             return new ArrayList<Couleur>();
         }
-        List<CarteTransport> lesCarteAncre = getCarteAncre();
-        if (lesCarteAncre.size() < 4){
+        if (!cartesTransport.peutPayerPort()){
             return new ArrayList<Couleur>();
         }
-        int cptCarteWagon = 0;
-        List<CarteTransport> carteWagons = new ArrayList<>();
-        int cptCarteBateau = 0;
-        List<CarteTransport> carteBateau = new ArrayList<>();
-        int cptCarteJoker = 0;
-        List<CarteTransport> carteJoker = new ArrayList<>();
-        for (int i = 0; i < lesCarteAncre.size(); i++) {
-            if (lesCarteAncre.get(i).getType().equals(WAGON)){
-                cptCarteWagon ++;
-                carteWagons.add(lesCarteAncre.get(i));
-            }
-            else if (lesCarteAncre.get(i).getType().equals(BATEAU)){
-                cptCarteBateau ++;
-                carteBateau.add(lesCarteAncre.get(i));
-            } else if (lesCarteAncre.get(i).getType().equals(JOKER)){
-                cptCarteJoker ++;
-                carteJoker.add(lesCarteAncre.get(i));
-            }
-        }
-        boolean compilSolutionsImpossibles =
-                !(cptCarteJoker >= 4)
-                && !(cptCarteJoker >= 3 && cptCarteWagon >= 1)
-                && !(cptCarteJoker >= 3 && cptCarteBateau >= 1)
-                && !(cptCarteJoker >= 2 && cptCarteWagon >= 2) && !(cptCarteJoker >= 2 && cptCarteBateau >= 2)
-                && !(cptCarteJoker >= 2 && cptCarteBateau >= 1 && cptCarteWagon >= 1)
-                && !(cptCarteJoker >= 1 && cptCarteWagon >= 2 && cptCarteBateau >=1)
-                && !(cptCarteJoker >= 1 && cptCarteWagon >= 1 && cptCarteBateau >=1)
-                && !(cptCarteJoker == 0 && cptCarteBateau >=2 && cptCarteWagon >= 2);
-        if (compilSolutionsImpossibles){
-            return new ArrayList<Couleur>();
-        }
-        boolean paiementPossible = false;
-        List<Couleur> lesCouleurs = new ArrayList<>();
-        List<CarteTransport> carteAUtiliser = new ArrayList<>();
-        for (Couleur c: Couleur.values()) {
-            cptCarteJoker = 0;
-            cptCarteBateau = 0;
-            cptCarteWagon = 0;
-            if (!carteAUtiliser.isEmpty()){
-                carteAUtiliser.clear();
-            }
-            for (CarteTransport cart: lesCarteAncre) {
-                if(cart.getCouleur().equals(c) && cart.getType().equals(WAGON) && cptCarteWagon < 2 ){
-                    carteAUtiliser.add(cart);
-                    cptCarteWagon++;
-                }
-                else if(cart.getCouleur() == c && cart.getType().equals(BATEAU) && cptCarteBateau< 2 ){
-                    carteAUtiliser.add(cart);
-                    cptCarteBateau++;
-                }
-                else if (cart.getType().equals(JOKER)){
-                    carteAUtiliser.add(cart);
-                    cptCarteJoker++;
-                }
-            }
-            if (!compilSolutionsImpossibles){
-                lesCouleurs.add(c);
-                paiementPossible = true;
+        // le port peut être payé : toutes les couleurs sont proposées
+        return new ArrayList<>(Arrays.asList(Couleur.values()));
+    }
+
+    /**
+     * @return true si le joueur possède une des routes parallèles à la route
+     */
+    boolean possedeRouteParallele(Route route) {
+        for (Route parallele : route.getRoutesParalleles()) {
+            if (routes.contains(parallele)) {
+                return true;
             }
         }
-        if (paiementPossible == true ){
-            return lesCouleurs;
-        }
-        else {
-            return new ArrayList<Couleur>();
-        }
+        return false;
     }
 
     /* On creer une liste vide routes pour mettre toute les routes que le joueur peut choisir
@@ -492,55 +672,35 @@ public class Joueur {
         if (this.cartesTransport.isEmpty()) {
             return new ArrayList<>();
         }
-        boolean present = false;
-        Route laRoute = null; // route surlaquel on veut poser
-        for (Route r : jeu.getRoutesLibres()) { // on recupere la route
-            if (r.getNom().equals(nom)) {
-                laRoute = r;
-                present = true;
-                break;
-            }
-        }
-        if (routes.contains(laRoute.getRouteParallele())){ // Si on possede la route parallele on a pas le droit de poser cette route
+        Route laRoute = jeu.getRoutebyNom(nom); // route surlaquel on veut poser
+        boolean present = jeu.getRoutesLibres().contains(laRoute);
+        if (possedeRouteParallele(laRoute)){ // Si on possede une route parallele on a pas le droit de poser cette route
             return new ArrayList<Couleur>();
         }
         if (!present){ // si laroute n'a pas ete recup dans la boucle au dessus, alors elle nest pas libre
             return new ArrayList<Couleur>();
         }
 
+        int nbJokers = cartesTransport.nb(JOKER);
         if (laRoute.estPaire()) {
             int cptPaires = 0;
-            List<CarteTransport> lesJokers = new ArrayList<>();
+            int nbJokersDisponibles = nbJokers;
             List<Couleur> lesCouleurs = new ArrayList<>();
             for (Couleur c : Couleur.values()) {
-                int cptWagon = 0;
-                for (CarteTransport cart : cartesTransport) {
-                    if (cart.getCouleur().equals(c) && cart.getType().equals(TypeCarteTransport.WAGON)) {
-                        cptWagon++;
-                        if (cptWagon == 2){
-                            cptPaires++;
-                            cptWagon=0;
-                            lesCouleurs.add(c);
-                        }
-                    } else if (cart.getType().equals(TypeCarteTransport.JOKER)) {
-                        lesJokers.add(cart);
-                    }
+                int cptWagon = cartesTransport.nb(WAGON, c);
+                for (int i = 0; i < cptWagon / 2; i++) {
+                    cptPaires++;
+                    lesCouleurs.add(c);
                 }
-                if (cptWagon == 1 && !lesJokers.isEmpty()){ // si un wagon n'a pas de pair et qu'il y'a un joker
+                if (cptWagon % 2 == 1 && nbJokersDisponibles > 0){ // si un wagon n'a pas de pair et qu'il y'a un joker
                     cptPaires++;
                     lesCouleurs.add(c);
-                    lesJokers.remove(lesJokers.size()-1);
+                    nbJokersDisponibles--;
                 }
             }
-            int cptJoker=0;
-            if (!lesJokers.isEmpty()){ // si il reste des jokers utilisable
-                for (CarteTransport c: lesJokers) {
-                    cptJoker++;
-                    if (cptJoker == 2){
-                        lesCouleurs.add(Couleur.GRIS);
-                        cptJoker=0;
-                    }
-                }
+            for (int i = 0; i < nbJokersDisponibles / 2; i++) { // si il reste des jokers utilisable
+                cptPaires++;
+                lesCouleurs.add(Couleur.GRIS);
             }
             if (cptPaires >= longeur){
                 return lesCouleurs;
@@ -548,460 +708,448 @@ public class Joueur {
             return new ArrayList<Couleur>(); // pas assez de paire donc return list vide
         }
 
-        if (laRoute.estMaritime()) {
+        if (laRoute.estMaritime() || laRoute.estTerrestre()) {
+            /*Pour payer une route maritime verte de longueur 3, il essaie de jouer :
+            carte simple puis carte double,
+            les règles précisent bien qu'on peut dépasser le coût avec des cartes double bateau, et aucune carte n'est inutile*/
+            List<Couleur> lesCouleurs = new ArrayList<>();
             if (laRoute.getCouleur().equals(Couleur.GRIS)) { // on peut jouer nimporte quel couleur
-                List<Couleur> lesCouleurs = new ArrayList<>();
-                int cptJoker = 0;
-                int cptBateau = 0;
                 for (Couleur c : Couleur.values()) {
-                    cptJoker = 0;
-                    cptBateau = 0;
-                    for (CarteTransport cart : cartesTransport) {
-                        if (cart.getCouleur().equals(c) && cart.getType().equals(BATEAU) && cart.estDouble()) {
-                            /*Pour payer une route maritime verte de longueur 3, il essaie de jouer :
-                            carte simple puis carte double,
-                            les règles précisent bien qu'on peut dépasser le coût avec des cartes double bateau, et aucune carte n'est inutile*/
-                            cptBateau += 2;
-                        } else if (cart.getCouleur().equals(c) && cart.getType().equals(BATEAU) && !cart.estDouble()) {
-                            cptBateau++;
-                        } else if (cart.getType().equals(JOKER)) {
-                            cptJoker++;
-                        }
-                    }
-                    if (cptJoker + cptBateau >= longeur) {
+                    if (nbJokers + valeurCartes(laRoute, c) >= longeur) {
                         lesCouleurs.add(c);
                     }
                 }
-                return lesCouleurs;
-            }
-            else { // la route n'est pas grise
-
-                List<Couleur> lesCouleurs = new ArrayList<>();
-                List<CarteTransport> carteAUtilisé = new ArrayList<>();
-                int cptJoker = 0;
-                int cptBateau = 0;
-                for (CarteTransport cart : cartesTransport) {
-                    if (cart.getCouleur().equals(laRoute.getCouleur()) && cart.getType().equals(BATEAU) && cart.estDouble()) {
-                            /*Pour payer une route maritime verte de longueur 3, il essaie de jouer :
-                            carte simple puis carte double,
-                            les règles précisent bien qu'on peut dépasser le coût avec des cartes double bateau, et aucune carte n'est inutile*/
-                        cptBateau += 2;
-                    } else if (cart.getCouleur().equals(laRoute.getCouleur()) && cart.getType().equals(BATEAU) && !cart.estDouble()) {
-                        cptBateau++;
-                    } else if (cart.getType().equals(JOKER)) {
-                        cptJoker++;
-                    }
-                }
-                if (cptJoker + cptBateau >= longeur) {
-                    lesCouleurs.add(laRoute.getCouleur());
-                }
-                return lesCouleurs;
+            } else if (nbJokers + valeurCartes(laRoute, laRoute.getCouleur()) >= longeur) { // la route n'est pas grise
+                lesCouleurs.add(laRoute.getCouleur());
             }
+            return lesCouleurs;
         }
+        return new ArrayList<Couleur>();
+    }
 
-        if (laRoute.estTerrestre() && !laRoute.estPaire()) {
-            if (laRoute.getCouleur().equals(Couleur.GRIS)) { // on peut jouer nimporte quel couleur
-                List<Couleur> lesCouleurs = new ArrayList<>();
-                List<CarteTransport> carteAUtilisé = new ArrayList<>();
-                int cptWagon = 0;
-                int cptJoker = 0;
-                for (Couleur c : Couleur.values()) {
-                    cptWagon = 0;
-                    cptJoker = 0;
-                    for (CarteTransport cart : cartesTransport) {
-                        if (cart.getCouleur().equals(c) && cart.getType().equals(WAGON)) {
-                            cptWagon++;
-                        } else if (cart.getType().equals(JOKER)) {
-                            cptJoker++;
-                        }
-
-                    }
-                    if (cptJoker + cptWagon >= longeur) {
-                        lesCouleurs.add(c);
-                    }
-                }
-                return lesCouleurs;
-            }
-            else { // la route n'est pas grise
-
-                List<Couleur> lesCouleurs = new ArrayList<>();
-                List<CarteTransport> carteAUtilisé = new ArrayList<>();
-                int cptWagon = 0;
-                int cptJoker = 0;
-                    for (CarteTransport cart : cartesTransport) {
-                        if (cart.getCouleur().equals(laRoute.getCouleur()) && cart.getType().equals(WAGON)) {
-                            cptWagon++;
-                        } else if (cart.getType().equals(JOKER)) {
-                            cptJoker++;
-                        }
-                    }
-                    if (cptJoker + cptWagon >= longeur){
-                        lesCouleurs.add(laRoute.getCouleur());
-                    }
-                return lesCouleurs;
-            }
+    /**
+     * @return le nombre d'espaces de la route (maritime ou terrestre non paire) que le joueur peut
+     * couvrir avec ses cartes de la couleur donnée, sans compter les jokers
+     */
+    private int valeurCartes(Route laRoute, Couleur c) {
+        if (laRoute.estMaritime()) {
+            return 2 * (cartesTransport.nb(BATEAU, c, true, false) + cartesTransport.nb(BATEAU, c, true, true))
+                    + cartesTransport.nb(BATEAU, c, false, false) + cartesTransport.nb(BATEAU, c, false, true);
         }
-        return new ArrayList<Couleur>();
+        return cartesTransport.nb(WAGON, c);
     }
 
     public void supprimerRoute(String nom){
         for (Route r: jeu.getRoutesDebut()) {
             if (r.getNom().equals(nom)){
-                if (r.getRouteParallele()!=null){
-                    jeu.getVraiRouteLibres().remove(r.getRouteParallele());
-                }
+                jeu.getVraiRouteLibres().removeAll(r.getRoutesParalleles());
             }
         }
     }
 
     private void poserRoute(String nomVille) {
-        if (this.cartesTransport.isEmpty()) {
-            return;
-        }
-        Route laRoute = null;
-        for (Route r : jeu.getRoutesLibres()) {
-            if (r.getNom().equals(nomVille)) {
-                laRoute = r;
-            }
+        jeu.executer(creerCaptureRoute(nomVille));
+    }
+
+    /**
+     * @return l'étape de capture de la route libre dont le nom est passé en argument
+     */
+    private CaptureRoute creerCaptureRoute(String nomVille) {
+        Route laRoute = jeu.getRoutebyNom(nomVille);
+        if (laRoute.estMaritime()) {
+            return new CaptureRouteMaritime(laRoute);
+        } else if (laRoute.estTerrestre()) {
+            return new CaptureRouteTerrestre(laRoute);
         }
-        /* Variables utile */
-        List<Couleur> lesCouleursPaiementPossible = peutPoserRoute(nomVille, laRoute.getLongueur());
-        List<CarteTransport> lesCartesPossedes = new ArrayList<>();
-        List<String> carteTransportsEnString = new ArrayList<>();
+        return new CaptureRoutePaire(laRoute);
+    }
 
-        String un;
-        int cptWagon = 0;
-        int cptBateaux = 0;
-        int cptJoker = 0;
-        List<String> lesCartesEnString = new ArrayList<>(); // les cartes du paiement en string
-        List<CarteTransport> lesCartes = new ArrayList<>(); // les cartes du paiement
-        boolean paiementPossible = false;
-        boolean utile = false;
-        int argent = 0;
+    /**
+     * Capture d'une route (voir {@link #poserRoute(String)}), sous forme d'étape : le joueur choisit
+     * une à une les cartes qui paient la route, puis la route est ajoutée à ses routes
+     */
+    abstract class CaptureRoute extends Etape {
+        protected final Route laRoute;
+        protected final List<Couleur> lesCouleursPaiementPossible;
+        protected boolean paiementPossible = false;
+        private boolean terminee;
+
+        CaptureRoute(Route laRoute) {
+            this.laRoute = laRoute;
+            // rien à capturer si le joueur n'a pas de cartes
+            this.terminee = cartesTransport.isEmpty();
+            this.lesCouleursPaiementPossible = peutPoserRoute(laRoute.getNom(), laRoute.getLongueur());
+        }
 
+        CaptureRoute(CaptureRoute capture) {
+            this.laRoute = capture.laRoute;
+            this.lesCouleursPaiementPossible = capture.lesCouleursPaiementPossible;
+            this.paiementPossible = capture.paiementPossible;
+            this.terminee = capture.terminee;
+        }
 
-        if (laRoute.estMaritime()) {
-            int cptSimple=0;
-            int cptDouble=0;
-            for (CarteTransport c : this.cartesTransport) {
-                if (c.getType().equals(TypeCarteTransport.JOKER) || (c.getType().equals(TypeCarteTransport.BATEAU) && lesCouleursPaiementPossible.contains(c.getCouleur()))) {
-                    lesCartesPossedes.add(c);
-                    carteTransportsEnString.add(c.getNom());
-                    if (c.getType().equals(JOKER) || !c.estDouble()){
-                        cptSimple++;
-                    }
-                    else {
-                        cptDouble++;
-                    }
-                }
+        @Override
+        protected final Invite prochaineInvite() {
+            if (terminee) {
+                return null;
             }
-            if (cptDouble == laRoute.getLongueur()/2 && cptSimple ==1) {
-                carteTransportsEnString.clear();
-                for (CarteTransport c : this.cartesTransport) {
-                    if (c.estDouble() && lesCouleursPaiementPossible.contains(c.getCouleur())) {
-                        carteTransportsEnString.add(c.getNom());
-                    }
-                }
-            }
-            int utilitaire = 0;
-            boolean conditionFinir = false;
-            boolean carteSimple = false;
-            argent = 0;
-            Couleur laCouleurChoisis = null;
-            do {
-                if (conditionFinir==true && utilitaire == 0){
-                    if (!carteTransportsEnString.isEmpty()){
-                        carteTransportsEnString.clear();
-                    }
-                    for (CarteTransport c : lesCartesPossedes) {
-                        if (c.getType().equals(JOKER)){
-                            carteTransportsEnString.add(c.getNom());
-                        }
-                        else if(c.getType().equals(BATEAU) && !c.estDouble() && lesCouleursPaiementPossible.contains(c.getCouleur()) && (laCouleurChoisis == null || c.getCouleur().equals(laCouleurChoisis))){
-                            carteTransportsEnString.add(c.getNom());
-                        }
-                    }
-                    utilitaire++;
+            if (!paiementPossible) {
+                Invite invite = prochainPaiement();
+                if (!invite.choix().isEmpty()) {
+                    return invite;
                 }
-                un = choisir("Veuillez selectionner des cartes Bateau pour capturer la route", carteTransportsEnString, null, false);
-                for (CarteTransport c : lesCartesPossedes) {
-                    if (un.equals(c.getNom())) {
-                        if ((laCouleurChoisis == null || (c.getCouleur().equals(laCouleurChoisis) && c.getType().equals(TypeCarteTransport.BATEAU)) || c.getType().equals(TypeCarteTransport.JOKER))) {
-                            if (c.estDouble()) {
-                                argent += 2;
-                                cptDouble--;
-                            } else {
-                                carteSimple = true;
-                                cptSimple--;
-                                argent+=1;
-                            }
-
-                            this.cartesTransportPosees.add(c);
-                            this.cartesTransport.remove(c);
-                            carteTransportsEnString.remove(un);
-                            if (laCouleurChoisis == null) {
-                                if (un.equals(c.getNom()) && c.getType().equals(TypeCarteTransport.BATEAU)) {
-                                    laCouleurChoisis = c.getCouleur();
-                                }
-                            }
-                        }
-                    }
+                // la route ne peut pas être payée : le joueur reprend ses cartes
+                cartesTransport.addAll(cartesTransportPosees);
+                cartesTransportPosees.clear();
+                terminee = true;
+                return null;
+            }
+            if (laRoute.estTerrestre() || laRoute.estPaire()) {
+                for (CarteTransport carte : cartesTransportPosees) {
+                    jeu.getPilesDeCartesWagon().defausser(carte);
                 }
-
-                if (argent == laRoute.getLongueur()-1 && laRoute.getLongueur()!=1){
-                    if (carteSimple==true && utilitaire==0) {
-                        if (cptSimple>0){
-                            conditionFinir=true;
-                        }
+            } else if (laRoute.estMaritime()){
+                for (CarteTransport carte : cartesTransportPosees) {
+                    if (carte.getType().equals(BATEAU)){
+                        jeu.getPilesDeCartesBateau().defausser(carte);
                     }
-                }
-                if (argent >= laRoute.getLongueur()) {
-                    paiementPossible = true;
-                }
-                } while (!paiementPossible);
-            }
-        else if (laRoute.estTerrestre()) {
-            for (CarteTransport c : this.cartesTransport) {
-                if (c.getType().equals(TypeCarteTransport.JOKER) || (c.getType().equals(TypeCarteTransport.WAGON) && lesCouleursPaiementPossible.contains(c.getCouleur()))) {
-                    lesCartesPossedes.add(c);
-                    carteTransportsEnString.add(c.getNom());
-                }
-            }
-            argent = 0;
-            Couleur laCouleurChoisis = null;
-            do {
-                un = choisir("Veuillez selectionner des cartes Wagons pour capturer la route", carteTransportsEnString, null, false);
-                for (CarteTransport c : lesCartesPossedes) {
-                    if (un.equals(c.getNom())){
-                        if ((laCouleurChoisis == null || (c.getCouleur().equals(laCouleurChoisis) && c.getType().equals(TypeCarteTransport.WAGON)) || c.getType().equals(TypeCarteTransport.JOKER))) {
-                        this.cartesTransportPosees.add(c);
-                        this.cartesTransport.remove(c);
-                        carteTransportsEnString.remove(un);
-                        utile = true;
-                        argent++;
-                            if (laCouleurChoisis == null) {
-                                if (un.equals(c.getNom()) && c.getType().equals(TypeCarteTransport.JOKER) == false) {
-                                    laCouleurChoisis = c.getCouleur();
-                                }
-                            }
-                        }
+                    else {
+                        jeu.getPilesDeCartesWagon().defausser(carte);
                     }
-                }
-                if (argent == laRoute.getLongueur()) {
-                    paiementPossible = true;
-                }
 
-            } while (!paiementPossible);
-        }
-        else if (laRoute.estPaire()) { /** ROUTE PAIRE DEBUT */
-            boolean accesAuxFactices = true;
-            boolean accesUniqueJokers = false;
-            // contientJokers
-            int contientJokers = 0;
-            for (CarteTransport c: cartesTransport) {
-                if (c.getType().equals(JOKER)){
-                    contientJokers++;
                 }
             }
-            if (contientJokers == 0)
-                accesAuxFactices = false;
+            routes.add(laRoute);
+            jeu.getVraiRouteLibres().remove(laRoute);
 
-        /*######################################################
-        ############ Init points Bruts/factices ################
-        ######################################################*/
-
-            // tab Frequence
-            ArrayList<Couleur> tableIndexage = new ArrayList<>();
-            ArrayList<Integer> tableFrequence = new ArrayList<>();
-            ArrayList<Integer> pointsBruts = new ArrayList<>(tableFrequence.size());
-            ArrayList<Integer> pointsFactices = new ArrayList<>(tableFrequence.size());
-            for (Couleur cl: Couleur.values()){
-                tableIndexage.add(cl);
-                tableFrequence.add(0);
-                pointsBruts.add(0);
-                pointsFactices.add(0);
-            }
-            for (CarteTransport c : cartesTransport) {
-                for (int i = 0; i < tableIndexage.size(); i++) {
-                    if (c.getCouleur() == tableIndexage.get(i)){
-                        tableFrequence.set(i, tableFrequence.get(i) + 1);
-                    }
-                }
-            }
+            cartesTransportPosees.clear();
+            score += laRoute.getScore();
+            terminee = true;
+            return null;
+        }
 
+        /**
+         * @return le choix de la prochaine carte du paiement
+         */
+        protected abstract Invite prochainPaiement();
+    }
 
+    /**
+     * Capture d'une route maritime : des cartes bateau d'une même couleur (les doubles comptent pour
+     * deux espaces) et des jokers. Le coût peut être dépassé avec des doubles, mais aucune carte
+     * défaussée ne doit être inutile. Seules les cartes qui permettent encore de finir le paiement
+     * sont proposées.
+     */
+    class CaptureRouteMaritime extends CaptureRoute {
+        private Couleur laCouleurChoisie = null;
+        /**
+         * Nombre d'espaces déjà payés
+         */
+        private int somme = 0;
+        /**
+         * Indique si une carte simple (ou un joker) a déjà été défaussée
+         */
+        private boolean avecSimple = false;
+
+        CaptureRouteMaritime(Route laRoute) {
+            super(laRoute);
+        }
 
-            ArrayList<CarteTransport> cartesPossiblesBrutes = new ArrayList<>();
-            ArrayList<CarteTransport> cartesPossiblesFactices = new ArrayList<>();
-            int cptJokersUtilises = 0; int cptBrut = 0; int cptFactice = 0; int cptJokersAConsommer = 0;
+        private CaptureRouteMaritime(CaptureRouteMaritime capture) {
+            super(capture);
+            laCouleurChoisie = capture.laCouleurChoisie;
+            somme = capture.somme;
+            avecSimple = capture.avecSimple;
+        }
 
+        @Override
+        protected Etape copierPour(Jeu copie) {
+            return copieDans(copie).new CaptureRouteMaritime(this);
+        }
 
-            int cpt = 0;
-            for (Integer i: tableFrequence) {
-                if (i >= 2){ // pointsBruts
-                    pointsBruts.set(cpt, i);
-                    // cartesPossiblesBrutes
-                    for (CarteTransport c : cartesTransport) {
-                        if (c.getCouleur() == tableIndexage.get(cpt)){
-                            cartesPossiblesBrutes.add(c);
-                        }
-                    }
+        @Override
+        protected Invite prochainPaiement() {
+            List<CarteTransport> cartesPossibles = new ArrayList<>();
+            for (CarteTransport c : cartesTransport) {
+                if (estProposee(c)) {
+                    cartesPossibles.add(c);
                 }
-                if (i % 2 == 1 && (accesAuxFactices || tableIndexage.get(i).equals(Couleur.GRIS))){ // pointsFactices
-                    pointsFactices.set(cpt, i % 2);
-                    // cartesPossibleFactices
-                    for (CarteTransport c : cartesTransport) {
-                        if (c.getCouleur() == tableIndexage.get(cpt)) {
-                            cartesPossiblesFactices.add(c);
-                        }
+            }
+            return inviteCartes("Veuillez selectionner des cartes Bateau pour capturer la route", cartesPossibles);
+        }
+
+        private boolean estProposee(CarteTransport c) {
+            if (c.getType().equals(JOKER)) {
+                for (Couleur couleur : couleursPossibles(null)) {
+                    if (paiementFaisable(couleur, somme + 1, true, c)) {
+                        return true;
                     }
                 }
-                cpt++;
-            }
-            int tailleRoute = laRoute.getLongueur();
-            boolean noMoreColors = false;
-            ArrayList<Integer> tableFrequenceCouleurs = new ArrayList<>(tableIndexage.size());
-            for (Couleur cl: Couleur.values()) {
-                tableFrequenceCouleurs.add(0);
+                return false;
             }
-            ArrayList<Couleur> couleursUtilisees = new ArrayList<>(tailleRoute);
-
-            while (cptBrut + cptFactice + cptJokersUtilises != laRoute.getLongueur() * 2){
-            /*######################################################
-            ################# Faire un choix  ######################
-            ######################################################*/
+            return c.getType().equals(BATEAU) && couleursPossibles(c.getCouleur()).contains(c.getCouleur())
+                    && paiementFaisable(c.getCouleur(), somme + (c.estDouble() ? 2 : 1), avecSimple || !c.estDouble(), c);
+        }
 
-                ArrayList<String> options = new ArrayList<>();
+        /**
+         * @return les couleurs avec lesquelles le paiement peut être fini après avoir défaussé une
+         * carte de la couleur donnée (null pour un joker)
+         */
+        private List<Couleur> couleursPossibles(Couleur couleur) {
+            if (laCouleurChoisie != null) {
+                return List.of(laCouleurChoisie);
+            }
+            return couleur == null ? lesCouleursPaiementPossible : List.of(couleur);
+        }
 
-                for (CarteTransport c : cartesTransport) {
-                    if (accesUniqueJokers){
-                        if (c.getType().equals(JOKER)){
-                            options.add(c.getNom());
-                        }
-                    } else if (noMoreColors) {
-                        if (cartesPossiblesBrutes.contains(c) && (couleursUtilisees.contains(c.getCouleur()) || c.getType().equals(JOKER))){
-                            options.add(c.getNom());
-                        }
-                        else if (cartesPossiblesFactices.contains(c) && ((accesAuxFactices && couleursUtilisees.contains(c.getCouleur())) || c.getType().equals(JOKER))) {
-                            options.add(c.getNom());
-                        }
-                    } else {
-                        if (cartesPossiblesBrutes.contains(c) ){
-                            options.add(c.getNom());
-                        }
-                        else if (cartesPossiblesFactices.contains(c) && (accesAuxFactices || c.getType().equals(JOKER))) {
-                            options.add(c.getNom());
-                        }
-                    }
+        /**
+         * @return true si le paiement peut être fini avec les cartes de la main (sauf la carte exclue)
+         * de la couleur donnée, lorsque {@code somme} espaces sont payés
+         */
+        private boolean paiementFaisable(Couleur couleur, int somme, boolean avecSimple, CarteTransport exclue) {
+            int nbSimples = 0;
+            int nbDoubles = 0;
+            for (CarteTransport c : cartesTransport) {
+                if (c == exclue) {
+                    continue;
                 }
-                String choix = choisir("Choisissez une carte a defausser pour payer la route", options, null, false);
-
-                CarteTransport carteSelect = null; // init carte recup
-                for (CarteTransport c : cartesTransport) { // recup carte choisie
-                    if (c.getNom().equals(choix)){
-                        carteSelect = c;
+                if (c.getType().equals(JOKER)) {
+                    nbSimples++;
+                } else if (c.getType().equals(BATEAU) && c.getCouleur().equals(couleur)) {
+                    if (c.estDouble()) {
+                        nbDoubles++;
+                    } else {
+                        nbSimples++;
                     }
                 }
-                Couleur carteSelectCouleur = carteSelect.getCouleur();
-                int i = tableIndexage.indexOf(carteSelectCouleur);
-
-                int sommeCoul = 0;
-                tableFrequenceCouleurs.set(i, tableFrequenceCouleurs.get(i) + 1); // +1 la coul actuelle
-                for (Integer entier: tableFrequenceCouleurs){
-                    sommeCoul += entier / 2 + entier % 2;
-                    if (entier >= 1 && !couleursUtilisees.contains(tableIndexage.get(i))){
-                        couleursUtilisees.add(tableIndexage.get(i));
+            }
+            int longueur = laRoute.getLongueur();
+            for (int d = 0; d <= nbDoubles; d++) {
+                for (int s = 0; s <= nbSimples; s++) {
+                    int total = somme + s + 2 * d;
+                    // avec une carte simple le coût doit être exact, sinon elle serait inutile
+                    if (total >= longueur && (avecSimple || s > 0 ? total == longueur : total <= longueur + 1)) {
+                        return true;
                     }
                 }
-                if(sommeCoul == tailleRoute){
-                    noMoreColors = true;
-                }
+            }
+            return false;
+        }
 
+        @Override
+        protected void traiterChoix(String choix) {
+            CarteTransport c = getCarteMainByNom(choix);
+            if (c == null || !estProposee(c)) {
+                return;
+            }
+            if (c.getType().equals(BATEAU)) {
+                laCouleurChoisie = c.getCouleur();
+            }
+            somme += c.estDouble() ? 2 : 1;
+            avecSimple |= !c.estDouble();
+            cartesTransport.remove(c);
+            cartesTransportPosees.add(c);
+            paiementPossible = somme >= laRoute.getLongueur();
+        }
+    }
 
+    /**
+     * Capture d'une route terrestre : autant de cartes wagon d'une même couleur (et de jokers) que la
+     * longueur de la route. Seules les cartes qui permettent encore de finir le paiement sont proposées.
+     */
+    class CaptureRouteTerrestre extends CaptureRoute {
+        private Couleur laCouleurChoisie = null;
+        private int nbCartesPosees = 0;
 
+        CaptureRouteTerrestre(Route laRoute) {
+            super(laRoute);
+        }
 
+        private CaptureRouteTerrestre(CaptureRouteTerrestre capture) {
+            super(capture);
+            laCouleurChoisie = capture.laCouleurChoisie;
+            nbCartesPosees = capture.nbCartesPosees;
+        }
 
+        @Override
+        protected Etape copierPour(Jeu copie) {
+            return copieDans(copie).new CaptureRouteTerrestre(this);
+        }
 
+        @Override
+        protected Invite prochainPaiement() {
+            List<CarteTransport> cartesPossibles = new ArrayList<>();
+            for (CarteTransport c : cartesTransport) {
+                if (estProposee(c)) {
+                    cartesPossibles.add(c);
+                }
+            }
+            return inviteCartes("Veuillez selectionner des cartes Wagons pour capturer la route", cartesPossibles);
+        }
 
+        private boolean estProposee(CarteTransport c) {
+            List<Couleur> couleurs;
+            if (laCouleurChoisie != null) {
+                couleurs = List.of(laCouleurChoisie);
+            } else if (c.getType().equals(JOKER)) {
+                couleurs = lesCouleursPaiementPossible;
+            } else {
+                couleurs = lesCouleursPaiementPossible.contains(c.getCouleur()) ? List.of(c.getCouleur()) : List.of();
+            }
+            if (!c.getType().equals(JOKER) && !(c.getType().equals(WAGON) && couleurs.contains(c.getCouleur()))) {
+                return false;
+            }
+            for (Couleur couleur : couleurs) {
+                int nbCartes = 0;
+                for (CarteTransport carte : cartesTransport) {
+                    if (carte != c && (carte.getType().equals(JOKER) || carte.getType().equals(WAGON) && carte.getCouleur().equals(couleur))) {
+                        nbCartes++;
+                    }
+                }
+                if (nbCartesPosees + 1 + nbCartes >= laRoute.getLongueur()) {
+                    return true;
+                }
+            }
+            return false;
+        }
 
+        @Override
+        protected void traiterChoix(String choix) {
+            CarteTransport c = getCarteMainByNom(choix);
+            if (c == null || !estProposee(c)) {
+                return;
+            }
+            if (c.getType().equals(WAGON)) {
+                laCouleurChoisie = c.getCouleur();
+            }
+            nbCartesPosees++;
+            cartesTransport.remove(c);
+            cartesTransportPosees.add(c);
+            paiementPossible = nbCartesPosees == laRoute.getLongueur();
+        }
+    }
 
+    /**
+     * Capture d'une route paire : chaque espace est payé par deux cartes wagon de la même couleur (un
+     * joker peut remplacer n'importe quelle carte). Seules les cartes qui permettent encore de finir
+     * le paiement sont proposées.
+     */
+    class CaptureRoutePaire extends CaptureRoute {
+        /**
+         * Nombre de cartes wagon défaussées de chaque couleur
+         */
+        private final int[] nbPosees;
+        private int nbJokersPoses = 0;
+
+        CaptureRoutePaire(Route laRoute) {
+            super(laRoute);
+            nbPosees = new int[Couleur.values().length];
+        }
 
-            /*######################################################
-            ############ Actions sur le deroulement  ###############
-            ######################################################*/
+        private CaptureRoutePaire(CaptureRoutePaire capture) {
+            super(capture);
+            nbPosees = capture.nbPosees.clone();
+            nbJokersPoses = capture.nbJokersPoses;
+        }
 
-                if (cartesPossiblesBrutes.contains(carteSelect)) {
-                    if (carteSelect.getType().equals(JOKER)){
-                        cptJokersUtilises++;
-                    } else{
-                        cptBrut++;
-                    }
-                    pointsBruts.set(i, pointsBruts.get(i) - 1);
-                    cartesPossiblesBrutes.remove(carteSelect);
-                    cartesTransport.remove(carteSelect);
-                    cartesTransportPosees.add(carteSelect);
-                    if (tableFrequence.get(i) % 2 == 1 ){ // si ne peut plus faire de paires avec ses points bruts
-                        cartesPossiblesFactices.remove(carteSelect);
-                        if (pointsBruts.get(i) == 1 && pointsFactices.get(i) == 1){
-                            for (CarteTransport c : cartesPossiblesBrutes){
-                                if (c.getCouleur() == carteSelectCouleur){
-                                    cartesPossiblesBrutes.remove(c);
-                                    break;
-                                }
-                            }
-                            pointsBruts.set(i, 0);
-                        }
+        @Override
+        protected Etape copierPour(Jeu copie) {
+            return copieDans(copie).new CaptureRoutePaire(this);
+        }
 
+        @Override
+        protected Invite prochainPaiement() {
+            List<CarteTransport> cartesPossibles = new ArrayList<>();
+            for (CarteTransport c : cartesTransport) {
+                if (estProposee(c)) {
+                    cartesPossibles.add(c);
+                }
+            }
+            return inviteCartes("Choisissez une carte a defausser pour payer la route", cartesPossibles);
+        }
 
-                    }
+        private boolean estProposee(CarteTransport c) {
+            if (!c.getType().equals(JOKER) && !c.getType().equals(WAGON)) {
+                return false;
+            }
+            int[] posees = nbPosees.clone();
+            int[] enMain = new int[posees.length];
+            int nbJokers = nbJokersPoses;
+            int nbJokersEnMain = 0;
+            if (c.getType().equals(JOKER)) {
+                nbJokers++;
+            } else {
+                posees[c.getCouleur().ordinal()]++;
+            }
+            for (CarteTransport carte : cartesTransport) {
+                if (carte == c) {
+                    continue;
                 }
-                else {
-                    if (carteSelect.getType().equals(JOKER)){
-                        cptJokersUtilises++;
-                    } else{
-                        cptFactice++;
-                        cptJokersAConsommer++;
-
-                        if (laRoute.getLongueur() * 2 == (cptBrut + cptFactice + cptJokersUtilises) + cptJokersAConsommer){ // VERIF SI BON
-                            accesUniqueJokers = true;
+                if (carte.getType().equals(JOKER)) {
+                    nbJokersEnMain++;
+                } else if (carte.getType().equals(WAGON)) {
+                    enMain[carte.getCouleur().ordinal()]++;
+                }
+            }
+            int nbCartes = nbJokers;
+            for (int n : posees) {
+                nbCartes += n;
+            }
+            return paiementFaisable(posees, enMain, nbJokers, nbJokersEnMain, 2 * laRoute.getLongueur() - nbCartes);
+        }
+
+        /**
+         * @return true si on peut ajouter exactement {@code nbCartes} cartes de la main aux cartes
+         * posées de sorte que toutes les cartes forment des paires (une couleur qui a un nombre impair
+         * de cartes utilise un joker)
+         */
+        private static boolean paiementFaisable(int[] posees, int[] enMain, int nbJokers, int nbJokersEnMain, int nbCartes) {
+            if (nbCartes < 0) {
+                return false;
+            }
+            // atteignables[n][i] : n cartes wagon ajoutées, i couleurs avec un nombre impair de cartes
+            boolean[][] atteignables = new boolean[nbCartes + 1][posees.length + 1];
+            atteignables[0][0] = true;
+            for (int couleur = 0; couleur < posees.length; couleur++) {
+                boolean[][] suivants = new boolean[nbCartes + 1][posees.length + 1];
+                for (int n = 0; n <= nbCartes; n++) {
+                    for (int i = 0; i < posees.length; i++) {
+                        if (!atteignables[n][i]) {
+                            continue;
+                        }
+                        for (int k = 0; k <= enMain[couleur] && n + k <= nbCartes; k++) {
+                            suivants[n + k][i + (posees[couleur] + k) % 2] = true;
                         }
                     }
-                    if (cptFactice == contientJokers && cptJokersAConsommer == contientJokers){
-                        accesAuxFactices = false;
+                }
+                atteignables = suivants;
+            }
+            for (int n = Math.max(0, nbCartes - nbJokersEnMain); n <= nbCartes; n++) {
+                int jokers = nbJokers + nbCartes - n;
+                for (int i = 0; i <= Math.min(jokers, posees.length); i++) {
+                    if (atteignables[n][i]) {
+                        return true;
                     }
-
-                    pointsFactices.set(i, 0); // en factice = 1 donc va forcement prendre 0
-                    cartesPossiblesFactices.remove(carteSelect);
-                    cartesTransport.remove(carteSelect);
-                    cartesTransportPosees.add(carteSelect);
-
                 }
-
             }
+            return false;
+        }
 
-        } /** FIN ROUTE PAIRE*/
-
-
-        if (laRoute.estTerrestre() || laRoute.estPaire()) {
-            for (CarteTransport carte : cartesTransportPosees) {
-                jeu.getPilesDeCartesWagon().defausser(carte);
+        @Override
+        protected void traiterChoix(String choix) {
+            CarteTransport c = getCarteMainByNom(choix);
+            if (c == null || !estProposee(c)) {
+                return;
             }
-        } else if (laRoute.estMaritime()){
-            for (CarteTransport carte : cartesTransportPosees) {
-                if (carte.getType().equals(BATEAU)){
-                    jeu.getPilesDeCartesBateau().defausser(carte);
-                }
-                else {
-                    jeu.getPilesDeCartesWagon().defausser(carte);
-                }
-
+            if (c.getType().equals(JOKER)) {
+                nbJokersPoses++;
+            } else {
+                nbPosees[c.getCouleur().ordinal()]++;
             }
+            cartesTransport.remove(c);
+            cartesTransportPosees.add(c);
+            paiementPossible = cartesTransportPosees.size() == 2 * laRoute.getLongueur();
         }
-        this.routes.add(laRoute);
-        jeu.getVraiRouteLibres().remove(laRoute);
-
-        this.cartesTransportPosees.clear();
-        score += laRoute.getScore();
     }
 
     /**
@@ -1108,40 +1256,91 @@ public class Joueur {
      *              prendre et à garder obligatoirement.
      * */
     public int prendreDestinations(boolean debut){
+        PiocheDestinations pioche = new PiocheDestinations(debut);
+        jeu.executer(pioche);
+        return pioche.nbCartesGardees;
+    }
+
+    /**
+     * Pioche de destinations (voir {@link #prendreDestinations(boolean)}), sous forme d'étape : le joueur
+     * défausse une à une les destinations qu'il ne garde pas
+     */
+    class PiocheDestinations extends Etape {
         /* Variables temporaires pour les cartes piochees a defausser ou non*/
-        ArrayList<Destination> piochees = new ArrayList<Destination>();
-        int nbAPiocher, nbMinAGarder;
+        private final ArrayList<Destination> piochees;
+        private int nbMinAGarder;
         /* Variables pour réaliser choix */
-        ArrayList<Bouton> boutonsD = new ArrayList<Bouton>();
-        ArrayList<String> names = new ArrayList<String>();
-        String choixRep = " ";
+        private final ArrayList<Bouton> boutonsD;
+        private final ArrayList<String> names;
+        private String choixRep = " ";
+        private int nbCartesGardees = 0;
+        private boolean terminee = false;
+
+        private PiocheDestinations(PiocheDestinations pioche) {
+            piochees = new ArrayList<>(pioche.piochees);
+            nbMinAGarder = pioche.nbMinAGarder;
+            boutonsD = new ArrayList<>(pioche.boutonsD);
+            names = new ArrayList<>(pioche.names);
+            choixRep = pioche.choixRep;
+            nbCartesGardees = pioche.nbCartesGardees;
+            terminee = pioche.terminee;
+        }
+
+        @Override
+        protected Etape copierPour(Jeu copie) {
+            return copieDans(copie).new PiocheDestinations(this);
+        }
 
-        if (jeu.getPileDestinations().size() == 0)
-            return 0;
+        PiocheDestinations(boolean debut) {
+            piochees = new ArrayList<>();
+            boutonsD = new ArrayList<>();
+            names = new ArrayList<>();
+            if (jeu.getPileDestinations().size() == 0) {
+                terminee = true;
+                return;
+            }
+            int nbAPiocher;
+            if(debut){
+                nbAPiocher = 5;
+                nbMinAGarder = 3;
+            } else {
+                if (jeu.getPileDestinations().size() < 4) {
+                    nbAPiocher = jeu.getPileDestinations().size();
+                } else
+                    nbAPiocher = 4;
+                nbMinAGarder = 1;
+            }
+            // code
+            for (int i = 0; i < nbAPiocher; i++) {
+                piochees.add(jeu.piocherDestination());
+                boutonsD.add(new Bouton(piochees.get(i).toString(), piochees.get(i).getNom()));
+                names.add(piochees.get(i).getNom());
+            }
+            nbCartesGardees = piochees.size();
+        }
 
-        if(debut){
-            nbAPiocher = 5;
-            nbMinAGarder = 3;
-        } else {
-            if (jeu.getPileDestinations().size() < 4) {
-                nbAPiocher = jeu.getPileDestinations().size();
-            } else
-                nbAPiocher = 4;
-            nbMinAGarder = 1;
-        }
-        // code
-        for (int i = 0; i < nbAPiocher; i++) {
-            piochees.add(jeu.getPileDestinations().remove(0));
-            boutonsD.add(new Bouton(piochees.get(i).toString(), piochees.get(i).getNom()));
-            names.add(piochees.get(i).getNom());
-        }
-        int nbCartesGardees = piochees.size();
-        while(piochees.size() > nbMinAGarder && !choixRep.equals("")){
-            choixRep = choisir("Quelle Destination voulez vous défausser ?", names, boutonsD, true); // quelle carte defausser
+        @Override
+        protected Invite prochaineInvite() {
+            if (terminee) {
+                return null;
+            }
+            if (piochees.size() > nbMinAGarder && !choixRep.equals("")) {
+                return new Invite(Joueur.this, "Quelle Destination voulez vous défausser ?", names, boutonsD, true, Invite.Nature.DESTINATION, piochees); // quelle carte defausser
+            }
+            for (Destination d: piochees) {
+                destinations.add(d);
+            }
+            terminee = true;
+            return null;
+        }
+
+        @Override
+        protected void traiterChoix(String choix) {
+            choixRep = choix;
             if (!choixRep.equals("")){
                 for (Destination d :piochees) {
                     if (d.getNom().equals(choixRep)){
-                        jeu.getPileDestinations().add(d); // remet la carte defaussée au fond de la pile destination
+                        jeu.remettreDestination(d); // remet la carte defaussée au fond de la pile destination
                         names.remove(d.getNom()); // enlever la carte défaussée de la liste des choix
                         boutonsD.removeIf(b -> b.valeur().equals(d.getNom()));
                         piochees.remove(d);
@@ -1150,42 +1349,71 @@ public class Joueur {
                 }
             }
         }
-        for (Destination d: piochees) {
-            this.destinations.add(d);
-        }
-        return nbCartesGardees;
     }
 
+    /**
+     * @return true si toutes les villes de la destination sont reliées par des routes du joueur (le
+     * résultat est conservé jusqu'à la prochaine modification des routes du joueur)
+     */
     boolean destinationEstComplete(Destination d){
-        List<Ville> villesDestinations = d.getVillesDeDestination();
-        boolean destinationComplete = true; // par défaut c'est vrai et dès que l'on trouve un ville qui n'est pas parcouru on met à false
-        List<Route> groupeDeRoutes = routesConnectees(villesDestinations.get(0));
-
-        // on parcourt toutes ville de la destinations pour voir si chacune d'entre elles se trouve dans le groupeDeRoutes
-        for (Ville v : d.getVillesDeDestination()) {
-            boolean estDansRoutesConnectees = false; // variable que l'on mettra à true dès que la ville sera trouvée dans groupeDeRoutes
-            for (Route r : groupeDeRoutes) {
-                if (r.getVille1().equals(v) || r.getVille2().equals(v)) {
-                    estDansRoutesConnectees = true;
-                }
-            }
-            if (!estDansRoutesConnectees) {
-                destinationComplete = false;
-                break; // break facultatif
-            }
+        if (versionDestinationsCompletes != routes.getVersion()) {
+            destinationsCompletes.clear();
+            versionDestinationsCompletes = routes.getVersion();
         }
+        Boolean complete = destinationsCompletes.get(d);
+        if (complete == null) {
+            complete = routes.relie(d.getVilles());
+            destinationsCompletes.put(d, complete);
+        }
+        return complete;
+    }
 
-        return destinationComplete;
+    /**
+     * @return le nombre de destinations du joueur
+     */
+    int getNbDestinations() {
+        return destinations.size();
+    }
+
+    /**
+     * @return le nombre de destinations du joueur dont toutes les villes sont reliées
+     */
+    int getNbDestinationsCompletes() {
+        int nb = 0;
+        for (Destination d : destinations) {
+            if (destinationEstComplete(d)) {
+                nb++;
+            }
+        }
+        return nb;
     }
 
     public int calculerScoreFinal() { // a verif
+        return getScoreDetaille().total();
+    }
 
-        if (nbPortsPeutPoser > 0){
-            int malusPortsNonPose = nbPortsPeutPoser * -4;
-            return score + cptScoreDestinations() + cptScorePorts() + malusPortsNonPose;
+    /**
+     * @return le détail du score du joueur si la partie s'arrêtait maintenant. Le détail n'est
+     * recalculé que si les routes, les ports, les destinations ou le score du joueur ont changé depuis
+     * le dernier appel.
+     */
+    public ScoreJoueur getScoreDetaille() {
+        if (scoreDetaille == null
+                || versionRoutesScore != routes.getVersion()
+                || versionPortsScore != ports.getVersion()
+                || versionDestinationsScore != destinations.getVersion()
+                || scoreCalcule != score
+                || nbPortsPeutPoserScore != nbPortsPeutPoser) {
+            int malusPortsNonPose = nbPortsPeutPoser > 0 ? nbPortsPeutPoser * 4 : 0;
+            scoreDetaille = new ScoreJoueur(score + penalitesEchanges, penalitesEchanges, cptScoreDestinations(),
+                    cptScorePorts(), malusPortsNonPose);
+            versionRoutesScore = routes.getVersion();
+            versionPortsScore = ports.getVersion();
+            versionDestinationsScore = destinations.getVersion();
+            scoreCalcule = score;
+            nbPortsPeutPoserScore = nbPortsPeutPoser;
         }
-        return score + cptScoreDestinations() + cptScorePorts();
-
+        return scoreDetaille;
     }
 
     public int calculerScoreFinal2() { // a verif
@@ -1282,6 +1510,127 @@ public class Joueur {
                 Map.entry("ports", ports.stream().map(Ville::nom).toList()),
                 Map.entry("routes", routes.stream().map(Route::getNom).toList()));
     }
+
+    /**
+     * Valeurs simples et versions des listes du joueur, qui suffisent à savoir si son état envoyé aux
+     * clients a changé (voir {@link SerialiseurEtat#serialiserModifications(Jeu)})
+     */
+    record Empreinte(int score, int pionsWagon, int pionsWagonReserve, int pionsBateau,
+                     int pionsBateauReserve, int versionDestinations, int versionRoutes, int versionMain,
+                     int versionPosees, int versionPorts) {
+    }
+
+    Empreinte empreinte() {
+        return new Empreinte(score, nbPionsWagon, nbPionsWagonEnReserve, nbPionsBateau, nbPionsBateauEnReserve,
+                destinations.getVersion(), routes.getVersion(), cartesTransport.getVersion(),
+                cartesTransportPosees.getVersion(), ports.getVersion());
+    }
+
+    /**
+     * Écrit l'état du joueur (le même contenu que {@link #dataMap()})
+     */
+    void ecrireEtat(JsonWriter out) throws IOException {
+        out.beginObject();
+        out.name("nom").value(nom);
+        out.name("couleur").value(couleur.name());
+        out.name("score").value(score);
+        out.name("pionsWagon").value(nbPionsWagon);
+        out.name("pionsWagonReserve").value(nbPionsWagonEnReserve);
+        out.name("pionsBateau").value(nbPionsBateau);
+        out.name("pionsBateauReserve").value(nbPionsBateauEnReserve);
+        ecrireDestinations(out);
+        out.name("main");
+        ecrireCartesTriees(out, cartesTransport);
+        out.name("inPlay");
+        ecrireCartesTriees(out, cartesTransportPosees);
+        ecrirePorts(out);
+        ecrireRoutes(out);
+        out.endObject();
+    }
+
+    /**
+     * Écrit uniquement les valeurs de l'état du joueur qui diffèrent entre deux empreintes (les
+     * destinations sont réécrites quand les routes changent, car elles peuvent alors être complétées)
+     */
+    void ecrireModifications(JsonWriter out, Empreinte avant, Empreinte apres) throws IOException {
+        out.beginObject();
+        if (avant.score() != apres.score()) {
+            out.name("score").value(score);
+        }
+        if (avant.pionsWagon() != apres.pionsWagon()) {
+            out.name("pionsWagon").value(nbPionsWagon);
+        }
+        if (avant.pionsWagonReserve() != apres.pionsWagonReserve()) {
+            out.name("pionsWagonReserve").value(nbPionsWagonEnReserve);
+        }
+        if (avant.pionsBateau() != apres.pionsBateau()) {
+            out.name("pionsBateau").value(nbPionsBateau);
+        }
+        if (avant.pionsBateauReserve() != apres.pionsBateauReserve()) {
+            out.name("pionsBateauReserve").value(nbPionsBateauEnReserve);
+        }
+        if (avant.versionDestinations() != apres.versionDestinations() || avant.versionRoutes() != apres.versionRoutes()) {
+            ecrireDestinations(out);
+        }
+        if (avant.versionMain() != apres.versionMain()) {
+            out.name("main");
+            ecrireCartesTriees(out, cartesTransport);
+        }
+        if (avant.versionPosees() != apres.versionPosees()) {
+            out.name("inPlay");
+            ecrireCartesTriees(out, cartesTransportPosees);
+        }
+        if (avant.versionPorts() != apres.versionPorts()) {
+            ecrirePorts(out);
+        }
+        if (avant.versionRoutes() != apres.versionRoutes()) {
+            ecrireRoutes(out);
+        }
+        out.endObject();
+    }
+
+    private void ecrireDestinations(JsonWriter out) throws IOException {
+        out.name("destinationsIncompletes").beginArray();
+        for (Destination d : destinations) {
+            if (!destinationEstComplete(d)) {
+                SerialiseurEtat.ecrire(out, d);
+            }
+        }
+        out.endArray();
+        out.name("destinationsCompletes").beginArray();
+        for (Destination d : destinations) {
+            if (destinationEstComplete(d)) {
+                SerialiseurEtat.ecrire(out, d);
+            }
+        }
+        out.endArray();
+    }
+
+    private void ecrirePorts(JsonWriter out) throws IOException {
+        out.name("ports").beginArray();
+        for (Ville v : ports) {
+            out.value(v.nom());
+        }
+        out.endArray();
+    }
+
+    private void ecrireRoutes(JsonWriter out) throws IOException {
+        out.name("routes").beginArray();
+        for (Route r : routes) {
+            out.value(r.getNom());
+        }
+        out.endArray();
+    }
+
+    private static void ecrireCartesTriees(JsonWriter out, List<CarteTransport> cartes) throws IOException {
+        CarteTransport[] triees = cartes.toArray(new CarteTransport[0]);
+        Arrays.sort(triees);
+        out.beginArray();
+        for (CarteTransport c : triees) {
+            SerialiseurEtat.ecrire(out, c);
+        }
+        out.endArray();
+    }
     public int getNbPionsWagon() {
         return nbPionsWagon;
     }
@@ -1314,13 +1663,7 @@ public class Joueur {
         this.nbPionsBateauEnReserve = nbPionsBateauEnReserve;
     }
     public int getNbJoker(List<CarteTransport> cartesTransportPosees){
-        int res = 0;
-        for (CarteTransport carte : this.cartesTransport) {
-            if (carte.getType() == JOKER) {
-                res++;
-            }
-        }
-        return res;
+        return cartesTransport.nb(JOKER);
     }
     private TypeCarteTransport getTypeRoute(Route route) {
         if (route instanceof RouteMaritime) {
@@ -1331,16 +1674,55 @@ public class Joueur {
     }
 
     public void setRatioPions(){ // MARCHE QU'AU DEBUT
-        ArrayList<String> nbWagonsAPrendre = new ArrayList<String>();
-        for (int i = 10; i <= 25 ; i++) {
-            nbWagonsAPrendre.add(Integer.toString(i));
+        jeu.executer(new ChoixRatioPions());
+    }
+
+    /**
+     * Choix du nombre de pions wagon en début de partie (voir {@link #setRatioPions()}), sous forme d'étape
+     */
+    class ChoixRatioPions extends Etape {
+        private final ArrayList<String> nbWagonsAPrendre;
+        private final ArrayList<Integer> nombres;
+        private boolean fait = false;
+
+        private ChoixRatioPions(ChoixRatioPions choix) {
+            // les nombres proposés ne changent pas : ils sont partagés avec la copie
+            nbWagonsAPrendre = choix.nbWagonsAPrendre;
+            nombres = choix.nombres;
+            fait = choix.fait;
+        }
+
+        @Override
+        protected Etape copierPour(Jeu copie) {
+            return copieDans(copie).new ChoixRatioPions(this);
+        }
+
+        ChoixRatioPions() {
+            nbWagonsAPrendre = new ArrayList<>();
+            nombres = new ArrayList<>();
+            for (int i = 10; i <= 25 ; i++) {
+                nbWagonsAPrendre.add(Integer.toString(i));
+                nombres.add(i);
+            }
+            log(nom+ " détient "+ nbPionsWagon + " pions Wagons et " + nbPionsBateau+ " pions bateaux. ");
+        }
+
+        @Override
+        protected Invite prochaineInvite() {
+            if (fait) {
+                return null;
+            }
+            return new Invite(Joueur.this, "Choisissez le nombre de pions Wagons à prendre ", nbWagonsAPrendre, null, false, Invite.Nature.PIONS_WAGON, nombres);
+        }
+
+        @Override
+        protected void traiterChoix(String choix) {
+            nbPionsWagon = Integer.parseInt(choix);
+            nbPionsWagonEnReserve = 25 - nbPionsWagon;
+            nbPionsBateau = 60 - nbPionsWagon;
+            nbPionsBateauEnReserve = 50 - nbPionsBateau;
+            fait = true;
         }
-        log(this.nom+ " détient "+ nbPionsWagon + " pions Wagons et " + nbPionsBateau+ " pions bateaux. ");
-        String choix = choisir("Choisissez le nombre de pions Wagons à prendre ", nbWagonsAPrendre, null,false );
-        nbPionsWagon = Integer.parseInt(choix);
-        nbPionsWagonEnReserve = 25 - nbPionsWagon;
-        nbPionsBateau = 60 - nbPionsWagon;
-        nbPionsBateauEnReserve = 50 - nbPionsBateau;
     }
     public List<Route> getRoutes() { // get des routes que le joueurs possede
         return routes;
@@ -1354,34 +1736,91 @@ public class Joueur {
         }
         return routesAdjacentes;
     }
+    /**
+     * @return les routes du joueur reliées à la ville de départ (parcours en largeur du graphe du plateau,
+     * en ne suivant que les routes du joueur). Les routes du joueur qui ne sont pas sur le plateau sont
+     * suivies à partir de leurs propres villes.
+     */
     public List<Route> routesConnectees(Ville depart) {
-        List<Ville> villesVisitees = new ArrayList<>();
+        GraphePlateau graphe = jeu.getGraphe();
         List<Route> routesVisitees = new ArrayList<>();
-        List<Ville> file = new ArrayList<>();
-        villesVisitees.add(depart);
-        file.add(depart);
-        int i= 0;
-        while (i < file.size()) {
-            Ville villeCourante = file.get(i++);
-            for (Route route : getRoutesAdjacentesDuJoueur(villeCourante)) {
-                if (!routesVisitees.contains(route)) {
-                    Ville villeSuivante = (route.getVille1().equals(villeCourante)) ? route.getVille2() : route.getVille1();
-
-                    if (!villesVisitees.contains(villeSuivante)) {
-                        villesVisitees.add(villeSuivante);
-                        file.add(villeSuivante);
+        boolean[] possedees = new boolean[graphe.nbRoutes()];
+        List<Route> horsPlateau = new ArrayList<>(0);
+        for (Route r : routes) {
+            int numero = graphe.numeroRoute(r);
+            if (numero >= 0) {
+                possedees[numero] = true;
+            } else {
+                horsPlateau.add(r);
+            }
+        }
+        ParcoursVilles parcours = new ParcoursVilles(graphe);
+        parcours.visiter(depart);
+        for (int i = 0; i < parcours.file.size(); i++) {
+            Ville villeCourante = parcours.file.get(i);
+            int v = graphe.numeroVille(villeCourante.nom());
+            if (v >= 0) {
+                for (int a = graphe.debutAretes(v); a < graphe.finAretes(v); a++) {
+                    int route = graphe.routeArete(a);
+                    if (possedees[route]) {
+                        possedees[route] = false; // chaque route n'est parcourue qu'une fois
+                        routesVisitees.add(graphe.route(route));
+                        parcours.visiter(graphe.ville(graphe.voisinArete(a)));
                     }
+                }
+            }
+            for (Iterator<Route> it = horsPlateau.iterator(); it.hasNext(); ) {
+                Route route = it.next();
+                if (route.getVille1().equals(villeCourante) || route.getVille2().equals(villeCourante)) {
+                    it.remove();
                     routesVisitees.add(route);
+                    parcours.visiter(route.getVille1().equals(villeCourante) ? route.getVille2() : route.getVille1());
                 }
             }
         }
         return routesVisitees;
     }
+
+    /**
+     * Villes atteintes par un parcours en largeur : les villes du plateau sont marquées par leur numéro,
+     * les autres (extrémités de routes hors du plateau) par leur nom
+     */
+    private static class ParcoursVilles {
+        private final GraphePlateau graphe;
+        private final boolean[] villesVisitees;
+        private final Set<String> autresVillesVisitees = new HashSet<>(0);
+        private final List<Ville> file = new ArrayList<>();
+
+        ParcoursVilles(GraphePlateau graphe) {
+            this.graphe = graphe;
+            this.villesVisitees = new boolean[graphe.nbVilles()];
+        }
+
+        /**
+         * Ajoute la ville à la file si elle n'a pas encore été atteinte
+         */
+        void visiter(Ville ville) {
+            int v = graphe.numeroVille(ville.nom());
+            boolean nouvelle;
+            if (v >= 0) {
+                nouvelle = !villesVisitees[v];
+                villesVisitees[v] = true;
+            } else {
+                nouvelle = autresVillesVisitees.add(ville.nom());
+            }
+            if (nouvelle) {
+                file.add(ville);
+            }
+        }
+    }
+
     public ArrayList<Route> getRouteDeVille(Ville choisis){
         ArrayList<Route> listeDeRoute = new ArrayList<>();
-        for (Route r: jeu.getRoutesDebut()) {
-            if (r.getVille1().equals(choisis)|| r.getVille2().equals(choisis)){
-                listeDeRoute.add(r);
+        GraphePlateau graphe = jeu.getGraphe();
+        int ville = graphe.numeroVille(choisis.nom());
+        if (ville >= 0) {
+            for (int a = graphe.debutAretes(ville); a < graphe.finAretes(ville); a++) {
+                listeDeRoute.add(graphe.route(graphe.routeArete(a)));
             }
         }
         return listeDeRoute;
@@ -1399,54 +1838,91 @@ public class Joueur {
 
     public void piocherCarteVisible(String carte){
         CarteTransport c;
-        for (int i = 0; i < jeu.cartesTransportVisibles().size(); i++){
-            c = jeu.cartesTransportVisibles().get(i);
+        for (int i = 0; i < jeu.getCartesTransportVisibles().size(); i++){
+            c = jeu.getCartesTransportVisibles().get(i);
             if (c.getNom().equals(carte)){
                 this.cartesTransport.add(c);
                 jeu.poserUneCarteVisible();
-                jeu.cartesTransportVisibles().remove(c);
+                jeu.retirerCarteVisible(c);
                 return;
             }
         }
     }
     public void echangerPions(String type){
-        int nbMaxAPiocher;
-        ArrayList<String> nbPeutPiocher = new ArrayList<>();
+        jeu.executer(new EchangePions(type));
+    }
 
-        if (type.equals("PIONS WAGON")){
-            if (nbPionsWagonEnReserve >= nbPionsBateau)
-            nbMaxAPiocher = nbPionsBateau;
-            else nbMaxAPiocher = nbPionsWagonEnReserve;
+    /**
+     * Échange de pions wagon ou bateau (voir {@link #echangerPions(String)}), sous forme d'étape
+     */
+    class EchangePions extends Etape {
+        private final String type;
+        private final ArrayList<String> nbPeutPiocher;
+        private final ArrayList<Integer> nombres;
+        private boolean fait = false;
+
+        private EchangePions(EchangePions echange) {
+            // les nombres proposés ne changent pas : ils sont partagés avec la copie
+            type = echange.type;
+            nbPeutPiocher = echange.nbPeutPiocher;
+            nombres = echange.nombres;
+            fait = echange.fait;
+        }
 
+        @Override
+        protected Etape copierPour(Jeu copie) {
+            return copieDans(copie).new EchangePions(this);
+        }
+
+        EchangePions(String type) {
+            this.type = type;
+            nbPeutPiocher = new ArrayList<>();
+            nombres = new ArrayList<>();
+            int nbMaxAPiocher;
+            if (type.equals("PIONS WAGON")){
+                if (nbPionsWagonEnReserve >= nbPionsBateau)
+                nbMaxAPiocher = nbPionsBateau;
+                else nbMaxAPiocher = nbPionsWagonEnReserve;
+            }
+            else{
+                if (nbPionsBateauEnReserve >= nbPionsWagon)
+                    nbMaxAPiocher = nbPionsWagon;
+                else nbMaxAPiocher = nbPionsBateauEnReserve;
+            }
             for (int i = 1; i <= nbMaxAPiocher; i++) {
                 nbPeutPiocher.add(Integer.toString(i));
+                nombres.add(i);
             }
-            String choix = choisir("Combien de pions voulez vous échanger", nbPeutPiocher, null, false);
-            // On échange les points
-            nbPionsWagonEnReserve -= Integer.parseInt(choix);
-            nbPionsBateau -= Integer.parseInt(choix);
-            nbPionsWagon += Integer.parseInt(choix);
-            nbPionsBateauEnReserve += Integer.parseInt(choix);
-            // On déduit du score
-            score -= Integer.parseInt(choix);
         }
-        else{
-            if (nbPionsBateauEnReserve >= nbPionsWagon)
-                nbMaxAPiocher = nbPionsWagon;
-            else nbMaxAPiocher = nbPionsBateauEnReserve;
 
-            for (int i = 1; i <= nbMaxAPiocher; i++) {
-                nbPeutPiocher.add(Integer.toString(i));
+        @Override
+        protected Invite prochaineInvite() {
+            if (fait) {
+                return null;
+            }
+            return new Invite(Joueur.this, "Combien de pions voulez vous échanger", nbPeutPiocher, null, false, Invite.Nature.ECHANGE_PIONS, nombres);
+        }
+
+        @Override
+        protected void traiterChoix(String choix) {
+            if (type.equals("PIONS WAGON")){
+                // On échange les points
+                nbPionsWagonEnReserve -= Integer.parseInt(choix);
+                nbPionsBateau -= Integer.parseInt(choix);
+                nbPionsWagon += Integer.parseInt(choix);
+                nbPionsBateauEnReserve += Integer.parseInt(choix);
+            }
+            else{
+                // On échange les points
+                nbPionsWagonEnReserve += Integer.parseInt(choix);
+                nbPionsBateau += Integer.parseInt(choix);
+                nbPionsWagon -= Integer.parseInt(choix);
+                nbPionsBateauEnReserve -= Integer.parseInt(choix);
             }
-            String choix = choisir("Combien de pions voulez vous échanger", nbPeutPiocher, null, false);
-            // On échange les points
-            nbPionsWagonEnReserve += Integer.parseInt(choix);
-            nbPionsBateau += Integer.parseInt(choix);
-            nbPionsWagon -= Integer.parseInt(choix);
-            nbPionsBateauEnReserve -= Integer.parseInt(choix);
             // On déduit du score
             score -= Integer.parseInt(choix);
-
+            penalitesEchanges += Integer.parseInt(choix);
+            fait = true;
         }
     }
     public int getSommePions (){
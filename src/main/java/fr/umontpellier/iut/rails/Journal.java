@@ -0,0 +1,125 @@
+package fr.umontpellier.iut.rails;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Journal des modifications d'une partie, pour annuler et refaire les choix des joueurs (voir
+ * {@code Jeu.annuler()}).
+ *
+ * Chaque choix soumis à la partie forme un coup : la liste des modifications élémentaires faites
+ * pendant ce choix, notées par les listes de la partie à qui le journal a été confié. Annuler un coup
+ * défait ses modifications dans l'ordre inverse, en un temps proportionnel à leur nombre ; le refaire
+ * les rejoue dans l'ordre. Pendant qu'un coup est annulé ou refait, les listes modifiées ne notent
+ * rien.
+ */
+class Journal {
+    /**
+     * Modification élémentaire de la partie
+     *
+     * @param annulation    remet la partie dans l'état d'avant la modification
+     * @param retablissement refait la modification
+     */
+    record Modification(Runnable annulation, Runnable retablissement) {
+    }
+
+    private final ArrayDeque<List<Modification>> coupsJoues = new ArrayDeque<>();
+    private final ArrayDeque<List<Modification>> coupsAnnules = new ArrayDeque<>();
+    /**
+     * Modifications du coup en cours, ou null si aucun coup n'est en cours
+     */
+    private List<Modification> coupEnCours;
+    private boolean enPause;
+
+    /**
+     * @return true si les modifications doivent être notées (un coup est en cours, et n'est ni
+     * annulé ni refait)
+     */
+    boolean enregistre() {
+        return coupEnCours != null && !enPause;
+    }
+
+    /**
+     * Note une modification du coup en cours
+     */
+    void noter(Runnable annulation, Runnable retablissement) {
+        coupEnCours.add(new Modification(annulation, retablissement));
+    }
+
+    /**
+     * Exécute une action sans noter les modifications qu'elle fait (par exemple parce que la
+     * modification a déjà été notée d'un bloc)
+     */
+    void sansEnregistrer(Runnable action) {
+        boolean pause = enPause;
+        enPause = true;
+        try {
+            action.run();
+        } finally {
+            enPause = pause;
+        }
+    }
+
+    /**
+     * Commence un nouveau coup (les coups annulés ne peuvent plus être refaits)
+     */
+    void commencerCoup() {
+        coupEnCours = new ArrayList<>();
+        coupsAnnules.clear();
+    }
+
+    /**
+     * Termine le coup en cours
+     */
+    void terminerCoup() {
+        coupsJoues.push(coupEnCours);
+        coupEnCours = null;
+    }
+
+    boolean peutAnnuler() {
+        return !coupsJoues.isEmpty();
+    }
+
+    boolean peutRefaire() {
+        return !coupsAnnules.isEmpty();
+    }
+
+    /**
+     * Annule le dernier coup joué
+     *
+     * @return false s'il n'y a aucun coup à annuler
+     */
+    boolean annuler() {
+        if (coupsJoues.isEmpty()) {
+            return false;
+        }
+        List<Modification> coup = coupsJoues.pop();
+        sansEnregistrer(() -> {
+            for (int i = coup.size() - 1; i >= 0; i--) {
+                coup.get(i).annulation().run();
+            }
+        });
+        coupsAnnules.push(coup);
+        return true;
+    }
+
+    /**
+     * Refait le dernier coup annulé
+     *
+     * @return false s'il n'y a aucun coup à refaire
+     */
+    boolean refaire() {
+        if (coupsAnnules.isEmpty()) {
+            return false;
+        }
+        List<Modification> coup = coupsAnnules.pop();
+        sansEnregistrer(() -> {
+            for (Modification m : coup) {
+                m.retablissement().run();
+            }
+        });
+        coupsJoues.push(coup);
+        return true;
+    }
+}
@@ -0,0 +1,133 @@
+package fr.umontpellier.iut.rails;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Liste qui compte ses modifications, pour que les calculs faits à partir de son contenu puissent
+ * être conservés tant qu'elle n'a pas changé.
+ *
+ * Une copie de la liste partage ses éléments avec l'original jusqu'à ce que l'une des deux listes soit
+ * modifiée (copie sur écriture) : copier une liste ne coûte rien tant qu'elle ne change pas.
+ *
+ * Si un {@link Journal} lui est confié, la liste y note chacune de ses modifications pour qu'elle
+ * puisse être annulée.
+ */
+class ListeVersionnee<E> extends AbstractList<E> implements RandomAccess {
+    private ArrayList<E> elements;
+    /**
+     * Indique si les éléments sont partagés avec une copie (ou avec l'original) et doivent être copiés
+     * avant la prochaine modification
+     */
+    private boolean partagee;
+    /**
+     * Nombre de modifications de la liste depuis sa création
+     */
+    private int version;
+    /**
+     * Journal dans lequel noter les modifications de la liste, ou null (une copie n'a pas de journal)
+     */
+    private Journal journal;
+
+    ListeVersionnee(Collection<? extends E> elements) {
+        this.elements = new ArrayList<>(elements);
+    }
+
+    /**
+     * Construit une copie de la liste, qui garde sa version
+     */
+    ListeVersionnee(ListeVersionnee<E> liste) {
+        this.elements = liste.elements;
+        this.version = liste.version;
+        this.partagee = true;
+        liste.partagee = true;
+    }
+
+    private void avantModification() {
+        if (partagee) {
+            elements = new ArrayList<>(elements);
+            partagee = false;
+        }
+    }
+
+    /**
+     * Confie à la liste le journal dans lequel noter ses modifications (null pour ne plus les noter)
+     */
+    void setJournal(Journal journal) {
+        this.journal = journal;
+    }
+
+    private boolean journalise() {
+        return journal != null && journal.enregistre();
+    }
+
+    /**
+     * @return un nombre qui change à chaque modification de la liste (y compris lorsqu'une
+     * modification est annulée)
+     */
+    int getVersion() {
+        return version;
+    }
+
+    @Override
+    public E get(int i) {
+        return elements.get(i);
+    }
+
+    @Override
+    public int size() {
+        return elements.size();
+    }
+
+    @Override
+    public E set(int i, E e) {
+        if (journalise()) {
+            E ancien = elements.get(i);
+            journal.noter(() -> set(i, ancien), () -> set(i, e));
+        }
+        avantModification();
+        version++;
+        return elements.set(i, e);
+    }
+
+    @Override
+    public void add(int i, E e) {
+        if (journalise()) {
+            journal.noter(() -> remove(i), () -> add(i, e));
+        }
+        avantModification();
+        elements.add(i, e);
+        version++;
+        modCount++;
+    }
+
+    @Override
+    public E remove(int i) {
+        avantModification();
+        E e = elements.remove(i);
+        if (journalise()) {
+            journal.noter(() -> add(i, e), () -> remove(i));
+        }
+        version++;
+        modCount++;
+        return e;
+    }
+
+    @Override
+    public void clear() {
+        if (journalise()) {
+            List<E> anciens = new ArrayList<>(elements);
+            journal.noter(() -> addAll(anciens), this::clear);
+        }
+        if (partagee) {
+            elements = new ArrayList<>();
+            partagee = false;
+        }
+        elements.clear();
+        version++;
+        modCount++;
+    }
+}
@@ -0,0 +1,210 @@
+package fr.umontpellier.iut.rails;
+
+import fr.umontpellier.iut.rails.data.CarteTransport;
+import fr.umontpellier.iut.rails.data.Couleur;
+import fr.umontpellier.iut.rails.data.TypeCarteTransport;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Cartes transport en main d'un joueur.
+ *
+ * La liste tient à jour le nombre de cartes de chaque sorte (type, couleur, double ou non, avec ou
+ * sans ancre) à chaque ajout ou retrait, de sorte que savoir si le joueur peut payer une route ou un
+ * port ne demande pas de parcourir ses cartes.
+ *
+ * Une copie de la main partage les cartes et les compteurs avec l'original jusqu'à ce que l'une des
+ * deux mains soit modifiée. Les modifications sont notées dans le journal de la partie s'il y en a un.
+ */
+class MainJoueur extends AbstractList<CarteTransport> implements RandomAccess {
+    private static final int NB_COULEURS = Couleur.values().length;
+    private ArrayList<CarteTransport> cartes;
+    /**
+     * Nombre de cartes de chaque sorte (voir {@link #indice(TypeCarteTransport, Couleur, boolean, boolean)})
+     */
+    private int[] compteurs;
+    /**
+     * Indique si les cartes et les compteurs sont partagés avec une copie (ou avec l'original)
+     */
+    private boolean partagee;
+    /**
+     * Nombre de modifications de la main depuis sa création
+     */
+    private int version;
+    /**
+     * Journal dans lequel noter les modifications de la liste, ou null (une copie n'a pas de journal)
+     */
+    private Journal journal;
+
+    MainJoueur() {
+        cartes = new ArrayList<>();
+        compteurs = new int[TypeCarteTransport.values().length * NB_COULEURS * 4];
+    }
+
+    /**
+     * Construit une copie de la main, qui garde sa version
+     */
+    MainJoueur(MainJoueur main) {
+        cartes = main.cartes;
+        compteurs = main.compteurs;
+        version = main.version;
+        partagee = true;
+        main.partagee = true;
+    }
+
+    private void avantModification() {
+        if (partagee) {
+            cartes = new ArrayList<>(cartes);
+            compteurs = compteurs.clone();
+            partagee = false;
+        }
+    }
+
+    /**
+     * Confie à la liste le journal dans lequel noter ses modifications (null pour ne plus les noter)
+     */
+    void setJournal(Journal journal) {
+        this.journal = journal;
+    }
+
+    private boolean journalise() {
+        return journal != null && journal.enregistre();
+    }
+
+    /**
+     * @return un nombre qui change à chaque modification de la main
+     */
+    int getVersion() {
+        return version;
+    }
+
+    private static int indice(TypeCarteTransport type, Couleur couleur, boolean estDouble, boolean ancre) {
+        return ((type.ordinal() * NB_COULEURS + couleur.ordinal()) * 2 + (estDouble ? 1 : 0)) * 2 + (ancre ? 1 : 0);
+    }
+
+    private void compter(CarteTransport carte, int n) {
+        if (carte == null) {
+            return;
+        }
+        compteurs[indice(carte.getType(), carte.getCouleur(), carte.estDouble(), carte.getAncre())] += n;
+    }
+
+    /**
+     * @return le nombre de cartes en main ayant exactement ces caractéristiques
+     */
+    int nb(TypeCarteTransport type, Couleur couleur, boolean estDouble, boolean ancre) {
+        return compteurs[indice(type, couleur, estDouble, ancre)];
+    }
+
+    /**
+     * @return le nombre de cartes en main du type et de la couleur donnés
+     */
+    int nb(TypeCarteTransport type, Couleur couleur) {
+        int i = indice(type, couleur, false, false);
+        return compteurs[i] + compteurs[i + 1] + compteurs[i + 2] + compteurs[i + 3];
+    }
+
+    /**
+     * @return le nombre de cartes en main du type donné
+     */
+    int nb(TypeCarteTransport type) {
+        int n = 0;
+        for (Couleur c : Couleur.values()) {
+            n += nb(type, c);
+        }
+        return n;
+    }
+
+    /**
+     * @return le nombre de cartes en main du type donné qui ont une ancre
+     */
+    int nbAncres(TypeCarteTransport type) {
+        int n = 0;
+        for (Couleur c : Couleur.values()) {
+            n += nb(type, c, false, true) + nb(type, c, true, true);
+        }
+        return n;
+    }
+
+    /**
+     * @return true si les cartes avec une ancre permettent de payer la construction d'un port (2 wagons
+     * et 2 bateaux avec une ancre d'une même couleur, chacun pouvant être remplacé par un joker)
+     */
+    boolean peutPayerPort() {
+        int nbJokers = nbAncres(TypeCarteTransport.JOKER);
+        for (Couleur c : Couleur.values()) {
+            int nbWagons = nb(TypeCarteTransport.WAGON, c, false, true) + nb(TypeCarteTransport.WAGON, c, true, true);
+            int nbBateaux = nb(TypeCarteTransport.BATEAU, c, false, true) + nb(TypeCarteTransport.BATEAU, c, true, true);
+            if (Math.min(2, nbWagons) + Math.min(2, nbBateaux) + nbJokers >= 4) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public CarteTransport get(int i) {
+        return cartes.get(i);
+    }
+
+    @Override
+    public int size() {
+        return cartes.size();
+    }
+
+    @Override
+    public CarteTransport set(int i, CarteTransport carte) {
+        if (journalise()) {
+            CarteTransport ancienne = cartes.get(i);
+            journal.noter(() -> set(i, ancienne), () -> set(i, carte));
+        }
+        avantModification();
+        version++;
+        CarteTransport ancienne = cartes.set(i, carte);
+        compter(ancienne, -1);
+        compter(carte, 1);
+        return ancienne;
+    }
+
+    @Override
+    public void add(int i, CarteTransport carte) {
+        if (journalise()) {
+            journal.noter(() -> remove(i), () -> add(i, carte));
+        }
+        avantModification();
+        version++;
+        cartes.add(i, carte);
+        compter(carte, 1);
+        modCount++;
+    }
+
+    @Override
+    public CarteTransport remove(int i) {
+        avantModification();
+        version++;
+        CarteTransport carte = cartes.remove(i);
+        if (journalise()) {
+            journal.noter(() -> add(i, carte), () -> remove(i));
+        }
+        compter(carte, -1);
+        modCount++;
+        return carte;
+    }
+
+    @Override
+    public void clear() {
+        if (journalise()) {
+            List<CarteTransport> anciennes = new ArrayList<>(cartes);
+            journal.noter(() -> addAll(anciennes), this::clear);
+        }
+        avantModification();
+        version++;
+        cartes.clear();
+        Arrays.fill(compteurs, 0);
+        modCount++;
+    }
+}
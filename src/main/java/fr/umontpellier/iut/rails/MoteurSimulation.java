@@ -0,0 +1,82 @@
+package fr.umontpellier.iut.rails;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Moteur de parties simulées, sans affichage ni entrées : chaque joueur est piloté par une
+ * {@link Strategie}, et la partie avance en mode événementiel ({@code Jeu.demarrer} et
+ * {@code Jeu.soumettre}) sans écrire sur la sortie standard, sans sérialiser l'état et sans serveur.
+ *
+ * Le moteur ne garde aucun état entre deux parties : un même moteur peut jouer plusieurs parties à
+ * la suite (mais pas en même temps si ses stratégies ont un état).
+ */
+public class MoteurSimulation {
+    /**
+     * Nombre maximum de choix par défaut au-delà duquel une partie est arrêtée (des stratégies qui ne
+     * capturent jamais de route ne terminent jamais la partie)
+     */
+    public static final int NB_CHOIX_MAX = 100_000;
+
+    private final List<Strategie> strategies;
+    private final String[] nomJoueurs;
+    private final int nbChoixMax;
+
+    /**
+     * @param strategies la stratégie de chaque joueur, dans l'ordre des joueurs
+     */
+    public MoteurSimulation(List<? extends Strategie> strategies) {
+        this(strategies, NB_CHOIX_MAX);
+    }
+
+    /**
+     * @param strategies la stratégie de chaque joueur, dans l'ordre des joueurs
+     * @param nbChoixMax nombre de choix au-delà duquel une partie est arrêtée
+     */
+    public MoteurSimulation(List<? extends Strategie> strategies, int nbChoixMax) {
+        if (strategies.size() < 2 || strategies.size() > 5) {
+            throw new IllegalArgumentException("Une partie se joue de 2 à 5 joueurs");
+        }
+        this.strategies = new ArrayList<>(strategies);
+        this.nomJoueurs = new String[strategies.size()];
+        for (int i = 0; i < nomJoueurs.length; i++) {
+            nomJoueurs[i] = "Joueur " + (i + 1);
+        }
+        this.nbChoixMax = nbChoixMax;
+    }
+
+    /**
+     * Joue une partie complète
+     *
+     * @param graine graine du générateur aléatoire de la partie
+     * @return le résultat de la partie
+     * @throws IllegalStateException si une stratégie donne une réponse qui n'est pas acceptée
+     */
+    public ResultatSimulation jouer(long graine) {
+        Jeu jeu = new Jeu(nomJoueurs, graine);
+        jeu.setSansAffichage(true);
+        List<Joueur> joueurs = jeu.getJoueurs();
+        int nbChoix = 0;
+        Invite invite = jeu.demarrer();
+        while (invite != null && nbChoix < nbChoixMax) {
+            Strategie strategie = strategies.get(joueurs.indexOf(invite.joueur()));
+            String choix = strategie.choisir(jeu, invite);
+            if (!invite.accepte(choix)) {
+                throw new IllegalStateException(String.format("Réponse invalide de %s : \"%s\" (%s)",
+                        invite.joueur().getNom(), choix, invite.instruction()));
+            }
+            invite = jeu.soumettre(choix);
+            nbChoix++;
+        }
+        List<ScoreJoueur> scores = new ArrayList<>(joueurs.size());
+        List<Integer> nbDestinations = new ArrayList<>(joueurs.size());
+        List<Integer> nbDestinationsCompletes = new ArrayList<>(joueurs.size());
+        for (Joueur j : joueurs) {
+            scores.add(j.getScoreDetaille());
+            nbDestinations.add(j.getNbDestinations());
+            nbDestinationsCompletes.add(j.getNbDestinationsCompletes());
+        }
+        return new ResultatSimulation(graine, scores, nbDestinations, nbDestinationsCompletes, nbChoix,
+                invite == null);
+    }
+}
@@ -0,0 +1,357 @@
+package fr.umontpellier.iut.rails;
+
+import fr.umontpellier.iut.rails.data.CarteTransport;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.random.RandomGenerator;
+
+/**
+ * Pile de cartes rangée dans un tableau circulaire. La carte d'indice 0 est le dessus de la pile.
+ *
+ * Prendre ou ajouter une carte au-dessus ou en dessous de la pile se fait en temps constant (sans
+ * décaler les autres cartes), contrairement à une ArrayList dont le premier élément est retiré.
+ *
+ * Le tableau ne contient que les numéros des cartes, les cartes étant retrouvées dans le catalogue de
+ * {@link CarteTransport} : copier une pile revient à copier un tableau de short. La copie partage même
+ * le tableau avec l'original jusqu'à ce que l'une des deux piles écrive dedans (prendre la carte du
+ * dessus n'écrit pas dans le tableau). Les cartes créées en dehors du jeu de cartes (qui n'ont pas de
+ * numéro dans le catalogue) sont rangées à part, et désignées dans le tableau par un code négatif. La
+ * place d'une telle carte est réutilisée une fois la carte sortie de la pile.
+ *
+ * Les modifications de la pile sont notées dans le journal de la partie s'il y en a un (un mélange
+ * est noté avec l'ordre des cartes avant et après le mélange).
+ */
+class PileCartes extends AbstractList<CarteTransport> implements RandomAccess {
+    private short[] cartes;
+    /**
+     * Position dans le tableau de la carte du dessus
+     */
+    private int debut;
+    private int taille;
+    /**
+     * Cartes hors catalogue (la carte de code -k est à l'indice k - 1, null pour une place libre), ou
+     * null s'il n'y en a pas
+     */
+    private ArrayList<CarteTransport> horsCatalogue;
+    /**
+     * Indique si le tableau et les cartes hors catalogue sont partagés avec une copie (ou avec
+     * l'original) et doivent être copiés avant la prochaine écriture
+     */
+    private boolean partagee;
+    /**
+     * Nombre de modifications de la pile depuis sa création
+     */
+    private int version;
+    /**
+     * Journal dans lequel noter les modifications de la pile, ou null (une copie n'a pas de journal)
+     */
+    private Journal journal;
+
+    PileCartes() {
+        this(16);
+    }
+
+    PileCartes(int capacite) {
+        cartes = new short[Math.max(capacite, 1)];
+    }
+
+    PileCartes(Collection<? extends CarteTransport> c) {
+        this(c.size());
+        for (CarteTransport carte : c) {
+            add(carte);
+        }
+    }
+
+    /**
+     * Construit une copie de la pile, qui garde sa version
+     */
+    PileCartes(PileCartes pile) {
+        cartes = pile.cartes;
+        debut = pile.debut;
+        taille = pile.taille;
+        version = pile.version;
+        horsCatalogue = pile.horsCatalogue;
+        partagee = true;
+        pile.partagee = true;
+    }
+
+    private void avantEcriture() {
+        if (partagee) {
+            cartes = cartes.clone();
+            if (horsCatalogue != null) {
+                horsCatalogue = new ArrayList<>(horsCatalogue);
+            }
+            partagee = false;
+        }
+    }
+
+    /**
+     * Confie à la pile le journal dans lequel noter ses modifications (null pour ne plus les noter)
+     */
+    void setJournal(Journal journal) {
+        this.journal = journal;
+    }
+
+    private boolean journalise() {
+        return journal != null && journal.enregistre();
+    }
+
+    /**
+     * @return un nombre qui change à chaque modification de la pile
+     */
+    int getVersion() {
+        return version;
+    }
+
+    /**
+     * Remplace les cartes de la pile par celles de la liste, dans le même ordre
+     */
+    private void remplacer(List<CarteTransport> nouvelles) {
+        clear();
+        addAll(nouvelles);
+    }
+
+    private short code(CarteTransport carte) {
+        if (carte.estDuCatalogue()) {
+            return (short) carte.getNumero();
+        }
+        if (horsCatalogue == null) {
+            horsCatalogue = new ArrayList<>();
+        }
+        // recherche par identité : deux cartes hors catalogue peuvent être égales sans être la même
+        for (int k = 0; k < horsCatalogue.size(); k++) {
+            if (horsCatalogue.get(k) == carte) {
+                return (short) -(k + 1);
+            }
+        }
+        // il y a plus de places que de cartes dans la pile : certaines sont libres
+        if (horsCatalogue.size() > taille) {
+            libererHorsCatalogue();
+        }
+        int libre = horsCatalogue.indexOf(null);
+        if (libre < 0) {
+            horsCatalogue.add(carte);
+            return (short) -horsCatalogue.size();
+        }
+        horsCatalogue.set(libre, carte);
+        return (short) -(libre + 1);
+    }
+
+    /**
+     * Libère les places des cartes hors catalogue qui ne sont plus dans la pile
+     */
+    private void libererHorsCatalogue() {
+        boolean[] utilisees = new boolean[horsCatalogue.size()];
+        for (int i = 0; i < taille; i++) {
+            short code = cartes[position(i)];
+            if (code < 0) {
+                utilisees[-code - 1] = true;
+            }
+        }
+        for (int k = 0; k < utilisees.length; k++) {
+            if (!utilisees[k]) {
+                horsCatalogue.set(k, null);
+            }
+        }
+    }
+
+    private CarteTransport carte(short code) {
+        return code > 0 ? CarteTransport.getCarte(code) : horsCatalogue.get(-code - 1);
+    }
+
+    /**
+     * @return position dans le tableau de la carte d'indice i
+     */
+    private int position(int i) {
+        int p = debut + i;
+        return p < cartes.length ? p : p - cartes.length;
+    }
+
+    private void verifierIndice(int i, int max) {
+        if (i < 0 || i >= max) {
+            throw new IndexOutOfBoundsException("Indice " + i + ", taille " + taille);
+        }
+    }
+
+    private void agrandirSiPlein() {
+        if (taille < cartes.length) {
+            return;
+        }
+        short[] nouvelles = new short[cartes.length * 2];
+        for (int i = 0; i < taille; i++) {
+            nouvelles[i] = cartes[position(i)];
+        }
+        cartes = nouvelles;
+        debut = 0;
+    }
+
+    @Override
+    public CarteTransport get(int i) {
+        verifierIndice(i, taille);
+        return carte(cartes[position(i)]);
+    }
+
+    @Override
+    public CarteTransport set(int i, CarteTransport carte) {
+        verifierIndice(i, taille);
+        avantEcriture();
+        int p = position(i);
+        CarteTransport ancienne = carte(cartes[p]);
+        cartes[p] = code(carte);
+        version++;
+        if (journalise()) {
+            journal.noter(() -> set(i, ancienne), () -> set(i, carte));
+        }
+        return ancienne;
+    }
+
+    @Override
+    public int size() {
+        return taille;
+    }
+
+    @Override
+    public boolean add(CarteTransport carte) {
+        if (journalise()) {
+            int i = taille;
+            journal.noter(() -> remove(i), () -> add(i, carte));
+        }
+        avantEcriture();
+        agrandirSiPlein();
+        cartes[position(taille)] = code(carte);
+        taille++;
+        modCount++;
+        version++;
+        return true;
+    }
+
+    @Override
+    public void add(int i, CarteTransport carte) {
+        verifierIndice(i, taille + 1);
+        if (i == taille) {
+            add(carte);
+            return;
+        }
+        if (journalise()) {
+            journal.noter(() -> remove(i), () -> add(i, carte));
+        }
+        avantEcriture();
+        agrandirSiPlein();
+        if (i == 0) {
+            debut = debut == 0 ? cartes.length - 1 : debut - 1;
+            cartes[debut] = code(carte);
+        } else {
+            for (int j = taille; j > i; j--) {
+                cartes[position(j)] = cartes[position(j - 1)];
+            }
+            cartes[position(i)] = code(carte);
+        }
+        taille++;
+        modCount++;
+        version++;
+    }
+
+    @Override
+    public CarteTransport remove(int i) {
+        verifierIndice(i, taille);
+        CarteTransport carte = carte(cartes[position(i)]);
+        if (journalise()) {
+            journal.noter(() -> add(i, carte), () -> remove(i));
+        }
+        if (i == 0) {
+            debut = position(1);
+        } else {
+            avantEcriture();
+            for (int j = i; j < taille - 1; j++) {
+                cartes[position(j)] = cartes[position(j + 1)];
+            }
+        }
+        taille--;
+        modCount++;
+        version++;
+        return carte;
+    }
+
+    @Override
+    public void clear() {
+        if (journalise()) {
+            List<CarteTransport> anciennes = new ArrayList<>(this);
+            journal.noter(() -> addAll(anciennes), this::clear);
+        }
+        if (partagee) {
+            cartes = new short[cartes.length];
+            partagee = false;
+        }
+        debut = 0;
+        taille = 0;
+        horsCatalogue = null;
+        modCount++;
+        version++;
+    }
+
+    /**
+     * Retire et renvoie la carte du dessus, ou null si la pile est vide
+     */
+    CarteTransport retirerDessus() {
+        return taille == 0 ? null : remove(0);
+    }
+
+    /**
+     * Ajoute en dessous de cette pile toutes les cartes de l'autre pile, qui est vidée
+     */
+    void transfererDepuis(PileCartes autre) {
+        if (journalise()) {
+            // le transfert est noté d'un bloc
+            List<CarteTransport> transferees = new ArrayList<>(autre);
+            journal.noter(() -> {
+                for (int i = 0; i < transferees.size(); i++) {
+                    remove(taille - 1);
+                }
+                autre.addAll(transferees);
+            }, () -> transfererDepuis(autre));
+            journal.sansEnregistrer(() -> transfererDepuis(autre));
+            return;
+        }
+        avantEcriture();
+        for (int i = 0; i < autre.taille; i++) {
+            short code = autre.cartes[autre.position(i)];
+            if (code > 0) {
+                agrandirSiPlein();
+                cartes[position(taille)] = code;
+                taille++;
+            } else {
+                add(autre.carte(code));
+            }
+        }
+        modCount++;
+        version++;
+        autre.clear();
+    }
+
+    /**
+     * Mélange la pile sur place (algorithme de Fisher-Yates)
+     */
+    void melanger(RandomGenerator random) {
+        if (journalise()) {
+            List<CarteTransport> avant = new ArrayList<>(this);
+            journal.sansEnregistrer(() -> melanger(random));
+            List<CarteTransport> apres = new ArrayList<>(this);
+            journal.noter(() -> remplacer(avant), () -> remplacer(apres));
+            return;
+        }
+        avantEcriture();
+        version++;
+        for (int i = taille - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int pi = position(i);
+            int pj = position(j);
+            short c = cartes[pi];
+            cartes[pi] = cartes[pj];
+            cartes[pj] = c;
+        }
+    }
+}
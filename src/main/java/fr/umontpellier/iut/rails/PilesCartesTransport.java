@@ -1,33 +1,58 @@
 package fr.umontpellier.iut.rails;
 
+import com.google.gson.stream.JsonWriter;
 import fr.umontpellier.iut.rails.data.CarteTransport;
 
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
 
 public class PilesCartesTransport {
-    private final List<CarteTransport> pilePioche;
-    private final List<CarteTransport> pileDefausse;
+    private final PileCartes pilePioche;
+    private final PileCartes pileDefausse;
+    /**
+     * Générateur aléatoire utilisé pour mélanger la pioche (celui de la partie)
+     */
+    private final RandomGenerator aleatoire;
 
     public PilesCartesTransport(List<CarteTransport> cartes) {
-        pilePioche = cartes;
-        pileDefausse = new ArrayList<>();
+        this(cartes, new SplittableRandom());
+    }
+
+    /**
+     * @param aleatoire générateur aléatoire utilisé pour tous les mélanges de la pioche
+     */
+    public PilesCartesTransport(List<CarteTransport> cartes, RandomGenerator aleatoire) {
+        this.aleatoire = aleatoire;
+        pilePioche = new PileCartes(cartes);
+        pileDefausse = new PileCartes(cartes.size());
         // on mélange la pile de pioche
-        Collections.shuffle(pilePioche);
+        pilePioche.melanger(aleatoire);
     }
 
     public PilesCartesTransport(PilesCartesTransport pileACopier){
-        this.pilePioche = new ArrayList<>();
-        this.pileDefausse = new ArrayList<>();
+        this(pileACopier, pileACopier.aleatoire);
+    }
 
-        for (CarteTransport c: pileACopier.getPilePioche()) {
-            this.pilePioche.add(c);
-        }
-        for (CarteTransport c: pileACopier.getPileDefausse()) {
-            this.pileDefausse.add(c);
-        }
+    /**
+     * Construit une copie des piles qui utilise un autre générateur aléatoire (pour une copie de la
+     * partie)
+     */
+    PilesCartesTransport(PilesCartesTransport pileACopier, RandomGenerator aleatoire){
+        this.aleatoire = aleatoire;
+        this.pilePioche = new PileCartes(pileACopier.pilePioche);
+        this.pileDefausse = new PileCartes(pileACopier.pileDefausse);
+    }
+
+    /**
+     * Confie aux deux piles le journal de la partie (voir {@code Jeu.activerJournal()})
+     */
+    void setJournal(Journal journal) {
+        pilePioche.setJournal(journal);
+        pileDefausse.setJournal(journal);
     }
 
     public List<CarteTransport> getPilePioche() {
@@ -47,13 +72,9 @@ public class PilesCartesTransport {
         if (this.estVide()){
             return null;
         } else if (this.pilePioche.isEmpty()) {
-            for (CarteTransport c : pileDefausse) {
-                pilePioche.add(c);
-                pileDefausse.remove(c);
-            }
-            Collections.shuffle(pilePioche);
+            melange();
         }
-        return pilePioche.remove(0);
+        return pilePioche.retirerDessus();
     }
 
     public void defausser(CarteTransport carte) {
@@ -72,13 +93,8 @@ public class PilesCartesTransport {
      * @return la taille de la pioche
      * */
     public int melange(){
-        if (!pileDefausse.isEmpty()){
-            for (CarteTransport c: pileDefausse) {
-                pilePioche.add(c);
-                pileDefausse.remove(c);
-            }
-        }
-        Collections.shuffle(pilePioche);
+        pilePioche.transfererDepuis(pileDefausse);
+        pilePioche.melanger(aleatoire);
         return pilePioche.size();
     }
 
@@ -95,4 +111,39 @@ public class PilesCartesTransport {
                 Map.entry("pioche", pilePioche.size()),
                 Map.entry("defausse", pileDefausse));
     }
+
+    /**
+     * @return un nombre qui change à chaque modification de la défausse
+     */
+    int getVersionDefausse() {
+        return pileDefausse.getVersion();
+    }
+
+    /**
+     * Écrit l'état des piles (le même contenu que {@link #dataMap()})
+     */
+    void ecrireEtat(JsonWriter out) throws IOException {
+        ecrireEtat(out, true, true);
+    }
+
+    /**
+     * Écrit une partie de l'état des piles (pour n'envoyer aux clients que ce qui a changé)
+     *
+     * @param pioche   si vrai, la taille de la pioche est écrite
+     * @param defausse si vrai, les cartes de la défausse sont écrites
+     */
+    void ecrireEtat(JsonWriter out, boolean pioche, boolean defausse) throws IOException {
+        out.beginObject();
+        if (pioche) {
+            out.name("pioche").value(pilePioche.size());
+        }
+        if (defausse) {
+            out.name("defausse").beginArray();
+            for (CarteTransport c : pileDefausse) {
+                SerialiseurEtat.ecrire(out, c);
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
 }
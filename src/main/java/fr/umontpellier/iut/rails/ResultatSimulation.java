@@ -0,0 +1,43 @@
+package fr.umontpellier.iut.rails;
+
+import java.util.List;
+
+/**
+ * Résultat d'une partie simulée par le {@link MoteurSimulation}
+ *
+ * @param graine   graine de la partie (la rejouer avec la même graine et les mêmes stratégies donne
+ *                 le même résultat)
+ * @param scores   détail du score de chaque joueur, dans l'ordre des joueurs
+ * @param nbDestinations          nombre de destinations de chaque joueur à la fin de la partie
+ * @param nbDestinationsCompletes nombre de destinations réalisées par chaque joueur
+ * @param nbChoix  nombre de choix faits par les joueurs pendant la partie
+ * @param terminee false si la partie a été arrêtée avant sa fin (nombre maximum de choix atteint)
+ */
+public record ResultatSimulation(
+        long graine,
+        List<ScoreJoueur> scores,
+        List<Integer> nbDestinations,
+        List<Integer> nbDestinationsCompletes,
+        int nbChoix,
+        boolean terminee) {
+
+    public ResultatSimulation {
+        scores = List.copyOf(scores);
+        nbDestinations = List.copyOf(nbDestinations);
+        nbDestinationsCompletes = List.copyOf(nbDestinationsCompletes);
+    }
+
+    /**
+     * @return l'indice du joueur qui a le meilleur score (le premier en cas d'égalité, comme à la fin
+     * d'une partie)
+     */
+    public int indexGagnant() {
+        int gagnant = 0;
+        for (int i = 1; i < scores.size(); i++) {
+            if (scores.get(i).total() > scores.get(gagnant).total()) {
+                gagnant = i;
+            }
+        }
+        return gagnant;
+    }
+}
@@ -3,6 +3,11 @@ package fr.umontpellier.iut.rails;
 import fr.umontpellier.iut.rails.data.Couleur;
 import fr.umontpellier.iut.rails.data.Ville;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 public abstract class Route {
     public abstract boolean estMaritime();
     public abstract boolean estTerrestre();
@@ -32,21 +37,44 @@ public abstract class Route {
      * double
      */
     private Route routeParallele = null;
+    /**
+     * Toutes les routes parallèles à celle-ci (vide si la route n'est pas multiple)
+     */
+    private transient List<Route> routesParalleles = List.of();
+    /**
+     * Indique si les routes parallèles ont été définies (voir {@link #lierRoutesParalleles(List)})
+     */
+    private transient boolean reliee;
 
     /**
-     * Compteur du nombre de routes instanciées (utilisé pour donner automatiquement
-     * un id unique à chaque route)
+     * Nombre de routes du plateau (numérotées de R1 à R130)
+     */
+    public static final int NB_ROUTES_PLATEAU = 130;
+    /**
+     * Compteur des routes instanciées en dehors du plateau (utilisé pour leur donner automatiquement
+     * un id unique, après ceux des routes du plateau)
      * Vous ne devez pas toucher à cet attribut qui est utilisé pour les interfaces (console et web)
      */
     static private int compteur = 1;
 
 
     public Route(Ville ville1, Ville ville2, Couleur couleur, int longueur) {
+        this(NB_ROUTES_PLATEAU + prochainNumero(), ville1, ville2, couleur, longueur);
+    }
+
+    /**
+     * Construit la route numéro {@code numero} du plateau (le nom de la route est "R" suivi du numéro)
+     */
+    protected Route(int numero, Ville ville1, Ville ville2, Couleur couleur, int longueur) {
         this.ville1 = ville1;
         this.ville2 = ville2;
         this.couleur = couleur;
         this.longueur = longueur;
-        this.nom = "R" + compteur++;
+        this.nom = "R" + numero;
+    }
+
+    private static synchronized int prochainNumero() {
+        return compteur++;
     }
 
     public Ville getVille1() {
@@ -87,8 +115,60 @@ public abstract class Route {
         return routeParallele;
     }
 
-    public void setRouteParallele(Route route) {
-        this.routeParallele = route;
+    /**
+     * @return les routes reliant les mêmes villes que celle-ci (sans la route elle-même)
+     */
+    public List<Route> getRoutesParalleles() {
+        return routesParalleles;
+    }
+
+    /**
+     * Définit les routes parallèles à celle-ci. La route parallèle ({@link #getRouteParallele()}) est
+     * la première de la liste
+     */
+    private void setRoutesParalleles(List<Route> routes) {
+        this.routesParalleles = List.copyOf(routes);
+        this.routeParallele = routes.isEmpty() ? null : routes.get(0);
+    }
+
+    /**
+     * Relie entre elles les routes qui ont les mêmes extrémités (dans un sens ou dans l'autre), en un
+     * seul parcours de la liste. Chaque route d'un groupe a pour routes parallèles les autres routes du
+     * groupe, dans l'ordre de la liste, en commençant par celle qui la suit (les paires se référencent
+     * donc mutuellement).
+     *
+     * Les routes ne peuvent être reliées qu'une fois, à la construction du plateau : les routes du
+     * plateau sont ensuite partagées par toutes les parties et ne sont plus modifiées.
+     *
+     * @throws IllegalStateException si l'une des routes a déjà été reliée
+     */
+    public static void lierRoutesParalleles(List<Route> routes) {
+        for (Route r : routes) {
+            if (r.reliee) {
+                throw new IllegalStateException("Routes parallèles déjà définies : " + r.getNom());
+            }
+        }
+        Map<String, List<Route>> groupes = new HashMap<>();
+        for (Route r : routes) {
+            r.reliee = true;
+            String nom1 = r.getVille1().nom();
+            String nom2 = r.getVille2().nom();
+            String cle = nom1.compareTo(nom2) <= 0 ? nom1 + '\0' + nom2 : nom2 + '\0' + nom1;
+            groupes.computeIfAbsent(cle, k -> new ArrayList<>(2)).add(r);
+        }
+        for (List<Route> groupe : groupes.values()) {
+            int n = groupe.size();
+            if (n < 2) {
+                continue;
+            }
+            for (int i = 0; i < n; i++) {
+                List<Route> paralleles = new ArrayList<>(n - 1);
+                for (int j = 1; j < n; j++) {
+                    paralleles.add(groupe.get((i + j) % n));
+                }
+                groupe.get(i).setRoutesParalleles(paralleles);
+            }
+        }
     }
 
     public String toLog() {
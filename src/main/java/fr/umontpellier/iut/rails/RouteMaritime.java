@@ -7,6 +7,10 @@ public class RouteMaritime extends Route {
     public RouteMaritime(Ville ville1, Ville ville2, Couleur couleur, int longueur) {
         super(ville1, ville2, couleur, longueur);
     }
+
+    public RouteMaritime(int numero, Ville ville1, Ville ville2, Couleur couleur, int longueur) {
+        super(numero, ville1, ville2, couleur, longueur);
+    }
     public boolean estMaritime(){
         return true;
     }
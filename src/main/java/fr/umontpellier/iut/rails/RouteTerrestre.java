@@ -8,6 +8,10 @@ public class RouteTerrestre extends Route {
     public RouteTerrestre(Ville ville1, Ville ville2, Couleur couleur, int longueur) {
         super(ville1, ville2, couleur, longueur);
     }
+
+    public RouteTerrestre(int numero, Ville ville1, Ville ville2, Couleur couleur, int longueur) {
+        super(numero, ville1, ville2, couleur, longueur);
+    }
     public boolean estMaritime(){
         return false;
     }
@@ -0,0 +1,211 @@
+package fr.umontpellier.iut.rails;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * Routes capturées par un joueur.
+ *
+ * La liste tient à jour les groupes de villes reliées entre elles par les routes du joueur (structure
+ * union-find), de sorte que savoir si des villes sont reliées ne demande pas de parcourir les routes.
+ * Les villes sont identifiées par leur nom. Ajouter une route fusionne les groupes de ses deux villes ;
+ * retirer une route (ce qui n'arrive pas pendant une partie) fait recalculer tous les groupes.
+ *
+ * Comme {@link ListeVersionnee}, une copie partage les routes et les groupes avec l'original jusqu'à
+ * ce que l'une des deux listes soit modifiée, et les modifications sont notées dans le journal de la
+ * partie s'il y en a un (annuler la capture d'une route recalcule les groupes).
+ */
+class RoutesJoueur extends AbstractList<Route> implements RandomAccess {
+    private ArrayList<Route> routes;
+    /**
+     * Numéro attribué à chaque ville touchée par une route du joueur
+     */
+    private HashMap<String, Integer> numerosVilles;
+    /**
+     * Parent de chaque ville dans la structure union-find (une ville est la racine de son groupe si
+     * elle est son propre parent)
+     */
+    private int[] parents;
+    /**
+     * Nombre de modifications de la liste depuis sa création
+     */
+    private int version;
+    /**
+     * Indique si les routes et les groupes sont partagés avec une copie (ou avec l'original)
+     */
+    private boolean partagee;
+    /**
+     * Journal dans lequel noter les modifications de la liste, ou null (une copie n'a pas de journal)
+     */
+    private Journal journal;
+
+    RoutesJoueur() {
+        routes = new ArrayList<>();
+        numerosVilles = new HashMap<>();
+        parents = new int[16];
+    }
+
+    /**
+     * Construit une copie de la liste, qui garde sa version
+     */
+    RoutesJoueur(RoutesJoueur autre) {
+        routes = autre.routes;
+        numerosVilles = autre.numerosVilles;
+        parents = autre.parents;
+        version = autre.version;
+        partagee = true;
+        autre.partagee = true;
+    }
+
+    private void avantModification() {
+        if (partagee) {
+            routes = new ArrayList<>(routes);
+            numerosVilles = new HashMap<>(numerosVilles);
+            parents = parents.clone();
+            partagee = false;
+        }
+    }
+
+    /**
+     * Confie à la liste le journal dans lequel noter ses modifications (null pour ne plus les noter)
+     */
+    void setJournal(Journal journal) {
+        this.journal = journal;
+    }
+
+    private boolean journalise() {
+        return journal != null && journal.enregistre();
+    }
+
+    /**
+     * @return un nombre qui change à chaque modification de la liste
+     */
+    int getVersion() {
+        return version;
+    }
+
+    /**
+     * @return true si les villes dont les noms sont passés en argument sont toutes reliées entre elles
+     * par des routes du joueur
+     */
+    boolean relie(List<String> nomsVilles) {
+        Integer premiere = numerosVilles.get(nomsVilles.get(0));
+        if (premiere == null) {
+            return false;
+        }
+        int racine = racine(premiere);
+        for (int i = 1; i < nomsVilles.size(); i++) {
+            Integer v = numerosVilles.get(nomsVilles.get(i));
+            if (v == null || racine(v) != racine) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int numero(String nomVille) {
+        Integer numero = numerosVilles.get(nomVille);
+        if (numero == null) {
+            numero = numerosVilles.size();
+            numerosVilles.put(nomVille, numero);
+            if (numero == parents.length) {
+                parents = Arrays.copyOf(parents, 2 * parents.length);
+            }
+            parents[numero] = numero;
+        }
+        return numero;
+    }
+
+    private int racine(int v) {
+        while (parents[v] != v) {
+            // compression de chemin (chaque ville pointe vers son grand-parent), sauf si le tableau
+            // est partagé avec une copie qui peut être lue en même temps
+            if (!partagee) {
+                parents[v] = parents[parents[v]];
+            }
+            v = parents[v];
+        }
+        return v;
+    }
+
+    private void relier(Route route) {
+        int r1 = racine(numero(route.getVille1().nom()));
+        int r2 = racine(numero(route.getVille2().nom()));
+        if (r1 != r2) {
+            parents[r1] = r2;
+        }
+    }
+
+    private void recalculerGroupes() {
+        numerosVilles.clear();
+        for (Route r : routes) {
+            relier(r);
+        }
+    }
+
+    @Override
+    public Route get(int i) {
+        return routes.get(i);
+    }
+
+    @Override
+    public int size() {
+        return routes.size();
+    }
+
+    @Override
+    public void add(int i, Route route) {
+        if (journalise()) {
+            journal.noter(() -> remove(i), () -> add(i, route));
+        }
+        avantModification();
+        routes.add(i, route);
+        relier(route);
+        version++;
+        modCount++;
+    }
+
+    @Override
+    public Route set(int i, Route route) {
+        if (journalise()) {
+            Route ancienne = routes.get(i);
+            journal.noter(() -> set(i, ancienne), () -> set(i, route));
+        }
+        avantModification();
+        Route ancienne = routes.set(i, route);
+        recalculerGroupes();
+        version++;
+        return ancienne;
+    }
+
+    @Override
+    public Route remove(int i) {
+        avantModification();
+        Route route = routes.remove(i);
+        if (journalise()) {
+            journal.noter(() -> add(i, route), () -> remove(i));
+        }
+        recalculerGroupes();
+        version++;
+        modCount++;
+        return route;
+    }
+
+    @Override
+    public void clear() {
+        if (journalise()) {
+            List<Route> anciennes = new ArrayList<>(routes);
+            journal.noter(() -> addAll(anciennes), this::clear);
+        }
+        avantModification();
+        routes.clear();
+        numerosVilles.clear();
+        version++;
+        modCount++;
+    }
+}
@@ -0,0 +1,27 @@
+package fr.umontpellier.iut.rails;
+
+/**
+ * Détail du score d'un joueur à un instant de la partie (le score qu'il aurait si la partie
+ * s'arrêtait maintenant)
+ *
+ * @param pointsRoutes       points des routes capturées
+ * @param penalitesEchanges  points perdus lors des échanges de pions
+ * @param pointsDestinations points des destinations complètes, moins les pénalités des destinations
+ *                           incomplètes
+ * @param bonusPorts         points des ports construits dans des villes de destinations complètes
+ * @param malusPorts         points perdus pour les ports qui n'ont pas été construits
+ */
+public record ScoreJoueur(
+        int pointsRoutes,
+        int penalitesEchanges,
+        int pointsDestinations,
+        int bonusPorts,
+        int malusPorts) {
+
+    /**
+     * @return le score total
+     */
+    public int total() {
+        return pointsRoutes - penalitesEchanges + pointsDestinations + bonusPorts - malusPorts;
+    }
+}
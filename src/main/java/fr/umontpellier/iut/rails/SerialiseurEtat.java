@@ -0,0 +1,140 @@
+package fr.umontpellier.iut.rails;
+
+import com.google.gson.stream.JsonWriter;
+import fr.umontpellier.iut.rails.data.CarteTransport;
+import fr.umontpellier.iut.rails.data.Destination;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+
+/**
+ * Sérialisation de l'état du jeu envoyé aux clients (le même contenu que {@link Jeu#dataMap()}).
+ *
+ * L'état est écrit directement dans un tampon réutilisé, avec un {@link JsonWriter} lui aussi
+ * réutilisé et des fonctions d'écriture à la main pour les cartes, destinations et boutons, sans
+ * construire les dictionnaires intermédiaires de {@code dataMap()} ni passer par la réflexion. Une
+ * nouvelle chaîne n'est créée que si l'état a changé depuis la sérialisation précédente.
+ *
+ * Pour les clients qui ne reçoivent que les modifications de l'état, {@link #serialiserModifications(Jeu)}
+ * n'écrit que ce qui a changé depuis l'appel précédent. Ce qui a changé est repéré à la source, en
+ * comparant une empreinte du jeu (les valeurs simples, les versions des listes et le nombre de messages
+ * du log) à celle de l'appel précédent : le coût ne dépend pas de la taille de l'état, ni en
+ * particulier de la longueur du log.
+ *
+ * Une instance n'est pas thread-safe : chaque partie utilise la sienne.
+ */
+public class SerialiseurEtat {
+    /**
+     * Clé des éléments ajoutés à la fin d'un tableau dans les modifications (les nouveaux messages du log)
+     */
+    public static final String AJOUTS = "$ajouts";
+    /**
+     * Clé des éléments modifiés d'un tableau dans les modifications, indexés par leur position (les joueurs)
+     */
+    public static final String ELEMENTS = "$elements";
+    /**
+     * Tampon dans lequel l'état est écrit (réutilisé d'une sérialisation à l'autre)
+     */
+    private final StringWriter tampon = new StringWriter();
+    /**
+     * Écrivain JSON du tampon. Il est permissif pour accepter un nouveau document à chaque
+     * sérialisation (seuls des entiers, booléens et chaînes sont écrits, jamais de NaN).
+     */
+    private final JsonWriter ecrivain = new JsonWriter(tampon);
+    /**
+     * Dernier état produit, renvoyé tel quel tant qu'il ne change pas
+     */
+    private String dernierEtat = "";
+    /**
+     * Empreinte du jeu lors du dernier appel à {@link #serialiserModifications(Jeu)}, ou null
+     */
+    private Jeu.Empreinte derniereEmpreinte;
+
+    public SerialiseurEtat() {
+        ecrivain.setLenient(true);
+    }
+
+    /**
+     * @return l'état du jeu au format JSON (la même instance que lors de l'appel précédent si l'état
+     * n'a pas changé)
+     */
+    public String serialiser(Jeu jeu) {
+        StringBuffer contenu = tampon.getBuffer();
+        contenu.setLength(0);
+        try {
+            jeu.ecrireEtat(ecrivain);
+        } catch (IOException e) {
+            // impossible avec un StringWriter
+            throw new UncheckedIOException(e);
+        }
+        if (!dernierEtat.contentEquals(contenu)) {
+            dernierEtat = contenu.toString();
+        }
+        return dernierEtat;
+    }
+
+    /**
+     * Décrit les modifications de l'état du jeu depuis l'appel précédent (le premier appel renvoie
+     * l'état complet, qui est la modification d'un état vide) :
+     * <ul>
+     *     <li>seules les clés dont la valeur a changé sont présentes</li>
+     *     <li>les nouveaux messages du log sont décrits par {@code {"$ajouts": [...]}}</li>
+     *     <li>les joueurs modifiés sont décrits par {@code {"$elements": {"i": modifs}}}</li>
+     *     <li>toute autre valeur modifiée est remplacée par sa nouvelle valeur</li>
+     * </ul>
+     *
+     * @return les modifications au format JSON, ou null si l'état n'a pas changé
+     */
+    public String serialiserModifications(Jeu jeu) {
+        Jeu.Empreinte empreinte = jeu.empreinte();
+        if (empreinte.equals(derniereEmpreinte)) {
+            return null;
+        }
+        StringBuffer contenu = tampon.getBuffer();
+        contenu.setLength(0);
+        try {
+            if (derniereEmpreinte == null) {
+                jeu.ecrireEtat(ecrivain);
+            } else {
+                jeu.ecrireModifications(ecrivain, derniereEmpreinte, empreinte);
+            }
+        } catch (IOException e) {
+            // impossible avec un StringWriter
+            throw new UncheckedIOException(e);
+        }
+        derniereEmpreinte = empreinte;
+        return contenu.toString();
+    }
+
+    static void ecrire(JsonWriter out, CarteTransport carte) throws IOException {
+        out.beginObject();
+        out.name("type").value(carte.getType().name());
+        out.name("couleur").value(carte.getCouleur().name());
+        out.name("estDouble").value(carte.estDouble());
+        out.name("ancre").value(carte.getAncre());
+        out.name("nom").value(carte.getNom());
+        out.endObject();
+    }
+
+    static void ecrire(JsonWriter out, Destination destination) throws IOException {
+        out.beginObject();
+        out.name("villes").beginArray();
+        for (String ville : destination.getVilles()) {
+            out.value(ville);
+        }
+        out.endArray();
+        out.name("valeurSimple").value(destination.getValeurSimple());
+        out.name("valeurMax").value(destination.getValeurMax());
+        out.name("penalite").value(destination.getPenalite());
+        out.name("nom").value(destination.getNom());
+        out.endObject();
+    }
+
+    static void ecrire(JsonWriter out, Bouton bouton) throws IOException {
+        out.beginObject();
+        out.name("label").value(bouton.label());
+        out.name("valeur").value(bouton.valeur());
+        out.endObject();
+    }
+}
@@ -0,0 +1,133 @@
+package fr.umontpellier.iut.rails;
+
+/**
+ * Statistiques cumulées des parties d'un {@link Tournoi}, par place autour de la table (le joueur
+ * d'indice i est toujours piloté par la i-ème stratégie du tournoi).
+ *
+ * Les statistiques sont accumulées partie par partie ({@link #ajouter(ResultatSimulation)}) et deux
+ * statistiques partielles peuvent être fusionnées ({@link #fusionner(StatistiquesTournoi)}), ce qui
+ * permet de les calculer en parallèle. Une instance n'est pas elle-même partagée entre plusieurs
+ * fils d'exécution.
+ */
+public class StatistiquesTournoi {
+    private int nbParties;
+    private int nbPartiesTerminees;
+    private final int[] nbVictoires;
+    private final long[] sommeScores;
+    private final long[] nbDestinations;
+    private final long[] nbDestinationsCompletes;
+    private long sommeChoix;
+    private int nbChoixMin = Integer.MAX_VALUE;
+    private int nbChoixMax;
+
+    StatistiquesTournoi(int nbJoueurs) {
+        nbVictoires = new int[nbJoueurs];
+        sommeScores = new long[nbJoueurs];
+        nbDestinations = new long[nbJoueurs];
+        nbDestinationsCompletes = new long[nbJoueurs];
+    }
+
+    /**
+     * Ajoute le résultat d'une partie aux statistiques (seules les parties terminées comptent pour les
+     * victoires)
+     */
+    void ajouter(ResultatSimulation resultat) {
+        nbParties++;
+        if (resultat.terminee()) {
+            nbPartiesTerminees++;
+            nbVictoires[resultat.indexGagnant()]++;
+        }
+        for (int i = 0; i < nbVictoires.length; i++) {
+            sommeScores[i] += resultat.scores().get(i).total();
+            nbDestinations[i] += resultat.nbDestinations().get(i);
+            nbDestinationsCompletes[i] += resultat.nbDestinationsCompletes().get(i);
+        }
+        sommeChoix += resultat.nbChoix();
+        nbChoixMin = Math.min(nbChoixMin, resultat.nbChoix());
+        nbChoixMax = Math.max(nbChoixMax, resultat.nbChoix());
+    }
+
+    /**
+     * Ajoute aux statistiques celles d'un autre ensemble de parties
+     */
+    void fusionner(StatistiquesTournoi autres) {
+        nbParties += autres.nbParties;
+        nbPartiesTerminees += autres.nbPartiesTerminees;
+        for (int i = 0; i < nbVictoires.length; i++) {
+            nbVictoires[i] += autres.nbVictoires[i];
+            sommeScores[i] += autres.sommeScores[i];
+            nbDestinations[i] += autres.nbDestinations[i];
+            nbDestinationsCompletes[i] += autres.nbDestinationsCompletes[i];
+        }
+        sommeChoix += autres.sommeChoix;
+        nbChoixMin = Math.min(nbChoixMin, autres.nbChoixMin);
+        nbChoixMax = Math.max(nbChoixMax, autres.nbChoixMax);
+    }
+
+    public int getNbJoueurs() {
+        return nbVictoires.length;
+    }
+
+    public int getNbParties() {
+        return nbParties;
+    }
+
+    /**
+     * @return le nombre de parties arrivées à leur fin (les autres ont atteint le nombre maximum de
+     * choix)
+     */
+    public int getNbPartiesTerminees() {
+        return nbPartiesTerminees;
+    }
+
+    public int getNbVictoires(int joueur) {
+        return nbVictoires[joueur];
+    }
+
+    /**
+     * @return la proportion des parties terminées gagnées par le joueur
+     */
+    public double tauxVictoire(int joueur) {
+        return nbPartiesTerminees == 0 ? 0 : (double) nbVictoires[joueur] / nbPartiesTerminees;
+    }
+
+    /**
+     * @return le score final moyen du joueur (voir {@link Joueur#calculerScoreFinal()})
+     */
+    public double scoreMoyen(int joueur) {
+        return nbParties == 0 ? 0 : (double) sommeScores[joueur] / nbParties;
+    }
+
+    /**
+     * @return la proportion des destinations du joueur qu'il a réalisées
+     */
+    public double tauxDestinationsCompletes(int joueur) {
+        return nbDestinations[joueur] == 0 ? 0 : (double) nbDestinationsCompletes[joueur] / nbDestinations[joueur];
+    }
+
+    /**
+     * @return le nombre moyen de choix faits par les joueurs pendant une partie
+     */
+    public double longueurMoyenne() {
+        return nbParties == 0 ? 0 : (double) sommeChoix / nbParties;
+    }
+
+    public int getLongueurMin() {
+        return nbParties == 0 ? 0 : nbChoixMin;
+    }
+
+    public int getLongueurMax() {
+        return nbChoixMax;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(String.format("%d parties (%d terminées), %.1f choix en moyenne [%d, %d]",
+                nbParties, nbPartiesTerminees, longueurMoyenne(), getLongueurMin(), getLongueurMax()));
+        for (int i = 0; i < nbVictoires.length; i++) {
+            sb.append(String.format("%nJoueur %d : %.1f %% de victoires, %.1f points, %.1f %% de destinations réalisées",
+                    i + 1, 100 * tauxVictoire(i), scoreMoyen(i), 100 * tauxDestinationsCompletes(i)));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,14 @@
+package fr.umontpellier.iut.rails;
+
+/**
+ * Manière de jouer d'un joueur simulé : à chaque choix attendu par la partie, la stratégie donne la
+ * réponse du joueur (voir {@link MoteurSimulation})
+ */
+public interface Strategie {
+    /**
+     * @param jeu    la partie en cours (la stratégie ne doit pas la modifier)
+     * @param invite le choix attendu du joueur
+     * @return une réponse acceptée par l'invite ({@link Invite#accepte(String)})
+     */
+    String choisir(Jeu jeu, Invite invite);
+}
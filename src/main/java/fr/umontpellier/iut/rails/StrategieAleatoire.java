@@ -0,0 +1,28 @@
+package fr.umontpellier.iut.rails;
+
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Stratégie qui choisit au hasard parmi les réponses proposées. Le joueur ne passe que lorsqu'aucune
+ * réponse n'est proposée, pour que la partie avance.
+ */
+public class StrategieAleatoire implements Strategie {
+    private final RandomGenerator aleatoire;
+
+    public StrategieAleatoire(RandomGenerator aleatoire) {
+        this.aleatoire = aleatoire;
+    }
+
+    @Override
+    public String choisir(Jeu jeu, Invite invite) {
+        List<String> choix = invite.choix();
+        List<Bouton> boutons = invite.boutons();
+        int nbReponses = choix.size() + boutons.size();
+        if (nbReponses == 0) {
+            return "";
+        }
+        int i = aleatoire.nextInt(nbReponses);
+        return i < choix.size() ? choix.get(i) : boutons.get(i - choix.size()).valeur();
+    }
+}
@@ -0,0 +1,65 @@
+package fr.umontpellier.iut.rails;
+
+import fr.umontpellier.iut.rails.data.CarteTransport;
+import fr.umontpellier.iut.rails.data.Destination;
+import fr.umontpellier.iut.rails.data.TypeCarteTransport;
+
+import java.util.List;
+
+/**
+ * Stratégie qui choisit directement parmi les objets du jeu (actions, cartes, destinations...), sans
+ * manipuler les réponses sous forme de chaînes de caractères. Chaque méthode reçoit des options
+ * valides et doit renvoyer l'une d'entre elles.
+ */
+public interface StrategieTypee extends Strategie {
+    /**
+     * @return l'action à faire parmi celles proposées (la liste contient {@link Action#PASSER} si le
+     * joueur peut passer)
+     */
+    Action choisirAction(Jeu jeu, Joueur joueur, List<Action> actions);
+
+    /**
+     * @return la prochaine carte à défausser pour payer la route ou le port choisi
+     */
+    CarteTransport choisirCarte(Jeu jeu, Joueur joueur, List<CarteTransport> cartes);
+
+    /**
+     * @param destinations les destinations piochées qui n'ont pas encore été défaussées
+     * @return la destination à défausser, ou null pour garder toutes les destinations restantes
+     */
+    Destination choisirDestinationADefausser(Jeu jeu, Joueur joueur, List<Destination> destinations);
+
+    /**
+     * @return le nombre de pions wagon à prendre en début de partie
+     */
+    int choisirNombrePionsWagon(Jeu jeu, Joueur joueur, List<Integer> nombres);
+
+    /**
+     * @return le nombre de pions à échanger
+     */
+    int choisirNombrePionsAEchanger(Jeu jeu, Joueur joueur, List<Integer> nombres);
+
+    /**
+     * @return la pile dans laquelle piocher une carte à retourner parmi les cartes visibles
+     */
+    TypeCarteTransport choisirPile(Jeu jeu, Joueur joueur, List<TypeCarteTransport> piles);
+
+    @Override
+    default String choisir(Jeu jeu, Invite invite) {
+        if (invite.nature() == null) {
+            throw new IllegalStateException("Choix non typé : " + invite.instruction());
+        }
+        Joueur joueur = invite.joueur();
+        return switch (invite.nature()) {
+            case ACTION -> choisirAction(jeu, joueur, invite.options(Action.class)).valeur();
+            case CARTE -> choisirCarte(jeu, joueur, invite.options(CarteTransport.class)).getNom();
+            case DESTINATION -> {
+                Destination d = choisirDestinationADefausser(jeu, joueur, invite.options(Destination.class));
+                yield d == null ? "" : d.getNom();
+            }
+            case PIONS_WAGON -> Integer.toString(choisirNombrePionsWagon(jeu, joueur, invite.options(Integer.class)));
+            case ECHANGE_PIONS -> Integer.toString(choisirNombrePionsAEchanger(jeu, joueur, invite.options(Integer.class)));
+            case PILE -> choisirPile(jeu, joueur, invite.options(TypeCarteTransport.class)).name();
+        };
+    }
+}
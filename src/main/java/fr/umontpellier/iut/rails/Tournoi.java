@@ -0,0 +1,89 @@
+package fr.umontpellier.iut.rails;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.LongFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Tournoi de parties simulées entre plusieurs stratégies, jouées en parallèle sur tous les cœurs
+ * disponibles.
+ *
+ * Chaque partie est un {@link Jeu} indépendant, joué par un {@link MoteurSimulation} avec de nouvelles
+ * stratégies : les stratégies sont construites pour chaque partie à partir d'une graine, si bien
+ * qu'aucune stratégie n'est partagée entre deux parties jouées en même temps. Les graines des parties
+ * sont tirées avant de lancer les parties, et les statistiques sont des sommes, donc un tournoi joué
+ * avec la même graine donne les mêmes statistiques quel que soit le nombre de cœurs.
+ */
+public class Tournoi {
+    private final List<LongFunction<? extends Strategie>> fabriques;
+    private final int nbChoixMax;
+
+    /**
+     * @param fabriques pour chaque joueur, dans l'ordre des joueurs, la fonction qui construit sa
+     *                  stratégie à partir d'une graine
+     */
+    public Tournoi(List<? extends LongFunction<? extends Strategie>> fabriques) {
+        this(fabriques, MoteurSimulation.NB_CHOIX_MAX);
+    }
+
+    /**
+     * @param fabriques  pour chaque joueur, dans l'ordre des joueurs, la fonction qui construit sa
+     *                   stratégie à partir d'une graine
+     * @param nbChoixMax nombre de choix au-delà duquel une partie est arrêtée
+     */
+    public Tournoi(List<? extends LongFunction<? extends Strategie>> fabriques, int nbChoixMax) {
+        if (fabriques.size() < 2 || fabriques.size() > 5) {
+            throw new IllegalArgumentException("Une partie se joue de 2 à 5 joueurs");
+        }
+        this.fabriques = List.copyOf(fabriques);
+        this.nbChoixMax = nbChoixMax;
+    }
+
+    /**
+     * Joue les parties du tournoi dans le pool commun
+     *
+     * @param nbParties nombre de parties à jouer
+     * @param graine    graine dont sont tirées les graines des parties
+     */
+    public StatistiquesTournoi jouer(int nbParties, long graine) {
+        return jouer(nbParties, graine, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Joue les parties du tournoi dans le pool donné
+     *
+     * @param nbParties nombre de parties à jouer
+     * @param graine    graine dont sont tirées les graines des parties
+     * @param pool      pool dans lequel jouer les parties
+     * @throws IllegalStateException si une stratégie donne une réponse qui n'est pas acceptée
+     */
+    public StatistiquesTournoi jouer(int nbParties, long graine, ForkJoinPool pool) {
+        SplittableRandom aleatoire = new SplittableRandom(graine);
+        long[] graines = new long[nbParties];
+        for (int i = 0; i < nbParties; i++) {
+            graines[i] = aleatoire.nextLong();
+        }
+        return pool.submit(() -> IntStream.range(0, nbParties)
+                .parallel()
+                .mapToObj(i -> jouerPartie(graines[i]))
+                .collect(() -> new StatistiquesTournoi(fabriques.size()),
+                        StatistiquesTournoi::ajouter,
+                        StatistiquesTournoi::fusionner))
+                .join();
+    }
+
+    /**
+     * Joue une partie du tournoi avec de nouvelles stratégies
+     */
+    ResultatSimulation jouerPartie(long graine) {
+        SplittableRandom aleatoire = new SplittableRandom(graine);
+        List<Strategie> strategies = new ArrayList<>(fabriques.size());
+        for (LongFunction<? extends Strategie> fabrique : fabriques) {
+            strategies.add(fabrique.apply(aleatoire.nextLong()));
+        }
+        return new MoteurSimulation(strategies, nbChoixMax).jouer(graine);
+    }
+}
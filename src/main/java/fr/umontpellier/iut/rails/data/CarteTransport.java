@@ -1,27 +1,124 @@
 package fr.umontpellier.iut.rails.data;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 
 public final class CarteTransport implements Comparable<CarteTransport> {
 
     /**
-     * Compteur du nombre de routes instanciées (utilisé pour donner automatiquement
-     * un id unique à chaque route)
+     * Nombre de cartes transport du jeu (numérotées de C1 à C140)
+     */
+    public static final int NB_CARTES = 140;
+    /**
+     * Compteur des cartes instanciées en dehors du jeu de cartes : une telle carte reçoit le numéro
+     * NB_CARTES + compteur (son nom est "C" suivi de ce numéro), qui ne peut pas être celui d'une carte
+     * du jeu
      */
-
     private static int compteur = 1;
+    /**
+     * Cartes wagon et cartes bateau du jeu, partagées par toutes les parties (les cartes ne sont
+     * jamais modifiées)
+     */
+    private static final List<CarteTransport> CARTES_WAGON = new ArrayList<>();
+    private static final List<CarteTransport> CARTES_BATEAU = new ArrayList<>();
+    /**
+     * Cartes du jeu rangées par numéro (la case 0 n'est pas utilisée)
+     */
+    private static final CarteTransport[] CATALOGUE = new CarteTransport[NB_CARTES + 1];
     private final TypeCarteTransport type;
     private final Couleur couleur;
     private final boolean estDouble;
     private final boolean ancre;
     private final String nom;
+    /**
+     * Numéro de la carte (déjà présent dans le nom, donc pas envoyé à l'interface)
+     */
+    private final transient int numero;
+
+    static {
+        int numero = 1;
+        for (Couleur c : Couleur.values()) {
+            if (c == Couleur.GRIS) {
+                continue;
+            }
+            for (int i = 0; i < 4; i++) {
+                // Cartes wagon simples avec une ancre
+                CARTES_WAGON.add(new CarteTransport(numero++, TypeCarteTransport.WAGON, c, false, true));
+            }
+            for (int i = 0; i < 7; i++) {
+                // Cartes wagon simples sans ancre
+                CARTES_WAGON.add(new CarteTransport(numero++, TypeCarteTransport.WAGON, c, false, false));
+            }
+            for (int i = 0; i < 4; i++) {
+                // Cartes bateau simples (toutes avec une ancre)
+                CARTES_BATEAU.add(new CarteTransport(numero++, TypeCarteTransport.BATEAU, c, false, true));
+            }
+            for (int i = 0; i < 6; i++) {
+                // Cartes bateau doubles (toutes sans ancre)
+                CARTES_BATEAU.add(new CarteTransport(numero++, TypeCarteTransport.BATEAU, c, true, false));
+            }
+        }
+        for (int i = 0; i < 14; i++) {
+            // Cartes wagon joker
+            CARTES_WAGON.add(new CarteTransport(numero++, TypeCarteTransport.JOKER, Couleur.GRIS, false, true));
+        }
+        for (CarteTransport c : CARTES_WAGON) {
+            CATALOGUE[c.numero] = c;
+        }
+        for (CarteTransport c : CARTES_BATEAU) {
+            CATALOGUE[c.numero] = c;
+        }
+    }
 
     public CarteTransport(TypeCarteTransport type, Couleur couleur, boolean estDouble, boolean ancre) {
+        this(NB_CARTES + prochainNumero(), type, couleur, estDouble, ancre);
+    }
+
+    /**
+     * Construit la carte numéro {@code numero} du jeu (son nom est "C" suivi du numéro)
+     */
+    private CarteTransport(int numero, TypeCarteTransport type, Couleur couleur, boolean estDouble, boolean ancre) {
         this.type = type;
         this.couleur = couleur;
         this.estDouble = estDouble;
         this.ancre = ancre;
-        this.nom = "C" + compteur++;
+        this.nom = "C" + numero;
+        this.numero = numero;
+    }
+
+    private static synchronized int prochainNumero() {
+        return compteur++;
+    }
+
+    /**
+     * @return une nouvelle liste contenant les cartes wagon du jeu (y compris les jokers)
+     */
+    public static ArrayList<CarteTransport> makeCartesWagon() {
+        return new ArrayList<>(CARTES_WAGON);
+    }
+
+    /**
+     * @return une nouvelle liste contenant les cartes bateau du jeu
+     */
+    public static ArrayList<CarteTransport> makeCartesBateau() {
+        return new ArrayList<>(CARTES_BATEAU);
+    }
+
+    /**
+     * @return la carte du jeu portant le numéro donné, ou null si ce n'est pas le numéro d'une carte
+     * du jeu
+     */
+    public static CarteTransport getCarte(int numero) {
+        return numero > 0 && numero <= NB_CARTES ? CATALOGUE[numero] : null;
+    }
+
+    /**
+     * @return true si la carte fait partie du jeu de cartes (et peut donc être retrouvée par son
+     * numéro avec {@link #getCarte(int)})
+     */
+    public boolean estDuCatalogue() {
+        return numero <= NB_CARTES && CATALOGUE[numero] == this;
     }
 
     public TypeCarteTransport getType() {
@@ -44,6 +141,10 @@ public final class CarteTransport implements Comparable<CarteTransport> {
         return nom;
     }
 
+    public int getNumero() {
+        return numero;
+    }
+
     @Override
     public String toString() {
         String label;
@@ -111,6 +212,7 @@ public final class CarteTransport implements Comparable<CarteTransport> {
 
     @Override
     public int hashCode() {
-        return Objects.hash(type, couleur, estDouble, ancre, nom);
+        // deux cartes égales ont le même nom, donc le même numéro
+        return numero;
     }
 }
@@ -1,6 +1,7 @@
 package fr.umontpellier.iut.rails.data;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.StringJoiner;
 
@@ -10,6 +11,13 @@ public class Destination {
      */
     private final List<String> villes;
 
+    /**
+     * @return la liste (non modifiable) des noms des villes à relier
+     */
+    public List<String> getVilles() {
+        return Collections.unmodifiableList(villes);
+    }
+
     public int getValeurSimple() {
         return valeurSimple;
     }
@@ -46,23 +54,46 @@ public class Destination {
      */
     private final String nom;
     /**
-     * Compteur du nombre de destinations instanciées (utilisé pour donner
-     * automatiquement un id unique à chaque destination)
+     * Nombre de destinations du jeu (numérotées de D1 à D65)
+     */
+    public static final int NB_DESTINATIONS = 65;
+    /**
+     * Compteur des destinations instanciées en dehors du jeu (utilisé pour leur donner
+     * automatiquement un id unique, après ceux des destinations du jeu)
      * Vous ne devez pas toucher à cet attribut qui est utilisé pour les interfaces
      * (console et web)
      */
     private static int compteur = 1;
+    /**
+     * Destinations du jeu, partagées par toutes les parties
+     */
+    private static final List<Destination> DESTINATIONS_MONDE = creerDestinationsMonde();
 
     public Destination(List<String> villes, int valeurSimple, int valeurMax, int penalite) {
+        this(NB_DESTINATIONS + prochainNumero(), villes, valeurSimple, valeurMax, penalite);
+    }
+
+    public Destination(String ville1, String ville2, int valeur) {
+        this(new ArrayList<>(List.of(ville1, ville2)), valeur, valeur, valeur);
+    }
+
+    /**
+     * Construit la destination numéro {@code numero} du jeu (son nom est "D" suivi du numéro)
+     */
+    private Destination(int numero, List<String> villes, int valeurSimple, int valeurMax, int penalite) {
         this.villes = villes;
         this.valeurSimple = valeurSimple;
         this.valeurMax = valeurMax;
         this.penalite = penalite;
-        this.nom = "D" + compteur++;
+        this.nom = "D" + numero;
     }
 
-    public Destination(String ville1, String ville2, int valeur) {
-        this(new ArrayList<>(List.of(ville1, ville2)), valeur, valeur, valeur);
+    private Destination(int numero, String ville1, String ville2, int valeur) {
+        this(numero, List.of(ville1, ville2), valeur, valeur, valeur);
+    }
+
+    private static synchronized int prochainNumero() {
+        return compteur++;
     }
 
 
@@ -79,76 +110,81 @@ public class Destination {
     }
 
     /**
-     * @return une liste contenant toutes les destinations du jeu
+     * @return une nouvelle liste contenant toutes les destinations du jeu (les destinations sont
+     * partagées par toutes les parties)
      */
     public static ArrayList<Destination> makeDestinationsMonde() {
+        return new ArrayList<>(DESTINATIONS_MONDE);
+    }
+
+    private static List<Destination> creerDestinationsMonde() {
         ArrayList<Destination> destinations = new ArrayList<>();
-        destinations.add(new Destination("Mumbai", "Beijing", 6)); // D1
-        destinations.add(new Destination("Bangkok", "Tokyo", 6)); // D2
-        destinations.add(new Destination("Lima", "Jakarta", 14)); // D3
-        destinations.add(new Destination("Moskva", "Hong Kong", 13)); // D4
-        destinations.add(new Destination("Marseille", "Beijing", 14)); // D5
-        destinations.add(new Destination("Buenos Aires", "Sydney", 13)); // D6
-        destinations.add(new Destination("Buenos Aires", "Marseille", 18)); // D7
-        destinations.add(new Destination("Vancouver", "Miami", 9)); // D8
-        destinations.add(new Destination("Djibouti", "Lahore", 7)); // D9
-        destinations.add(new Destination("Mexico", "Mumbai", 15)); // D10
-        destinations.add(new Destination("Mexico", "New York", 11)); // D11
-        destinations.add(new Destination("Rio de Janeiro", "Hamburg", 18)); // D12
-        destinations.add(new Destination("New York", "Cape Town", 19)); // D13
-        destinations.add(new Destination("Edinburgh", "Sydney", 25)); // D14
-        destinations.add(new Destination("Edinburgh", "Tokyo", 22)); // D15
-        destinations.add(new Destination("Winnipeg", "Perth", 14)); // D16
-        destinations.add(new Destination("Jakarta", "Sydney", 7)); // D17
-        destinations.add(new Destination("Caracas", "Al-Qahira", 13)); // D18
-        destinations.add(new Destination("Hong Kong", "Jakarta", 5)); // D19
-        destinations.add(new Destination("Casablanca", "Vakutsk", 16)); // D20
-        destinations.add(new Destination("Athina", "Manila", 14)); // D21
-        destinations.add(new Destination("Cape Town", "Jakarta", 13)); // D22
-        destinations.add(new Destination("Marseille", "Al-Qahira", 5)); // D23
-        destinations.add(new Destination("Moskva", "Petropavlovsk", 15)); // D24
-        destinations.add(new Destination("Hamburg", "Beijing", 13)); // D25
-        destinations.add(new Destination("Moskva", "Toamasina", 11)); // D26
-        destinations.add(new Destination("Lagos", "Tehran", 10)); // D27
-        destinations.add(new Destination("Reykjavik", "Mumbai", 13)); // D28
-        destinations.add(new Destination("Hamburg", "Dar Es Salaam", 8)); // D29
-        destinations.add(new Destination("Caracas", "Athina", 12)); // D30
-        destinations.add(new Destination("Tokyo", "Sydney", 11)); // D31
-        destinations.add(new Destination("Al-Qahira", "Sydney", 19)); // D32
-        destinations.add(new Destination("Los Angeles", "Jakarta", 11)); // D33
-        destinations.add(new Destination("Marseille", "Jakarta", 18)); // D34
-        destinations.add(new Destination("Miami", "Buenos Aires", 9)); // D35
-        destinations.add(new Destination("Rio de Janeiro", "Perth", 17)); // D36
-        destinations.add(new Destination("Valparaiso", "Rio de Janeiro", 6)); // D37
-        destinations.add(new Destination("Los Angeles", "Hamburg", 14)); // D38
-        destinations.add(new Destination("Edinburgh", "Hong Kong", 17)); // D39
-        destinations.add(new Destination("New York", "Marseille", 10)); // D40
-        destinations.add(new Destination("Rio de Janeiro", "Tokyo", 20)); // D41
-        destinations.add(new Destination("New York", "Sydney", 17)); // D42
-        destinations.add(new Destination("Los Angeles", "Rio de Janeiro", 15)); // D43
-        destinations.add(new Destination("Casablanca", "Honolulu", 16)); // D44
-        destinations.add(new Destination("Miami", "Moskva", 13)); // D45
-        destinations.add(new Destination("Buenos Aires", "Manila", 17)); // D46
-        destinations.add(new Destination("Los Angeles", "Dar Es Salaam", 17)); // D47
-        destinations.add(new Destination("Dar Es Salaam", "Tokyo", 15)); // D48
-        destinations.add(new Destination("New York", "Tokyo", 15)); // D49
-        destinations.add(new Destination("New York", "Mumbai", 19)); // D50
-        destinations.add(new Destination("Novosibirsk", "Darwin", 13)); // D51
-        destinations.add(new Destination("Rio de Janeiro", "Dar Es Salaam", 11)); // D52
-        destinations.add(new Destination("Mexico", "Beijing", 13)); // D53
-        destinations.add(new Destination("Edinburgh", "Luanda", 10)); // D54
-        destinations.add(new Destination("Marseille", "Christchurch", 23)); // D55
-        destinations.add(new Destination("Vancouver", "Edinburgh", 13)); // D56
-        destinations.add(new Destination("Lagos", "Hong Kong", 14)); // D57
-        destinations.add(new Destination(List.of("Manila", "Honolulu", "Port Moresby", "Darwin"), 9, 13, 19)); // D58
-        destinations.add(new Destination(List.of("Anchorage", "Cambridge Bay", "Reykjavik", "Murmansk", "Tiksi"), 23, 34, 40)); // D59
-        destinations.add(new Destination(List.of("Anchorage", "Vancouver", "Winnipeg", "Cambridge Bay"), 12, 18, 24)); // D60
-        destinations.add(new Destination(List.of("Casablanca", "Al-Qahira", "Tehran"), 6, 9, 15)); // D61
-        destinations.add(new Destination(List.of("Mexico", "Caracas", "Lima", "Valparaiso"), 10, 15, 21)); // D62
-        destinations.add(new Destination(List.of("Lagos", "Luanda", "Dar Es Salaam", "Djibouti"), 6, 9, 15)); // D63
-        destinations.add(new Destination(List.of("Tehran", "Lahore", "Mumbai", "Bangkok"), 9, 13, 19)); // D64
-        destinations.add(new Destination(List.of("Murmansk", "Tiksi", "Novosibirsk", "Yakutsk", "Petropavlovsk"), 20, 30, 36)); // D65
-        return destinations;
+        destinations.add(new Destination(1, "Mumbai", "Beijing", 6)); // D1
+        destinations.add(new Destination(2, "Bangkok", "Tokyo", 6)); // D2
+        destinations.add(new Destination(3, "Lima", "Jakarta", 14)); // D3
+        destinations.add(new Destination(4, "Moskva", "Hong Kong", 13)); // D4
+        destinations.add(new Destination(5, "Marseille", "Beijing", 14)); // D5
+        destinations.add(new Destination(6, "Buenos Aires", "Sydney", 13)); // D6
+        destinations.add(new Destination(7, "Buenos Aires", "Marseille", 18)); // D7
+        destinations.add(new Destination(8, "Vancouver", "Miami", 9)); // D8
+        destinations.add(new Destination(9, "Djibouti", "Lahore", 7)); // D9
+        destinations.add(new Destination(10, "Mexico", "Mumbai", 15)); // D10
+        destinations.add(new Destination(11, "Mexico", "New York", 11)); // D11
+        destinations.add(new Destination(12, "Rio de Janeiro", "Hamburg", 18)); // D12
+        destinations.add(new Destination(13, "New York", "Cape Town", 19)); // D13
+        destinations.add(new Destination(14, "Edinburgh", "Sydney", 25)); // D14
+        destinations.add(new Destination(15, "Edinburgh", "Tokyo", 22)); // D15
+        destinations.add(new Destination(16, "Winnipeg", "Perth", 14)); // D16
+        destinations.add(new Destination(17, "Jakarta", "Sydney", 7)); // D17
+        destinations.add(new Destination(18, "Caracas", "Al-Qahira", 13)); // D18
+        destinations.add(new Destination(19, "Hong Kong", "Jakarta", 5)); // D19
+        destinations.add(new Destination(20, "Casablanca", "Vakutsk", 16)); // D20
+        destinations.add(new Destination(21, "Athina", "Manila", 14)); // D21
+        destinations.add(new Destination(22, "Cape Town", "Jakarta", 13)); // D22
+        destinations.add(new Destination(23, "Marseille", "Al-Qahira", 5)); // D23
+        destinations.add(new Destination(24, "Moskva", "Petropavlovsk", 15)); // D24
+        destinations.add(new Destination(25, "Hamburg", "Beijing", 13)); // D25
+        destinations.add(new Destination(26, "Moskva", "Toamasina", 11)); // D26
+        destinations.add(new Destination(27, "Lagos", "Tehran", 10)); // D27
+        destinations.add(new Destination(28, "Reykjavik", "Mumbai", 13)); // D28
+        destinations.add(new Destination(29, "Hamburg", "Dar Es Salaam", 8)); // D29
+        destinations.add(new Destination(30, "Caracas", "Athina", 12)); // D30
+        destinations.add(new Destination(31, "Tokyo", "Sydney", 11)); // D31
+        destinations.add(new Destination(32, "Al-Qahira", "Sydney", 19)); // D32
+        destinations.add(new Destination(33, "Los Angeles", "Jakarta", 11)); // D33
+        destinations.add(new Destination(34, "Marseille", "Jakarta", 18)); // D34
+        destinations.add(new Destination(35, "Miami", "Buenos Aires", 9)); // D35
+        destinations.add(new Destination(36, "Rio de Janeiro", "Perth", 17)); // D36
+        destinations.add(new Destination(37, "Valparaiso", "Rio de Janeiro", 6)); // D37
+        destinations.add(new Destination(38, "Los Angeles", "Hamburg", 14)); // D38
+        destinations.add(new Destination(39, "Edinburgh", "Hong Kong", 17)); // D39
+        destinations.add(new Destination(40, "New York", "Marseille", 10)); // D40
+        destinations.add(new Destination(41, "Rio de Janeiro", "Tokyo", 20)); // D41
+        destinations.add(new Destination(42, "New York", "Sydney", 17)); // D42
+        destinations.add(new Destination(43, "Los Angeles", "Rio de Janeiro", 15)); // D43
+        destinations.add(new Destination(44, "Casablanca", "Honolulu", 16)); // D44
+        destinations.add(new Destination(45, "Miami", "Moskva", 13)); // D45
+        destinations.add(new Destination(46, "Buenos Aires", "Manila", 17)); // D46
+        destinations.add(new Destination(47, "Los Angeles", "Dar Es Salaam", 17)); // D47
+        destinations.add(new Destination(48, "Dar Es Salaam", "Tokyo", 15)); // D48
+        destinations.add(new Destination(49, "New York", "Tokyo", 15)); // D49
+        destinations.add(new Destination(50, "New York", "Mumbai", 19)); // D50
+        destinations.add(new Destination(51, "Novosibirsk", "Darwin", 13)); // D51
+        destinations.add(new Destination(52, "Rio de Janeiro", "Dar Es Salaam", 11)); // D52
+        destinations.add(new Destination(53, "Mexico", "Beijing", 13)); // D53
+        destinations.add(new Destination(54, "Edinburgh", "Luanda", 10)); // D54
+        destinations.add(new Destination(55, "Marseille", "Christchurch", 23)); // D55
+        destinations.add(new Destination(56, "Vancouver", "Edinburgh", 13)); // D56
+        destinations.add(new Destination(57, "Lagos", "Hong Kong", 14)); // D57
+        destinations.add(new Destination(58, List.of("Manila", "Honolulu", "Port Moresby", "Darwin"), 9, 13, 19)); // D58
+        destinations.add(new Destination(59, List.of("Anchorage", "Cambridge Bay", "Reykjavik", "Murmansk", "Tiksi"), 23, 34, 40)); // D59
+        destinations.add(new Destination(60, List.of("Anchorage", "Vancouver", "Winnipeg", "Cambridge Bay"), 12, 18, 24)); // D60
+        destinations.add(new Destination(61, List.of("Casablanca", "Al-Qahira", "Tehran"), 6, 9, 15)); // D61
+        destinations.add(new Destination(62, List.of("Mexico", "Caracas", "Lima", "Valparaiso"), 10, 15, 21)); // D62
+        destinations.add(new Destination(63, List.of("Lagos", "Luanda", "Dar Es Salaam", "Djibouti"), 6, 9, 15)); // D63
+        destinations.add(new Destination(64, List.of("Tehran", "Lahore", "Mumbai", "Bangkok"), 9, 13, 19)); // D64
+        destinations.add(new Destination(65, List.of("Murmansk", "Tiksi", "Novosibirsk", "Yakutsk", "Petropavlovsk"), 20, 30, 36)); // D65
+        return List.copyOf(destinations);
     }
     public boolean estCarteItineraires(Destination d){ // return true si c'est une carte itinéraires
         if (d.getValeurMax() == valeurSimple){
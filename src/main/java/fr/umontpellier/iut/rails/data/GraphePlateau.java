@@ -0,0 +1,170 @@
+package fr.umontpellier.iut.rails.data;
+
+import fr.umontpellier.iut.rails.Route;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Graphe des villes d'un plateau, reliées par ses routes, sous une forme compacte (listes d'adjacence
+ * rangées dans des tableaux, format CSR).
+ *
+ * Les villes et les routes sont numérotées à partir de 0 (dans l'ordre des listes du plateau). Les
+ * arêtes de la ville v sont les indices de {@link #debutAretes(int)} (inclus) à {@link #finAretes(int)}
+ * (exclu) ; chaque arête donne la route et la ville voisine. Une route apparaît donc dans les arêtes
+ * de ses deux villes. Le graphe n'est jamais modifié, il peut être partagé par toutes les parties.
+ */
+public final class GraphePlateau {
+    /**
+     * Type d'une route (valeurs de {@link #typeRoute(int)})
+     */
+    public static final byte TERRESTRE = 1;
+    public static final byte MARITIME = 2;
+    public static final byte PAIRE = 4;
+
+    private final Ville[] villes;
+    private final Map<String, Integer> numerosVilles;
+    private final Route[] routes;
+    private final Map<Route, Integer> numerosRoutes;
+    /**
+     * Numéros des deux villes de chaque route
+     */
+    private final int[] villes1;
+    private final int[] villes2;
+    private final int[] longueurs;
+    private final byte[] types;
+    /**
+     * Indice de la première arête de chaque ville (la case nbVilles contient le nombre total d'arêtes)
+     */
+    private final int[] debutsAretes;
+    /**
+     * Route et ville voisine de chaque arête
+     */
+    private final int[] routesAretes;
+    private final int[] voisinsAretes;
+
+    public GraphePlateau(List<Ville> villes, List<Route> routes) {
+        int nbVilles = villes.size();
+        int nbRoutes = routes.size();
+        this.villes = villes.toArray(new Ville[0]);
+        this.numerosVilles = new HashMap<>();
+        for (int v = 0; v < nbVilles; v++) {
+            numerosVilles.put(this.villes[v].nom(), v);
+        }
+        this.routes = routes.toArray(new Route[0]);
+        this.numerosRoutes = new IdentityHashMap<>();
+        this.villes1 = new int[nbRoutes];
+        this.villes2 = new int[nbRoutes];
+        this.longueurs = new int[nbRoutes];
+        this.types = new byte[nbRoutes];
+        this.debutsAretes = new int[nbVilles + 1];
+        for (int r = 0; r < nbRoutes; r++) {
+            Route route = this.routes[r];
+            numerosRoutes.put(route, r);
+            villes1[r] = numeroVilleConnue(route.getVille1().nom());
+            villes2[r] = numeroVilleConnue(route.getVille2().nom());
+            longueurs[r] = route.getLongueur();
+            types[r] = route.estPaire() ? PAIRE : route.estMaritime() ? MARITIME : TERRESTRE;
+            debutsAretes[villes1[r] + 1]++;
+            debutsAretes[villes2[r] + 1]++;
+        }
+        for (int v = 0; v < nbVilles; v++) {
+            debutsAretes[v + 1] += debutsAretes[v];
+        }
+        this.routesAretes = new int[2 * nbRoutes];
+        this.voisinsAretes = new int[2 * nbRoutes];
+        int[] prochaineArete = new int[nbVilles];
+        System.arraycopy(debutsAretes, 0, prochaineArete, 0, nbVilles);
+        for (int r = 0; r < nbRoutes; r++) {
+            int a = prochaineArete[villes1[r]]++;
+            routesAretes[a] = r;
+            voisinsAretes[a] = villes2[r];
+            a = prochaineArete[villes2[r]]++;
+            routesAretes[a] = r;
+            voisinsAretes[a] = villes1[r];
+        }
+    }
+
+    private int numeroVilleConnue(String nom) {
+        Integer v = numerosVilles.get(nom);
+        if (v == null) {
+            throw new IllegalArgumentException("Ville inconnue : " + nom);
+        }
+        return v;
+    }
+
+    public int nbVilles() {
+        return villes.length;
+    }
+
+    public int nbRoutes() {
+        return routes.length;
+    }
+
+    /**
+     * @return le numéro de la ville dont le nom est passé en argument, ou -1 si elle n'est pas sur le plateau
+     */
+    public int numeroVille(String nom) {
+        Integer v = numerosVilles.get(nom);
+        return v == null ? -1 : v;
+    }
+
+    /**
+     * @return le numéro de la route, ou -1 si elle n'est pas sur le plateau
+     */
+    public int numeroRoute(Route route) {
+        Integer r = numerosRoutes.get(route);
+        return r == null ? -1 : r;
+    }
+
+    public Ville ville(int v) {
+        return villes[v];
+    }
+
+    public Route route(int r) {
+        return routes[r];
+    }
+
+    public int ville1(int r) {
+        return villes1[r];
+    }
+
+    public int ville2(int r) {
+        return villes2[r];
+    }
+
+    public int longueur(int r) {
+        return longueurs[r];
+    }
+
+    /**
+     * @return le type de la route : {@link #TERRESTRE}, {@link #MARITIME} ou {@link #PAIRE}
+     */
+    public byte typeRoute(int r) {
+        return types[r];
+    }
+
+    public int debutAretes(int v) {
+        return debutsAretes[v];
+    }
+
+    public int finAretes(int v) {
+        return debutsAretes[v + 1];
+    }
+
+    /**
+     * @return le numéro de la route de l'arête
+     */
+    public int routeArete(int a) {
+        return routesAretes[a];
+    }
+
+    /**
+     * @return le numéro de la ville à l'autre bout de l'arête
+     */
+    public int voisinArete(int a) {
+        return voisinsAretes[a];
+    }
+}
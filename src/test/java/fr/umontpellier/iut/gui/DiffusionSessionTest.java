@@ -0,0 +1,61 @@
+package fr.umontpellier.iut.gui;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.websocket.SendResult;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class DiffusionSessionTest {
+    private SessionSimulee session;
+
+    @BeforeEach
+    public void setUp() {
+        session = new SessionSimulee(false);
+    }
+
+    @Test
+    void testSeulLeDernierEtatEstEnvoyeAUnClientLent() {
+        DiffusionSession diffusion = new DiffusionSession(session.getSession(), 60_000);
+        diffusion.envoyer("1");
+        diffusion.envoyer("2");
+        diffusion.envoyer("3");
+        assertEquals(List.of("1"), session.getEnvoyes());
+
+        session.terminerEnvoi(0, new SendResult());
+        assertEquals(List.of("1", "3"), session.getEnvoyes());
+        session.terminerEnvoi(1, new SendResult());
+        assertEquals(List.of("1", "3"), session.getEnvoyes());
+    }
+
+    @Test
+    void testClientTropLentDeconnecte() {
+        AtomicLong horloge = new AtomicLong();
+        DiffusionSession diffusion = new DiffusionSession(session.getSession(), 1, horloge::get);
+        diffusion.envoyer("1");
+        horloge.addAndGet(1_000_000);
+        diffusion.envoyer("2");
+        assertTrue(session.getFermetures().isEmpty());
+
+        horloge.addAndGet(1);
+        diffusion.envoyer("3");
+        assertTrue(diffusion.estFermee());
+        assertEquals(1, session.getFermetures().size());
+        assertEquals(List.of("1"), session.getEnvoyes());
+    }
+
+    @Test
+    void testEchecEnvoiDeconnecteLeClient() {
+        DiffusionSession diffusion = new DiffusionSession(session.getSession(), 60_000);
+        diffusion.envoyer("1");
+        session.terminerEnvoi(0, new SendResult(new IOException()));
+        assertTrue(diffusion.estFermee());
+        assertEquals(1, session.getFermetures().size());
+    }
+}
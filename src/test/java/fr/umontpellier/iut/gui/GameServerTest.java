@@ -0,0 +1,60 @@
+package fr.umontpellier.iut.gui;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.Map;
+
+import javax.websocket.Session;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+public class GameServerTest {
+
+    @BeforeAll
+    static void staticInit() {
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    private static Session creerSession(String partie) {
+        return new SessionSimulee(true, Map.of("partie", List.of(partie), "joueurs", List.of("Guybrush,Largo")))
+                .getSession();
+    }
+
+    @Test
+    void testPartieAbandonneeEstArretee() {
+        Session premier = creerSession("abandonnee");
+        Session second = creerSession("abandonnee");
+        int nbParties = GameServer.getNbParties();
+        GameServer.addClient(premier);
+        GameServer.addClient(second);
+        Partie partie = GameServer.getPartie("abandonnee");
+        assertNotNull(partie);
+        assertEquals(nbParties + 1, GameServer.getNbParties());
+        // par défaut la partie est démarrée en mode événementiel, sans occuper de thread
+        assertNotNull(partie.getJeu().getInviteCourante());
+        assertEquals(0, GameServer.getOrdonnanceur().getNbPartiesEnCours());
+
+        GameServer.removeClient(premier);
+        assertEquals(partie, GameServer.getPartie("abandonnee"));
+
+        // le dernier client part alors que la partie n'est pas terminée
+        GameServer.removeClient(second);
+        assertEquals(0, partie.getNbClients());
+        assertNull(GameServer.getPartie("abandonnee"));
+        assertEquals(nbParties, GameServer.getNbParties());
+
+        // un nouveau client sur le même identifiant obtient une nouvelle partie
+        Session nouveau = creerSession("abandonnee");
+        GameServer.addClient(nouveau);
+        assertNotSame(partie, GameServer.getPartie("abandonnee"));
+        GameServer.removeClient(nouveau);
+        assertNull(GameServer.getPartie("abandonnee"));
+    }
+}
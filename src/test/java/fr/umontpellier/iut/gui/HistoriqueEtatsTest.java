@@ -0,0 +1,101 @@
+package fr.umontpellier.iut.gui;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import fr.umontpellier.iut.rails.Invite;
+import fr.umontpellier.iut.rails.Jeu;
+import fr.umontpellier.iut.rails.SerialiseurEtat;
+import fr.umontpellier.iut.rails.Strategie;
+import fr.umontpellier.iut.rails.StrategieAleatoire;
+
+public class HistoriqueEtatsTest {
+
+    @BeforeAll
+    static void staticInit() {
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    private static JsonObject etat(String json) {
+        return JsonParser.parseString(json).getAsJsonObject();
+    }
+
+    @Test
+    void testAucunEtatAvantLaPremiereVersion() {
+        HistoriqueEtats historique = new HistoriqueEtats(8);
+        assertNull(historique.etatComplet());
+        historique.ajouter("{\"log\": []}");
+        assertEquals(1, historique.getVersion());
+        assertEquals(etat("{\"log\": []}"), etat(historique.etatComplet()));
+        assertNull(historique.messagePour(1));
+    }
+
+    @Test
+    void testClientRetrouveLEtatAPartirDesModifications() {
+        HistoriqueEtats historique = new HistoriqueEtats(8);
+        historique.ajouter("{\"log\": [], \"joueurs\": [{\"main\": [\"C1\"]}], \"boutons\": []}");
+        JsonObject client = etat(historique.etatComplet());
+        historique.ajouter("{\"log\": {\"$ajouts\": [\"l1\"]}, \"joueurs\": {\"$elements\": {\"0\": {\"main\": [\"C1\", \"C2\"]}}}, \"boutons\": [{\"valeur\": \"V\"}]}");
+        historique.ajouter("{\"log\": {\"$ajouts\": [\"l2\"]}, \"joueurs\": {\"$elements\": {\"0\": {\"main\": [\"C2\"]}}}, \"boutons\": []}");
+
+        JsonObject message = etat(historique.messagePour(1));
+        assertEquals("diff", message.get("type").getAsString());
+        JsonArray diffs = message.getAsJsonArray("diffs");
+        assertEquals(2, diffs.size());
+        for (JsonElement diff : diffs) {
+            HistoriqueEtats.appliquer(client, diff.getAsJsonObject().get("modifs"));
+        }
+        assertEquals(etat("{\"log\": [\"l1\", \"l2\"], \"joueurs\": [{\"main\": [\"C2\"]}], \"boutons\": []}"), client);
+        assertEquals(client, etat(historique.etatComplet()));
+    }
+
+    @Test
+    void testClientTropEnRetardRecoitLEtatComplet() {
+        HistoriqueEtats historique = new HistoriqueEtats(2);
+        for (int i = 0; i < 5; i++) {
+            historique.ajouter("{\"score\": " + i + "}");
+        }
+        JsonObject message = etat(historique.messagePour(1));
+        assertEquals("complet", message.get("type").getAsString());
+        assertEquals(5, message.get("version").getAsInt());
+        assertEquals(etat("{\"score\": 4}"), message.get("etat"));
+    }
+
+    @Test
+    void testModificationsDUnePartieRedonnentLEtatComplet() {
+        Jeu jeu = new Jeu(new String[] { "Guybrush", "Largo", "LeChuck" }, 3);
+        Strategie strategie = new StrategieAleatoire(new SplittableRandom(3));
+        SerialiseurEtat modifications = new SerialiseurEtat();
+        SerialiseurEtat complet = new SerialiseurEtat();
+        HistoriqueEtats historique = new HistoriqueEtats(200);
+        Invite invite = jeu.demarrer();
+        historique.ajouter(modifications.serialiserModifications(jeu));
+        JsonObject client = etat(historique.etatComplet());
+        for (int i = 0; i < 150 && invite != null; i++) {
+            invite = jeu.soumettre(strategie.choisir(jeu, invite));
+            String modifs = modifications.serialiserModifications(jeu);
+            if (modifs != null) {
+                historique.ajouter(modifs);
+            }
+            assertEquals(JsonParser.parseString(complet.serialiser(jeu)), etat(historique.etatComplet()));
+        }
+
+        // un client qui a la première version retrouve l'état courant avec les modifications conservées
+        for (JsonElement diff : etat(historique.messagePour(1)).getAsJsonArray("diffs")) {
+            HistoriqueEtats.appliquer(client, diff.getAsJsonObject().get("modifs"));
+        }
+        assertEquals(etat(historique.etatComplet()), client);
+    }
+}
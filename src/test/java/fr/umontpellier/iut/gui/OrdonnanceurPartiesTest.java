@@ -0,0 +1,51 @@
+package fr.umontpellier.iut.gui;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+public class OrdonnanceurPartiesTest {
+
+    @BeforeAll
+    static void staticInit() {
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @Test
+    void testArreterLibereLaPlace() throws InterruptedException {
+        OrdonnanceurParties ordonnanceur = new OrdonnanceurParties(Executors.newCachedThreadPool(), 1);
+        try {
+            Partie partie = new Partie("abandonnee", new String[] { "Guybrush", "Largo" });
+            CountDownLatch fin = new CountDownLatch(1);
+            ordonnanceur.lancer(partie, fin::countDown);
+            assertThrows(IllegalStateException.class,
+                    () -> ordonnanceur.lancer(new Partie("refusee", new String[] { "Guybrush", "Largo" }), () -> {}));
+
+            // la partie attend une instruction qui ne viendra jamais : elle est interrompue
+            ordonnanceur.arreter(partie);
+            assertEquals(0, ordonnanceur.getNbPartiesEnCours());
+            assertTrue(fin.await(5, TimeUnit.SECONDS));
+            assertTrue(partie.estTerminee());
+
+            // la place est de nouveau disponible, et n'a été libérée qu'une fois
+            Partie suivante = new Partie("suivante", new String[] { "Guybrush", "Largo" });
+            ordonnanceur.lancer(suivante, () -> {});
+            assertThrows(IllegalStateException.class,
+                    () -> ordonnanceur.lancer(new Partie("refusee", new String[] { "Guybrush", "Largo" }), () -> {}));
+            ordonnanceur.arreter(suivante);
+            ordonnanceur.arreter(suivante);
+            assertEquals(0, ordonnanceur.getNbPartiesEnCours());
+        } finally {
+            ordonnanceur.arreter();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package fr.umontpellier.iut.gui;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.websocket.Session;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+public class PartieTest {
+
+    @BeforeAll
+    static void staticInit() {
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @Test
+    void testConnexionsEtDeconnexionsPendantLesDiffusions() throws InterruptedException {
+        Partie partie = new Partie("test", new String[] { "Guybrush", "Largo" });
+        partie.mettreAJourEtat("{\"log\": []}");
+        Queue<Throwable> erreurs = new ConcurrentLinkedQueue<>();
+        AtomicBoolean fini = new AtomicBoolean(false);
+        int nbThreadsClients = 4;
+        int nbSessionsParThread = 100;
+        CountDownLatch clientsTermines = new CountDownLatch(nbThreadsClients);
+        List<SessionSimulee> simulees = new ArrayList<>();
+
+        Thread diffuseur = new Thread(() -> {
+            try {
+                for (int i = 0; !fini.get(); i++) {
+                    partie.mettreAJourEtat("{\"log\": {\"$ajouts\": [" + i + "]}}");
+                }
+            } catch (Throwable e) {
+                erreurs.add(e);
+            }
+        });
+        diffuseur.start();
+
+        List<Thread> threadsClients = new ArrayList<>();
+        for (int t = 0; t < nbThreadsClients; t++) {
+            List<Session> sessions = new ArrayList<>();
+            for (int i = 0; i < nbSessionsParThread; i++) {
+                // les envois se terminent immédiatement
+                SessionSimulee simulee = new SessionSimulee(true);
+                simulees.add(simulee);
+                sessions.add(simulee.getSession());
+            }
+            Thread thread = new Thread(() -> {
+                try {
+                    for (int i = 0; i < sessions.size(); i++) {
+                        Session session = sessions.get(i);
+                        partie.addClient(session, i % 2 == 0);
+                        partie.acquitter(session, 1);
+                        if (i >= 10) {
+                            partie.removeClient(sessions.get(i - 10));
+                        }
+                    }
+                    for (int i = sessions.size() - 10; i < sessions.size(); i++) {
+                        partie.removeClient(sessions.get(i));
+                    }
+                } catch (Throwable e) {
+                    erreurs.add(e);
+                } finally {
+                    clientsTermines.countDown();
+                }
+            });
+            threadsClients.add(thread);
+        }
+        threadsClients.forEach(Thread::start);
+        clientsTermines.await();
+        fini.set(true);
+        diffuseur.join();
+
+        assertTrue(erreurs.isEmpty(), () -> erreurs.peek().toString());
+        assertEquals(0, partie.getNbClients());
+        for (SessionSimulee simulee : simulees) {
+            // chaque client a au moins reçu l'état de la partie à sa connexion
+            assertTrue(simulee.getNbEnvois() >= 1);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package fr.umontpellier.iut.gui;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.websocket.CloseReason;
+import javax.websocket.RemoteEndpoint;
+import javax.websocket.SendHandler;
+import javax.websocket.SendResult;
+import javax.websocket.Session;
+
+/**
+ * Session websocket simulée pour les tests : les messages envoyés et les fermetures sont enregistrés.
+ * Les envois se terminent immédiatement, ou seulement lorsque le test appelle leur callback.
+ */
+class SessionSimulee {
+    private final Session session;
+    private final boolean envoiImmediat;
+    private final Map<String, List<String>> parametres;
+    private final Map<String, Object> proprietes = new ConcurrentHashMap<>();
+    private final AtomicInteger nbEnvois = new AtomicInteger();
+    /**
+     * Messages dont l'envoi a démarré
+     */
+    private final List<String> envoyes = Collections.synchronizedList(new ArrayList<>());
+    /**
+     * Callbacks des envois démarrés (appelés pour simuler la fin de l'envoi)
+     */
+    private final List<SendHandler> callbacks = Collections.synchronizedList(new ArrayList<>());
+    private final List<CloseReason> fermetures = Collections.synchronizedList(new ArrayList<>());
+
+    /**
+     * @param envoiImmediat si vrai, chaque envoi se termine (avec succès) dès qu'il démarre
+     * @param parametres    paramètres de la requête de connexion
+     */
+    SessionSimulee(boolean envoiImmediat, Map<String, List<String>> parametres) {
+        this.envoiImmediat = envoiImmediat;
+        this.parametres = parametres;
+        RemoteEndpoint.Async remote = proxy(RemoteEndpoint.Async.class, (proxy, methode, args) -> {
+            if (methode.getName().equals("sendText") && args.length == 2 && args[1] instanceof SendHandler callback) {
+                envoyer((String) args[0], callback);
+                return null;
+            }
+            throw new UnsupportedOperationException(methode.getName());
+        });
+        this.session = proxy(Session.class, (proxy, methode, args) -> switch (methode.getName()) {
+            case "getAsyncRemote" -> remote;
+            case "getRequestParameterMap" -> this.parametres;
+            case "getUserProperties" -> proprietes;
+            case "close" -> {
+                fermetures.add(args == null ? null : (CloseReason) args[0]);
+                yield null;
+            }
+            default -> throw new UnsupportedOperationException(methode.getName());
+        });
+    }
+
+    SessionSimulee(boolean envoiImmediat) {
+        this(envoiImmediat, Map.of());
+    }
+
+    private interface Appel {
+        Object invoquer(Object proxy, Method methode, Object[] args) throws Throwable;
+    }
+
+    /**
+     * @return un objet implémentant l'interface, dont les méthodes d'Object sont celles de l'identité
+     */
+    private static <T> T proxy(Class<T> type, Appel appel) {
+        return type.cast(Proxy.newProxyInstance(SessionSimulee.class.getClassLoader(), new Class<?>[] { type },
+                (proxy, methode, args) -> switch (methode.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "toString" -> type.getSimpleName() + "@" + Integer.toHexString(System.identityHashCode(proxy));
+                    default -> appel.invoquer(proxy, methode, args);
+                }));
+    }
+
+    private void envoyer(String message, SendHandler callback) {
+        nbEnvois.incrementAndGet();
+        if (envoiImmediat) {
+            callback.onResult(new SendResult());
+        } else {
+            envoyes.add(message);
+            callbacks.add(callback);
+        }
+    }
+
+    Session getSession() {
+        return session;
+    }
+
+    int getNbEnvois() {
+        return nbEnvois.get();
+    }
+
+    List<String> getEnvoyes() {
+        return envoyes;
+    }
+
+    /**
+     * Termine le i-ème envoi démarré
+     */
+    void terminerEnvoi(int i, SendResult resultat) {
+        callbacks.get(i).onResult(resultat);
+    }
+
+    List<CloseReason> getFermetures() {
+        return fermetures;
+    }
+}
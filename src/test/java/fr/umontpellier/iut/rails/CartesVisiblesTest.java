@@ -0,0 +1,71 @@
+package fr.umontpellier.iut.rails;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import fr.umontpellier.iut.rails.data.CarteTransport;
+import fr.umontpellier.iut.rails.data.Couleur;
+import fr.umontpellier.iut.rails.data.TypeCarteTransport;
+
+public class CartesVisiblesTest {
+    private Jeu jeu;
+    private List<CarteTransport> cartesTransportVisibles;
+    private List<CarteTransport> anciennesCartes;
+
+    @BeforeAll
+    static void staticInit() {
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        jeu = new Jeu(new String[] { "Guybrush", "Largo", "LeChuck", "Elaine" }, 0);
+        cartesTransportVisibles = (List<CarteTransport>) TestUtils.getAttribute(jeu, "cartesTransportVisibles");
+        // 3 jokers visibles : les cartes visibles doivent être remplacées
+        anciennesCartes = List.of(
+                new CarteTransport(TypeCarteTransport.JOKER, Couleur.GRIS, false, true),
+                new CarteTransport(TypeCarteTransport.JOKER, Couleur.GRIS, false, true),
+                new CarteTransport(TypeCarteTransport.JOKER, Couleur.GRIS, false, true),
+                new CarteTransport(TypeCarteTransport.WAGON, Couleur.ROUGE, false, false),
+                new CarteTransport(TypeCarteTransport.BATEAU, Couleur.VERT, false, false),
+                new CarteTransport(TypeCarteTransport.BATEAU, Couleur.JAUNE, true, false));
+        cartesTransportVisibles.clear();
+        cartesTransportVisibles.addAll(anciennesCartes);
+    }
+
+    /**
+     * Vérifie que les 6 cartes visibles ont été remplacées et que les anciennes sont dans les défausses
+     */
+    private void verifierCartesRemplacees() {
+        assertEquals(6, cartesTransportVisibles.size());
+        assertFalse(cartesTransportVisibles.contains(null));
+        for (CarteTransport c : anciennesCartes) {
+            assertFalse(cartesTransportVisibles.contains(c));
+            PilesCartesTransport piles = c.getType() == TypeCarteTransport.BATEAU ? jeu.getPilesDeCartesBateau()
+                    : jeu.getPilesDeCartesWagon();
+            assertTrue(piles.getPileDefausse().contains(c));
+        }
+    }
+
+    @Test
+    void testRemaniementDefausseToutesLesCartesVisibles() {
+        assertFalse(jeu.verifierCartesVisibles(false));
+        verifierCartesRemplacees();
+    }
+
+    @Test
+    void testRemaniementApresCarteRetournee() {
+        assertFalse(jeu.verifierCartesVisibles(true));
+        verifierCartesRemplacees();
+    }
+}
@@ -0,0 +1,118 @@
+package fr.umontpellier.iut.rails;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import fr.umontpellier.iut.rails.data.CarteTransport;
+import fr.umontpellier.iut.rails.data.Couleur;
+import fr.umontpellier.iut.rails.data.TypeCarteTransport;
+import fr.umontpellier.iut.rails.data.Ville;
+
+public class GenerateurCoupsTest {
+
+    @BeforeAll
+    static void staticInit() {
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testMemesCoupsQueLesTestsRouteParRoute() throws ReflectiveOperationException {
+        Method peutPoserRoute = Joueur.class.getDeclaredMethod("peutPoserRoute", String.class, int.class);
+        Method peutPoserPort = Joueur.class.getDeclaredMethod("peutPoserPort", String.class);
+        peutPoserRoute.setAccessible(true);
+        peutPoserPort.setAccessible(true);
+        List<CarteTransport> toutesLesCartes = new ArrayList<>(CarteTransport.makeCartesWagon());
+        toutesLesCartes.addAll(CarteTransport.makeCartesBateau());
+        Random random = new Random(0);
+        int nbRoutes = 0;
+        int nbPorts = 0;
+
+        for (int i = 0; i < 200; i++) {
+            Jeu jeu = new Jeu(new String[] { "Guybrush", "Largo", "LeChuck", "Elaine" }, i);
+            Joueur joueur = jeu.getJoueurs().get(0);
+            Collections.shuffle(toutesLesCartes, random);
+            TestUtils.setCartesTransport(joueur, toutesLesCartes.subList(0, random.nextInt(30)));
+            TestUtils.setAttribute(joueur, "nbPionsWagon", random.nextInt(26));
+            TestUtils.setAttribute(joueur, "nbPionsBateau", random.nextInt(51));
+            List<Route> routesJoueur = (List<Route>) TestUtils.getAttribute(joueur, "routes");
+            List<Route> routesLibres = jeu.getVraiRouteLibres();
+            for (int j = random.nextInt(30); j > 0; j--) {
+                Route r = routesLibres.remove(random.nextInt(routesLibres.size()));
+                if (random.nextBoolean()) {
+                    routesJoueur.add(r);
+                }
+            }
+
+            Set<String> routesAttendues = new HashSet<>();
+            for (Route r : routesLibres) {
+                int nbPions = r.estMaritime() ? joueur.getNbPionsBateau() : joueur.getNbPionsWagon();
+                if (!((List<?>) peutPoserRoute.invoke(joueur, r.getNom(), r.getLongueur())).isEmpty()
+                        && nbPions >= r.getLongueur()) {
+                    routesAttendues.add(r.getNom());
+                }
+            }
+            Set<String> routes = new HashSet<>();
+            jeu.getGenerateurCoups().routesCapturables(joueur).forEach(r -> routes.add(r.getNom()));
+            assertEquals(routesAttendues, routes);
+            nbRoutes += routes.size();
+
+            Set<String> portsAttendus = new HashSet<>();
+            for (Ville v : jeu.getPortsLibres()) {
+                if (!((List<?>) peutPoserPort.invoke(joueur, v.nom())).isEmpty()) {
+                    portsAttendus.add(v.nom());
+                }
+            }
+            Set<String> ports = new HashSet<>();
+            jeu.getGenerateurCoups().portsConstructibles(joueur).forEach(v -> ports.add(v.nom()));
+            assertEquals(portsAttendus, ports);
+            nbPorts += ports.size();
+        }
+        assertTrue(nbRoutes > 0 && nbPorts > 0);
+    }
+
+    /**
+     * @return true si le joueur peut capturer la route dont le nom est passé en argument
+     */
+    private static boolean capturable(Jeu jeu, Joueur joueur, String nomRoute) {
+        for (Route r : jeu.getGenerateurCoups().routesCapturables(joueur)) {
+            if (r.getNom().equals(nomRoute)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Test
+    void testJokersComptesUneSeuleFoisPourLesRoutesPaires() {
+        Jeu jeu = new Jeu(new String[] { "Guybrush", "Largo" }, 0);
+        Joueur joueur = jeu.getJoueurs().get(0);
+        TestUtils.setAttribute(joueur, "nbPionsWagon", 20);
+        CarteTransport joker = new CarteTransport(TypeCarteTransport.JOKER, Couleur.GRIS, false, false);
+
+        // un seul joker ne complète pas à la fois le wagon rouge et le wagon vert
+        TestUtils.setCartesTransport(joueur, joker,
+                new CarteTransport(TypeCarteTransport.WAGON, Couleur.ROUGE, false, false),
+                new CarteTransport(TypeCarteTransport.WAGON, Couleur.VERT, false, false));
+        assertFalse(capturable(jeu, joueur, "R10")); // Anchorage - Vancouver (paire 2)
+
+        // deux jokers forment une paire
+        TestUtils.setCartesTransport(joueur, joker,
+                new CarteTransport(TypeCarteTransport.JOKER, Couleur.GRIS, false, false));
+        assertTrue(capturable(jeu, joueur, "R50")); // Casablanca - Marseille (paire 1)
+    }
+}
@@ -0,0 +1,49 @@
+package fr.umontpellier.iut.rails;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import fr.umontpellier.iut.rails.data.GraphePlateau;
+import fr.umontpellier.iut.rails.data.Plateau;
+import fr.umontpellier.iut.rails.data.Ville;
+
+public class GraphePlateauTest {
+
+    @Test
+    void testAretesDeChaqueVille() {
+        Plateau plateau = Plateau.makePlateauMonde();
+        GraphePlateau graphe = plateau.getGraphe();
+        List<Route> routes = plateau.getRoutes();
+        assertSame(graphe, Plateau.makePlateauMonde().getGraphe());
+        assertEquals(routes.size(), graphe.nbRoutes());
+
+        for (int v = 0; v < graphe.nbVilles(); v++) {
+            Ville ville = graphe.ville(v);
+            assertEquals(v, graphe.numeroVille(ville.nom()));
+            List<Route> attendues = new ArrayList<>();
+            for (Route r : routes) {
+                if (r.getVille1().equals(ville) || r.getVille2().equals(ville)) {
+                    attendues.add(r);
+                }
+            }
+            List<Route> aretes = new ArrayList<>();
+            for (int a = graphe.debutAretes(v); a < graphe.finAretes(v); a++) {
+                int r = graphe.routeArete(a);
+                Route route = graphe.route(r);
+                aretes.add(route);
+                assertEquals(r, graphe.numeroRoute(route));
+                Ville voisin = graphe.ville(graphe.voisinArete(a));
+                assertEquals(route.getVille1().equals(ville) ? route.getVille2() : route.getVille1(), voisin);
+                assertEquals(route.getLongueur(), graphe.longueur(r));
+                assertEquals(route.estMaritime(), graphe.typeRoute(r) == GraphePlateau.MARITIME);
+                assertEquals(route.estPaire(), graphe.typeRoute(r) == GraphePlateau.PAIRE);
+            }
+            assertEquals(attendues, aretes);
+        }
+    }
+}
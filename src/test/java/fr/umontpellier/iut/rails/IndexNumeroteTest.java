@@ -0,0 +1,70 @@
+package fr.umontpellier.iut.rails;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import fr.umontpellier.iut.rails.data.CarteTransport;
+import fr.umontpellier.iut.rails.data.Ville;
+
+public class IndexNumeroteTest {
+
+    @BeforeAll
+    static void staticInit() {
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @Test
+    void testRechercheParNomDansDeuxParties() {
+        for (int i = 0; i < 2; i++) {
+            Jeu jeu = new Jeu(new String[] { "Guybrush", "Largo" });
+            for (Route r : jeu.getRoutesDebut()) {
+                assertSame(r, jeu.getRoutebyNom(r.getNom()));
+            }
+            for (Ville v : jeu.getPortsLibres()) {
+                assertSame(v, jeu.getVillebyNom(v.getNom()));
+            }
+            for (CarteTransport c : jeu.getPilesDeCartesWagon().getPilePioche()) {
+                assertSame(c, jeu.getCarteByNom(c.getNom()));
+            }
+            for (CarteTransport c : jeu.getPilesDeCartesBateau().getPilePioche()) {
+                assertSame(c, jeu.getCarteByNom(c.getNom()));
+            }
+        }
+    }
+
+    @Test
+    void testMemesIdentifiantsDansChaquePartie() {
+        Jeu jeu1 = new Jeu(new String[] { "Guybrush", "Largo" });
+        Jeu jeu2 = new Jeu(new String[] { "LeChuck", "Elaine" });
+        for (int i = 1; i <= Route.NB_ROUTES_PLATEAU; i++) {
+            // les routes du plateau sont partagées par les parties
+            assertNotNull(jeu1.getRoutebyNom("R" + i));
+            assertSame(jeu1.getRoutebyNom("R" + i), jeu2.getRoutebyNom("R" + i));
+        }
+        for (int i = 1; i <= CarteTransport.NB_CARTES; i++) {
+            assertNotNull(jeu1.getCarteByNom("C" + i));
+            assertSame(jeu1.getCarteByNom("C" + i), jeu2.getCarteByNom("C" + i));
+        }
+        assertNull(jeu1.getRoutebyNom("R" + (Route.NB_ROUTES_PLATEAU + 1)));
+        assertNull(jeu1.getCarteByNom("C" + (CarteTransport.NB_CARTES + 1)));
+    }
+
+    @Test
+    void testNomsInconnus() {
+        Jeu jeu = new Jeu(new String[] { "Guybrush", "Largo" });
+        String nomRoute = jeu.getRoutesDebut().get(0).getNom();
+        assertNull(jeu.getRoutebyNom("R0" + nomRoute.substring(1)));
+        assertNull(jeu.getRoutebyNom("R999999999"));
+        assertNull(jeu.getRoutebyNom("C1"));
+        assertNull(jeu.getRoutebyNom("WAGON"));
+        assertNull(jeu.getCarteByNom(""));
+        assertNull(jeu.getVillebyNom("Atlantide"));
+    }
+}
@@ -0,0 +1,99 @@
+package fr.umontpellier.iut.rails;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+public class JeuCopieTest {
+
+    /**
+     * @return tout l'état de la partie, y compris le contenu des pioches et le choix attendu
+     */
+    static String empreinte(Jeu jeu) {
+        StringBuilder sb = new StringBuilder(new SerialiseurEtat().serialiser(jeu));
+        sb.append(jeu.getPilesDeCartesWagon().getPilePioche());
+        sb.append(jeu.getPilesDeCartesBateau().getPilePioche());
+        sb.append(jeu.getPileDestinations());
+        sb.append(jeu.getRoutesLibres());
+        sb.append(jeu.getPortsLibres());
+        for (Joueur j : jeu.getJoueurs()) {
+            sb.append(j.getNbToursFin()).append(j.getScoreDetaille()).append(j.getRoutes());
+        }
+        Invite invite = jeu.getInviteCourante();
+        if (invite != null) {
+            sb.append(jeu.getJoueurs().indexOf(invite.joueur())).append(invite.instruction())
+                    .append(invite.choix()).append(invite.boutons()).append(invite.options());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Fait jusqu'à n choix aléatoires
+     *
+     * @return les choix faits
+     */
+    static List<String> jouer(Jeu jeu, Strategie strategie, int n) {
+        List<String> choix = new ArrayList<>();
+        Invite invite = jeu.getInviteCourante();
+        while (invite != null && choix.size() < n) {
+            String c = strategie.choisir(jeu, invite);
+            choix.add(c);
+            invite = jeu.soumettre(c);
+        }
+        return choix;
+    }
+
+    private static Jeu nouvellePartie(int nbJoueurs, long graine) {
+        String[] noms = new String[nbJoueurs];
+        for (int i = 0; i < nbJoueurs; i++) {
+            noms[i] = "Joueur " + (i + 1);
+        }
+        Jeu jeu = new Jeu(noms, graine);
+        jeu.setSansAffichage(true);
+        jeu.demarrer();
+        return jeu;
+    }
+
+    @Test
+    void testCopieIdentiqueEtIndependante() {
+        for (int graine = 0; graine < 2; graine++) {
+            Jeu jeu = nouvellePartie(2 + 2 * graine, graine);
+            Strategie strategie = new StrategieAleatoire(new SplittableRandom(graine));
+            Strategie strategieCopies = new StrategieAleatoire(new SplittableRandom(-graine));
+            while (jeu.getInviteCourante() != null) {
+                Jeu copie = jeu.copier();
+                assertNotSame(jeu.getJoueurs().get(0), copie.getJoueurs().get(0));
+                String avant = empreinte(jeu);
+                assertEquals(avant, empreinte(copie));
+
+                // la copie avance sans modifier la partie
+                jouer(copie, strategieCopies, 100);
+                assertEquals(avant, empreinte(jeu));
+
+                jouer(jeu, strategie, 97);
+            }
+        }
+    }
+
+    @Test
+    void testCopiesDeMemeGraine() {
+        Jeu jeu = nouvellePartie(3, 7);
+        jouer(jeu, new StrategieAleatoire(new SplittableRandom(1)), 120);
+        Jeu copie1 = jeu.copier(42);
+        Jeu copie2 = jeu.copier(42);
+        List<String> choix = jouer(copie1, new StrategieAleatoire(new SplittableRandom(2)), Integer.MAX_VALUE);
+        assertNull(copie1.getInviteCourante());
+        for (String c : choix) {
+            assertNotNull(copie2.getInviteCourante());
+            copie2.soumettre(c);
+        }
+        assertEquals(empreinte(copie1), empreinte(copie2));
+    }
+}
@@ -0,0 +1,86 @@
+package fr.umontpellier.iut.rails;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class JeuEvenementielTest {
+    private IOJeu jeu;
+    private List<Joueur> joueurs;
+
+    @BeforeAll
+    static void staticInit() {
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @BeforeEach
+    public void setUp() {
+        jeu = new IOJeu(new String[] { "Guybrush", "Largo", "LeChuck", "Elaine" });
+        joueurs = jeu.getJoueurs();
+    }
+
+    @Test
+    void testInstructionInvalideIgnoree() {
+        Invite invite = jeu.demarrer();
+        assertSame(joueurs.get(0), invite.joueur());
+        assertSame(invite, jeu.soumettre("Mauvaise instruction"));
+        assertSame(invite, jeu.getInviteCourante());
+    }
+
+    @Test
+    void testMiseEnPlaceEtPremierTour() {
+        Invite invite = jeu.demarrer();
+        for (Joueur j : joueurs) {
+            assertSame(j, invite.joueur());
+            invite = jeu.soumettre(""); // garde les 5 destinations
+            assertSame(j, invite.joueur());
+            invite = jeu.soumettre("20");
+            assertEquals(5, TestUtils.getDestinations(j).size());
+            assertEquals(20, TestUtils.getNbPionsWagon(j));
+        }
+
+        Joueur guybrush = joueurs.get(0);
+        int nbCartes = guybrush.getCartesTransport().size();
+        assertSame(guybrush, invite.joueur());
+        invite = jeu.soumettre("WAGON");
+        assertSame(guybrush, invite.joueur());
+        invite = jeu.soumettre("BATEAU");
+        assertEquals(nbCartes + 2, guybrush.getCartesTransport().size());
+        assertSame(joueurs.get(1), invite.joueur());
+        assertEquals(0, jeu.getInstructions().size());
+    }
+
+    /**
+     * @return la première réponse acceptée par l'invite
+     */
+    private static String premierChoix(Invite invite) {
+        if (!invite.choix().isEmpty()) {
+            return invite.choix().get(0);
+        }
+        return invite.boutons().isEmpty() ? "" : invite.boutons().get(0).valeur();
+    }
+
+    @Test
+    void testMemeGraineMemePartie() {
+        Jeu jeu1 = new Jeu(new String[] { "Guybrush", "Largo" }, 42);
+        Jeu jeu2 = new Jeu(new String[] { "Guybrush", "Largo" }, 42);
+        SerialiseurEtat serialiseur = new SerialiseurEtat();
+        Invite invite1 = jeu1.demarrer();
+        Invite invite2 = jeu2.demarrer();
+        assertEquals(42, jeu1.getGraine());
+        for (int i = 0; i < 200 && invite1 != null; i++) {
+            assertEquals(serialiseur.serialiser(jeu1), serialiseur.serialiser(jeu2));
+            String choix = premierChoix(invite1);
+            invite1 = jeu1.soumettre(choix);
+            invite2 = jeu2.soumettre(choix);
+        }
+        assertEquals(serialiseur.serialiser(jeu1), serialiseur.serialiser(jeu2));
+    }
+}
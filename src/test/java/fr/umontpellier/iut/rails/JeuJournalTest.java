@@ -0,0 +1,98 @@
+package fr.umontpellier.iut.rails;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+public class JeuJournalTest {
+
+    private static Jeu nouvellePartie(int nbJoueurs, long graine) {
+        String[] noms = new String[nbJoueurs];
+        for (int i = 0; i < nbJoueurs; i++) {
+            noms[i] = "Joueur " + (i + 1);
+        }
+        Jeu jeu = new Jeu(noms, graine);
+        jeu.setSansAffichage(true);
+        jeu.activerJournal();
+        jeu.demarrer();
+        return jeu;
+    }
+
+    @Test
+    void testAnnulerEtRefaireLesChoix() {
+        Jeu jeu = nouvellePartie(2, 7);
+        Strategie strategie = new StrategieAleatoire(new SplittableRandom(7));
+        List<String> etats = new ArrayList<>();
+        etats.add(JeuCopieTest.empreinte(jeu));
+        assertFalse(jeu.peutAnnuler());
+        for (int i = 0; i < 60; i++) {
+            JeuCopieTest.jouer(jeu, strategie, 1);
+            etats.add(JeuCopieTest.empreinte(jeu));
+        }
+
+        // annulation de tous les choix, jusqu'au début de la partie
+        for (int i = etats.size() - 2; i >= 0; i--) {
+            assertTrue(jeu.annuler());
+            assertEquals(etats.get(i), JeuCopieTest.empreinte(jeu));
+        }
+        assertFalse(jeu.annuler());
+
+        // les choix annulés sont refaits à l'identique
+        for (int i = 1; i < etats.size(); i++) {
+            assertTrue(jeu.refaire());
+            assertEquals(etats.get(i), JeuCopieTest.empreinte(jeu));
+        }
+        assertFalse(jeu.refaire());
+    }
+
+    @Test
+    void testAnnulerFinDePartie() {
+        Jeu jeu = nouvellePartie(2, 3);
+        JeuCopieTest.jouer(jeu, new StrategieAleatoire(new SplittableRandom(3)), Integer.MAX_VALUE);
+        assertNull(jeu.getInviteCourante());
+        String fin = JeuCopieTest.empreinte(jeu);
+
+        // les derniers tours sont annulés puis refaits jusqu'à la fin de la partie
+        for (int i = 0; i < 20; i++) {
+            assertTrue(jeu.annuler());
+        }
+        assertNotNull(jeu.getInviteCourante());
+        for (int i = 0; i < 20; i++) {
+            assertTrue(jeu.refaire());
+        }
+        assertNull(jeu.getInviteCourante());
+        assertEquals(fin, JeuCopieTest.empreinte(jeu));
+    }
+
+    @Test
+    void testNouveauChoixApresAnnulation() {
+        Jeu jeu = nouvellePartie(3, 11);
+        Strategie strategie = new StrategieAleatoire(new SplittableRandom(4));
+        JeuCopieTest.jouer(jeu, strategie, 200);
+        String avant = JeuCopieTest.empreinte(jeu);
+        Jeu copie = jeu.copier();
+
+        JeuCopieTest.jouer(jeu, strategie, 5);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(jeu.annuler());
+        }
+        assertEquals(avant, JeuCopieTest.empreinte(jeu));
+        assertTrue(jeu.peutRefaire());
+
+        // un nouveau choix efface les choix annulés, et la partie se poursuit comme sa copie
+        List<String> choix = JeuCopieTest.jouer(jeu, new StrategieAleatoire(new SplittableRandom(5)), 3);
+        assertFalse(jeu.peutRefaire());
+        for (String c : choix) {
+            copie.soumettre(c);
+        }
+        assertEquals(JeuCopieTest.empreinte(copie), JeuCopieTest.empreinte(jeu));
+    }
+}
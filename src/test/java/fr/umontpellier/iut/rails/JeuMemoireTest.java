@@ -0,0 +1,67 @@
+package fr.umontpellier.iut.rails;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+import fr.umontpellier.iut.rails.data.CarteTransport;
+
+public class JeuMemoireTest {
+    private static final String[] JOUEURS = { "Guybrush", "Largo", "LeChuck", "Elaine" };
+
+    /**
+     * Joue une partie (quelques dizaines de coups) et renvoie une référence faible vers elle
+     */
+    private static WeakReference<Jeu> jouerPartie(long graine, ReferenceQueue<Jeu> file) {
+        Jeu jeu = new Jeu(JOUEURS, graine);
+        jeu.setSansAffichage(true);
+        jeu.activerJournal();
+        jeu.demarrer();
+        assertEquals(60, JeuCopieTest.jouer(jeu, new StrategieAleatoire(new SplittableRandom(graine)), 60).size());
+        return new WeakReference<>(jeu, file);
+    }
+
+    /**
+     * Une partie terminée ne doit être retenue par rien de statique (catalogues, index, plateau partagé)
+     */
+    @Test
+    void testPartieTermineeEstCollectable() throws InterruptedException {
+        ReferenceQueue<Jeu> file = new ReferenceQueue<>();
+        WeakReference<Jeu> reference = jouerPartie(1, file);
+        Reference<? extends Jeu> collectee = null;
+        for (int i = 0; i < 50 && collectee == null; i++) {
+            System.gc();
+            collectee = file.remove(100);
+        }
+        assertSame(reference, collectee);
+    }
+
+    /**
+     * Les cartes et le plateau sont partagés par toutes les parties au lieu d'être recréés par chacune
+     */
+    @Test
+    void testCataloguesPartagesEntreLesParties() {
+        Jeu premier = new Jeu(JOUEURS, 1);
+        Jeu second = new Jeu(JOUEURS, 2);
+        assertSame(premier.getGraphe(), second.getGraphe());
+        assertEquals(premier.getRoutesDebut().size(), second.getRoutesDebut().size());
+        for (int i = 0; i < premier.getRoutesDebut().size(); i++) {
+            assertSame(premier.getRoutesDebut().get(i), second.getRoutesDebut().get(i));
+        }
+        for (Jeu jeu : new Jeu[] { premier, second }) {
+            for (CarteTransport c : jeu.getPilesDeCartesWagon().getCartes()) {
+                assertTrue(c.estDuCatalogue());
+            }
+            for (CarteTransport c : jeu.getPilesDeCartesBateau().getCartes()) {
+                assertTrue(c.estDuCatalogue());
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package fr.umontpellier.iut.rails;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import fr.umontpellier.iut.rails.data.CarteTransport;
+import fr.umontpellier.iut.rails.data.Couleur;
+import fr.umontpellier.iut.rails.data.TypeCarteTransport;
+
+public class MainJoueurTest {
+
+    /**
+     * Vérifie que les compteurs de la main correspondent à son contenu
+     */
+    private static void verifierCompteurs(MainJoueur main) {
+        for (TypeCarteTransport type : TypeCarteTransport.values()) {
+            int nbAncres = 0;
+            for (Couleur couleur : Couleur.values()) {
+                for (boolean estDouble : new boolean[] { false, true }) {
+                    for (boolean ancre : new boolean[] { false, true }) {
+                        long attendu = main.stream().filter(c -> c.getType() == type && c.getCouleur() == couleur
+                                && c.estDouble() == estDouble && c.getAncre() == ancre).count();
+                        assertEquals(attendu, main.nb(type, couleur, estDouble, ancre));
+                        nbAncres += ancre ? attendu : 0;
+                    }
+                }
+                assertEquals(main.stream().filter(c -> c.getType() == type && c.getCouleur() == couleur).count(),
+                        main.nb(type, couleur));
+            }
+            assertEquals(main.stream().filter(c -> c.getType() == type).count(), main.nb(type));
+            assertEquals(nbAncres, main.nbAncres(type));
+        }
+    }
+
+    @Test
+    void testCompteursTenusAJour() {
+        List<CarteTransport> bateaux = CarteTransport.makeCartesBateau();
+        List<CarteTransport> wagons = CarteTransport.makeCartesWagon();
+        MainJoueur main = new MainJoueur();
+        main.addAll(bateaux.subList(0, 30));
+        main.addAll(wagons.subList(50, 80));
+        verifierCompteurs(main);
+
+        main.remove(bateaux.get(3));
+        main.remove(0);
+        main.set(5, wagons.get(0));
+        main.add(2, bateaux.get(40));
+        main.removeIf(c -> c.getType() == TypeCarteTransport.JOKER);
+        main.subList(10, 20).clear();
+        verifierCompteurs(main);
+
+        main.clear();
+        verifierCompteurs(main);
+    }
+
+    private static CarteTransport carte(TypeCarteTransport type, Couleur couleur, boolean ancre) {
+        return new CarteTransport(type, couleur, false, ancre);
+    }
+
+    @Test
+    void testPortPayeAvecUneSeuleCouleur() {
+        MainJoueur main = new MainJoueur();
+        main.addAll(List.of(
+                carte(TypeCarteTransport.WAGON, Couleur.ROUGE, true),
+                carte(TypeCarteTransport.WAGON, Couleur.ROUGE, true),
+                carte(TypeCarteTransport.BATEAU, Couleur.VERT, true),
+                carte(TypeCarteTransport.BATEAU, Couleur.VERT, true),
+                carte(TypeCarteTransport.BATEAU, Couleur.ROUGE, false)));
+        // 2 wagons et 2 bateaux avec une ancre, mais pas de la même couleur
+        assertFalse(main.peutPayerPort());
+
+        main.add(carte(TypeCarteTransport.JOKER, Couleur.GRIS, true));
+        assertFalse(main.peutPayerPort());
+        main.add(carte(TypeCarteTransport.BATEAU, Couleur.ROUGE, true));
+        assertTrue(main.peutPayerPort()); // 2 wagons rouges, 1 bateau rouge et 1 joker
+    }
+}
@@ -0,0 +1,43 @@
+package fr.umontpellier.iut.rails;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+public class MoteurSimulationTest {
+
+    private static MoteurSimulation moteurAleatoire(int nbJoueurs, long graine) {
+        SplittableRandom aleatoire = new SplittableRandom(graine);
+        List<StrategieAleatoire> strategies = new ArrayList<>();
+        for (int i = 0; i < nbJoueurs; i++) {
+            strategies.add(new StrategieAleatoire(aleatoire.split()));
+        }
+        return new MoteurSimulation(strategies);
+    }
+
+    @Test
+    void testPartiesCompletesSansAffichage() {
+        PrintStream sortie = System.out;
+        ByteArrayOutputStream ecrit = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(ecrit));
+        try {
+            for (int graine = 0; graine < 10; graine++) {
+                int nbJoueurs = 2 + graine % 4;
+                ResultatSimulation resultat = moteurAleatoire(nbJoueurs, graine).jouer(graine);
+                assertTrue(resultat.terminee());
+                assertEquals(nbJoueurs, resultat.scores().size());
+                assertEquals(resultat, moteurAleatoire(nbJoueurs, graine).jouer(graine));
+            }
+        } finally {
+            System.setOut(sortie);
+        }
+        assertEquals(0, ecrit.size());
+    }
+}
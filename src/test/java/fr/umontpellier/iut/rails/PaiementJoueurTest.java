@@ -0,0 +1,149 @@
+package fr.umontpellier.iut.rails;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import fr.umontpellier.iut.rails.data.CarteTransport;
+import fr.umontpellier.iut.rails.data.Couleur;
+import fr.umontpellier.iut.rails.data.TypeCarteTransport;
+import fr.umontpellier.iut.rails.data.Ville;
+
+/**
+ * Paiement des routes et des ports carte par carte : seules les cartes qui permettent de finir le
+ * paiement doivent être proposées
+ */
+public class PaiementJoueurTest {
+    private Jeu jeu;
+    private Joueur joueur;
+
+    @BeforeAll
+    static void staticInit() {
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @BeforeEach
+    void setUp() {
+        jeu = new Jeu(new String[] { "Guybrush", "Largo" }, 0);
+        joueur = jeu.getJoueurs().get(0);
+    }
+
+    private static CarteTransport carte(TypeCarteTransport type, Couleur couleur, boolean estDouble, boolean ancre) {
+        return new CarteTransport(type, couleur, estDouble, ancre);
+    }
+
+    /**
+     * Paie l'étape avec les cartes données, en vérifiant que chacune est proposée
+     */
+    private static void payer(Etape etape, CarteTransport... cartes) {
+        for (CarteTransport c : cartes) {
+            assertTrue(etape.invite().choix().contains(c.getNom()), c.getNom() + " n'est pas proposée");
+            etape.traiter(c.getNom());
+        }
+        assertNull(etape.invite());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testPortNeProposePasUneAutreCouleur() {
+        Route route = jeu.getRoutebyNom("R49"); // Casablanca - Lagos
+        jeu.getVraiRouteLibres().remove(route);
+        ((List<Route>) TestUtils.getAttribute(joueur, "routes")).add(route);
+        CarteTransport w1 = carte(TypeCarteTransport.WAGON, Couleur.ROUGE, false, true);
+        CarteTransport w2 = carte(TypeCarteTransport.WAGON, Couleur.ROUGE, false, true);
+        CarteTransport b1 = carte(TypeCarteTransport.BATEAU, Couleur.ROUGE, false, true);
+        CarteTransport b2 = carte(TypeCarteTransport.BATEAU, Couleur.ROUGE, false, true);
+        CarteTransport bateauVert = carte(TypeCarteTransport.BATEAU, Couleur.VERT, false, true);
+        TestUtils.setCartesTransport(joueur, w1, bateauVert, w2, b1, b2);
+
+        Etape construction = joueur.new ConstructionPort("Casablanca");
+        // après le bateau vert, le port ne pourrait plus être payé
+        assertFalse(construction.invite().choix().contains(bateauVert.getNom()));
+        payer(construction, w1, b1, w2, b2);
+        Ville casablanca = jeu.getVillebyNom("Casablanca");
+        assertTrue(((List<Ville>) TestUtils.getAttribute(joueur, "ports")).contains(casablanca));
+        assertEquals(List.of(bateauVert), joueur.getCartesTransport());
+    }
+
+    @Test
+    void testRouteTerrestreNeProposePlusLesAutresCouleurs() {
+        CarteTransport rouge = carte(TypeCarteTransport.WAGON, Couleur.ROUGE, false, false);
+        CarteTransport vert = carte(TypeCarteTransport.WAGON, Couleur.VERT, false, false);
+        CarteTransport joker = carte(TypeCarteTransport.JOKER, Couleur.GRIS, false, false);
+        TestUtils.setCartesTransport(joueur, rouge, vert, joker);
+
+        Etape capture = joueur.new CaptureRouteTerrestre(jeu.getRoutebyNom("R13")); // terrestre grise 2
+        capture.traiter(rouge.getNom());
+        assertFalse(capture.invite().choix().contains(vert.getNom()));
+        payer(capture, joker);
+        assertTrue(joueur.getRoutes().contains(jeu.getRoutebyNom("R13")));
+        assertEquals(List.of(vert), joueur.getCartesTransport());
+    }
+
+    @Test
+    void testRouteMaritimePayeeAvecUneCarteSimple() {
+        CarteTransport bateau = carte(TypeCarteTransport.BATEAU, Couleur.ROUGE, false, false);
+        TestUtils.setCartesTransport(joueur, bateau);
+
+        payer(joueur.new CaptureRouteMaritime(jeu.getRoutebyNom("R53")), bateau); // maritime rouge 1
+        assertTrue(joueur.getRoutes().contains(jeu.getRoutebyNom("R53")));
+    }
+
+    @Test
+    void testRouteMaritimeNeProposePasUneCarteDejaDefaussee() {
+        CarteTransport b1 = carte(TypeCarteTransport.BATEAU, Couleur.ROUGE, false, false);
+        CarteTransport b2 = carte(TypeCarteTransport.BATEAU, Couleur.ROUGE, false, false);
+        TestUtils.setCartesTransport(joueur, b1, b2);
+
+        Etape capture = joueur.new CaptureRouteMaritime(jeu.getRoutebyNom("R12")); // maritime rouge 2
+        capture.traiter(b1.getNom());
+        assertEquals(List.of(b2.getNom()), capture.invite().choix());
+        payer(capture, b2);
+        assertTrue(joueur.getCartesTransport().isEmpty());
+    }
+
+    @Test
+    void testRoutePairePayeeEnCommencantParUnJoker() {
+        CarteTransport rouge = carte(TypeCarteTransport.WAGON, Couleur.ROUGE, false, false);
+        CarteTransport joker = carte(TypeCarteTransport.JOKER, Couleur.GRIS, false, false);
+        TestUtils.setCartesTransport(joueur, rouge, joker);
+
+        payer(joueur.new CaptureRoutePaire(jeu.getRoutebyNom("R50")), joker, rouge); // paire 1
+        assertTrue(joueur.getCartesTransport().isEmpty());
+    }
+
+    @Test
+    void testRoutePaireNeProposePasLesBateaux() {
+        CarteTransport r1 = carte(TypeCarteTransport.WAGON, Couleur.ROUGE, false, false);
+        CarteTransport r2 = carte(TypeCarteTransport.WAGON, Couleur.ROUGE, false, false);
+        CarteTransport bateau = carte(TypeCarteTransport.BATEAU, Couleur.ROUGE, false, false);
+        TestUtils.setCartesTransport(joueur, r1, bateau, r2);
+
+        Etape capture = joueur.new CaptureRoutePaire(jeu.getRoutebyNom("R50")); // paire 1
+        assertEquals(List.of(r1.getNom(), r2.getNom()), capture.invite().choix());
+        payer(capture, r1, r2);
+        assertEquals(List.of(bateau), joueur.getCartesTransport());
+    }
+
+    @Test
+    void testRouteImpayableRendLesCartes() {
+        CarteTransport rouge = carte(TypeCarteTransport.WAGON, Couleur.ROUGE, false, false);
+        CarteTransport vert = carte(TypeCarteTransport.WAGON, Couleur.VERT, false, false);
+        TestUtils.setCartesTransport(joueur, rouge, vert);
+
+        Etape capture = joueur.new CaptureRouteTerrestre(jeu.getRoutebyNom("R4")); // terrestre rouge 2
+        assertNull(capture.invite());
+        assertFalse(joueur.getRoutes().contains(jeu.getRoutebyNom("R4")));
+        assertEquals(List.of(rouge, vert), joueur.getCartesTransport());
+        assertTrue(TestUtils.getCartesTransportPosees(joueur).isEmpty());
+    }
+}
@@ -0,0 +1,110 @@
+package fr.umontpellier.iut.rails;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import fr.umontpellier.iut.rails.data.CarteTransport;
+import fr.umontpellier.iut.rails.data.Couleur;
+import fr.umontpellier.iut.rails.data.TypeCarteTransport;
+
+public class PilesCartesTransportTest {
+
+    @Test
+    void testPiocheEtDefausseAvecRemelange() {
+        List<CarteTransport> cartes = CarteTransport.makeCartesWagon();
+        PilesCartesTransport piles = new PilesCartesTransport(cartes);
+        Set<CarteTransport> piochees = new HashSet<>();
+        for (int i = 0; i < cartes.size(); i++) {
+            CarteTransport c = piles.piocher();
+            assertTrue(piochees.add(c));
+            piles.defausser(c);
+        }
+        assertEquals(new HashSet<>(cartes), piochees);
+        assertTrue(piles.getPilePioche().isEmpty());
+        assertEquals(cartes.size(), piles.getPileDefausse().size());
+
+        // la pioche vide est reconstituée à partir de la défausse
+        for (int i = 0; i < 1000; i++) {
+            piles.defausser(piles.piocher());
+        }
+        assertEquals(cartes.size(), piles.getFullSize());
+        assertEquals(new HashSet<>(cartes), new HashSet<>(piles.getCartes()));
+
+        for (int i = 0; i < cartes.size(); i++) {
+            piles.piocher();
+        }
+        assertTrue(piles.estVide());
+        assertNull(piles.piocher());
+    }
+
+    @Test
+    void testPileCommeUneListe() {
+        List<CarteTransport> cartes = CarteTransport.makeCartesBateau();
+        PileCartes pile = new PileCartes(2);
+        List<CarteTransport> attendu = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            pile.add(cartes.get(i));
+            attendu.add(cartes.get(i));
+            if (i % 3 == 0) {
+                assertSame(attendu.remove(0), pile.remove(0));
+            }
+        }
+        pile.add(0, cartes.get(30));
+        attendu.add(0, cartes.get(30));
+        pile.add(4, cartes.get(31));
+        attendu.add(4, cartes.get(31));
+        assertSame(attendu.remove(2), pile.remove(2));
+        assertEquals(attendu, pile);
+        pile.clear();
+        assertTrue(pile.isEmpty());
+    }
+
+    @Test
+    void testCopieIndependanteAvecCartesHorsCatalogue() {
+        PilesCartesTransport piles = new PilesCartesTransport(CarteTransport.makeCartesWagon());
+        CarteTransport horsCatalogue = new CarteTransport(TypeCarteTransport.JOKER, Couleur.GRIS, false, true);
+        piles.getPilePioche().add(0, horsCatalogue);
+        piles.defausser(piles.piocher());
+        piles.defausser(piles.piocher());
+
+        PilesCartesTransport copie = new PilesCartesTransport(piles);
+        assertEquals(piles.getPilePioche(), copie.getPilePioche());
+        assertEquals(piles.getPileDefausse(), copie.getPileDefausse());
+        assertSame(horsCatalogue, copie.getPileDefausse().get(0));
+
+        copie.piocher();
+        copie.getPileDefausse().clear();
+        assertEquals(CarteTransport.makeCartesWagon().size() + 1, piles.getFullSize());
+        assertSame(horsCatalogue, piles.getPileDefausse().get(0));
+
+        // les cartes sont partagées jusqu'à la première écriture, qui ne modifie pas l'autre pile
+        List<CarteTransport> piocheCopie = new ArrayList<>(copie.getPilePioche());
+        piles.melange();
+        assertEquals(piocheCopie, copie.getPilePioche());
+        assertTrue(copie.getPileDefausse().isEmpty());
+    }
+
+    @Test
+    void testPlacesDesCartesHorsCatalogueReutilisees() {
+        // plus de cartes hors catalogue que de codes disponibles, mais jamais plus de deux à la fois
+        PileCartes pile = new PileCartes();
+        CarteTransport precedente = new CarteTransport(TypeCarteTransport.WAGON, Couleur.ROUGE, false, false);
+        pile.add(precedente);
+        for (int i = 0; i < 40_000; i++) {
+            CarteTransport carte = new CarteTransport(TypeCarteTransport.WAGON, Couleur.ROUGE, false, false);
+            pile.add(carte);
+            assertSame(precedente, pile.retirerDessus());
+            assertSame(carte, pile.get(0));
+            precedente = carte;
+        }
+    }
+}
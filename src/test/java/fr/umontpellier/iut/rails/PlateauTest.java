@@ -0,0 +1,69 @@
+package fr.umontpellier.iut.rails;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import fr.umontpellier.iut.rails.data.Couleur;
+import fr.umontpellier.iut.rails.data.Plateau;
+import fr.umontpellier.iut.rails.data.Ville;
+
+public class PlateauTest {
+
+    @Test
+    void testRoutesParallelesDuPlateauMonde() {
+        List<Route> routes = Plateau.makePlateauMonde().getRoutes();
+        int nbDoubles = 0;
+        for (Route r : routes) {
+            Route parallele = r.getRouteParallele();
+            if (parallele == null) {
+                assertEquals(List.of(), r.getRoutesParalleles());
+                continue;
+            }
+            nbDoubles++;
+            assertSame(r, parallele.getRouteParallele());
+            assertEquals(List.of(parallele), r.getRoutesParalleles());
+            assertEquals(r.getVille1(), parallele.getVille1());
+            assertEquals(r.getVille2(), parallele.getVille2());
+        }
+        assertEquals(68, nbDoubles);
+    }
+
+    @Test
+    void testRoutesInverseesEtTriples() {
+        Ville a = new Ville("A", false);
+        Ville b = new Ville("B", true);
+        Ville c = new Ville("C", false);
+        Route ab = new RouteTerrestre(a, b, Couleur.ROUGE, 2);
+        Route ba = new RouteMaritime(b, a, Couleur.BLANC, 2);
+        Route bc1 = new RouteTerrestre(b, c, Couleur.VERT, 3);
+        Route bc2 = new RouteTerrestre(c, b, Couleur.JAUNE, 3);
+        Route bc3 = new RouteTerrestre(b, c, Couleur.NOIR, 3);
+        Route ac = new RouteTerrestre(a, c, Couleur.GRIS, 1);
+
+        Plateau.lierRoutesParalleles(List.of(ab, bc1, ba, bc2, ac, bc3));
+
+        assertSame(ba, ab.getRouteParallele());
+        assertSame(ab, ba.getRouteParallele());
+        assertEquals(List.of(bc2, bc3), bc1.getRoutesParalleles());
+        assertEquals(List.of(bc3, bc1), bc2.getRoutesParalleles());
+        assertEquals(List.of(bc1, bc2), bc3.getRoutesParalleles());
+        assertNull(ac.getRouteParallele());
+        assertEquals(List.of(), ac.getRoutesParalleles());
+    }
+
+    @Test
+    void testRoutesDuPlateauNonModifiables() {
+        List<Route> routes = Plateau.makePlateauMonde().getRoutes();
+        Route route = routes.stream().filter(r -> r.getRouteParallele() != null).findFirst().get();
+        Route parallele = route.getRouteParallele();
+        // les routes partagées par toutes les parties ne peuvent pas être reliées à nouveau
+        assertThrows(IllegalStateException.class, () -> Plateau.lierRoutesParalleles(List.of(route)));
+        assertSame(parallele, route.getRouteParallele());
+    }
+}
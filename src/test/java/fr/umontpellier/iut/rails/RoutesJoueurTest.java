@@ -0,0 +1,89 @@
+package fr.umontpellier.iut.rails;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import fr.umontpellier.iut.rails.data.Couleur;
+import fr.umontpellier.iut.rails.data.Destination;
+import fr.umontpellier.iut.rails.data.Ville;
+
+public class RoutesJoueurTest {
+
+    @BeforeAll
+    static void staticInit() {
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    /**
+     * @return true si toutes les villes de la destination sont des extrémités des routes reliées à sa
+     * première ville (parcours en largeur des routes du joueur)
+     */
+    private static boolean estCompleteParParcours(Joueur joueur, Destination d) {
+        List<Ville> villes = d.getVillesDeDestination();
+        List<Route> groupe = joueur.routesConnectees(villes.get(0));
+        for (Ville v : villes) {
+            if (groupe.stream().noneMatch(r -> r.getVille1().equals(v) || r.getVille2().equals(v))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testDestinationsCompletesCommeAvecUnParcours() {
+        Jeu jeu = new Jeu(new String[] { "Guybrush", "Largo" }, 0);
+        Joueur joueur = jeu.getJoueurs().get(0);
+        List<Route> routes = (List<Route>) TestUtils.getAttribute(joueur, "routes");
+        List<Destination> destinations = Destination.makeDestinationsMonde();
+        Random random = new Random(0);
+        int nbCompletes = 0;
+        for (int i = 0; i < 50; i++) {
+            for (int j = 0; j < 10; j++) {
+                routes.add(jeu.getRoutesDebut().get(random.nextInt(jeu.getRoutesDebut().size())));
+            }
+            if (i % 10 == 9) {
+                // retirer des routes fait recalculer les villes reliées
+                routes.subList(0, routes.size() / 2).clear();
+            }
+            for (Destination d : destinations) {
+                boolean complete = estCompleteParParcours(joueur, d);
+                assertEquals(complete, joueur.destinationEstComplete(d));
+                nbCompletes += complete ? 1 : 0;
+            }
+        }
+        assertTrue(nbCompletes > 0);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRoutesHorsDuPlateauConnectees() {
+        Jeu jeu = new Jeu(new String[] { "Guybrush", "Largo" }, 0);
+        Joueur joueur = jeu.getJoueurs().get(0);
+        List<Route> routes = (List<Route>) TestUtils.getAttribute(joueur, "routes");
+        Route surPlateau = jeu.getRoutesDebut().get(0);
+        Ville ileAuxSinges = new Ville("Île aux Singes", true);
+        Ville melee = new Ville("Mêlée", true);
+        // routes hors du plateau : Île aux Singes - ville1 et Mêlée - Île aux Singes
+        Route versPlateau = new RouteMaritime(ileAuxSinges, surPlateau.getVille1(), Couleur.GRIS, 2);
+        Route entreIles = new RouteMaritime(melee, ileAuxSinges, Couleur.GRIS, 1);
+        routes.add(entreIles);
+        routes.add(versPlateau);
+        routes.add(surPlateau);
+
+        for (Ville depart : List.of(surPlateau.getVille2(), surPlateau.getVille1(), ileAuxSinges, melee)) {
+            List<Route> connectees = joueur.routesConnectees(depart);
+            assertEquals(3, connectees.size());
+            assertTrue(connectees.containsAll(List.of(surPlateau, versPlateau, entreIles)));
+        }
+        assertTrue(joueur.destinationEstComplete(new Destination(melee.nom(), surPlateau.getVille2().nom(), 5)));
+    }
+}
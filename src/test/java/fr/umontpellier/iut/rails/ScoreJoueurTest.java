@@ -0,0 +1,53 @@
+package fr.umontpellier.iut.rails;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import fr.umontpellier.iut.rails.data.Destination;
+import fr.umontpellier.iut.rails.data.Ville;
+
+public class ScoreJoueurTest {
+
+    @BeforeAll
+    static void staticInit() {
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testScoreDetailleSuitLaPartie() {
+        Jeu jeu = new Jeu(new String[] { "Guybrush", "Largo" }, 0);
+        Joueur joueur = jeu.getJoueurs().get(0);
+        // une route partant d'un port, et une destination entre ses deux villes
+        Route route = jeu.getRoutesDebut().stream()
+                .filter(r -> jeu.getVillebyNom(r.getVille1().nom()) != null).findFirst().get();
+        Ville port = jeu.getVillebyNom(route.getVille1().nom());
+        Destination destination = new Destination(route.getVille1().nom(), route.getVille2().nom(), 10);
+        List<Destination> destinations = TestUtils.getDestinations(joueur);
+        List<Route> routes = (List<Route>) TestUtils.getAttribute(joueur, "routes");
+        List<Ville> ports = (List<Ville>) TestUtils.getAttribute(joueur, "ports");
+
+        ScoreJoueur score = joueur.getScoreDetaille();
+        assertEquals(new ScoreJoueur(0, 0, 0, 0, 12), score);
+        assertSame(score, joueur.getScoreDetaille());
+
+        destinations.add(destination);
+        assertEquals(new ScoreJoueur(0, 0, -10, 0, 12), joueur.getScoreDetaille());
+
+        routes.add(route);
+        TestUtils.setAttribute(joueur, "score", route.getScore());
+        assertEquals(new ScoreJoueur(route.getScore(), 0, 10, 0, 12), joueur.getScoreDetaille());
+
+        ports.add(port);
+        TestUtils.setAttribute(joueur, "nbPortsPeutPoser", 2);
+        assertEquals(new ScoreJoueur(route.getScore(), 0, 10, 20, 8), joueur.getScoreDetaille());
+        assertEquals(route.getScore() + 10 + 20 - 8, joueur.calculerScoreFinal());
+    }
+}
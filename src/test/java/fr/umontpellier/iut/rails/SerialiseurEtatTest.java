@@ -0,0 +1,95 @@
+package fr.umontpellier.iut.rails;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+
+public class SerialiseurEtatTest {
+    private Jeu jeu;
+
+    @BeforeAll
+    static void staticInit() {
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @BeforeEach
+    public void setUp() {
+        jeu = new Jeu(new String[] { "Guybrush", "Largo", "LeChuck", "Elaine" });
+    }
+
+    private void verifierEquivalence(SerialiseurEtat serialiseur) {
+        assertEquals(new Gson().toJsonTree(jeu.dataMap()), JsonParser.parseString(serialiseur.serialiser(jeu)));
+    }
+
+    @Test
+    void testMemeContenuQueDataMap() {
+        SerialiseurEtat serialiseur = new SerialiseurEtat();
+        jeu.demarrer();
+        verifierEquivalence(serialiseur);
+        for (int i = 0; i < 4; i++) {
+            jeu.soumettre(jeu.getInviteCourante().choix().get(0)); // défausse une destination
+            jeu.soumettre("");
+            jeu.soumettre("20");
+        }
+        jeu.soumettre("WAGON");
+        verifierEquivalence(serialiseur);
+        jeu.soumettre("BATEAU");
+        verifierEquivalence(serialiseur);
+    }
+
+    @Test
+    void testEtatInchangeSansNouvelleChaine() {
+        SerialiseurEtat serialiseur = new SerialiseurEtat();
+        jeu.demarrer();
+        String etat = serialiseur.serialiser(jeu);
+        assertSame(etat, serialiseur.serialiser(jeu));
+
+        // le tampon et l'écrivain réutilisés produisent un nouveau document complet
+        jeu.soumettre(jeu.getInviteCourante().choix().get(0));
+        String nouvelEtat = serialiseur.serialiser(jeu);
+        assertNotEquals(etat, nouvelEtat);
+        verifierEquivalence(serialiseur);
+    }
+
+    @Test
+    void testModificationsLimiteesACeQuiAChange() {
+        SerialiseurEtat serialiseur = new SerialiseurEtat();
+        jeu.demarrer();
+        jeu.log("premier message");
+        // la première modification est l'état complet
+        assertEquals(JsonParser.parseString(serialiseur.serialiser(jeu)),
+                JsonParser.parseString(serialiseur.serialiserModifications(jeu)));
+        assertNull(serialiseur.serialiserModifications(jeu));
+
+        jeu.soumettre(jeu.getInviteCourante().choix().get(0)); // défausse une destination
+        jeu.soumettre(""); // garde les autres
+        jeu.log("message");
+        JsonObject modifs = JsonParser.parseString(serialiseur.serialiserModifications(jeu)).getAsJsonObject();
+
+        // seul le premier joueur a changé, et seuls les nouveaux messages du log sont envoyés
+        JsonObject joueurs = modifs.getAsJsonObject("joueurs").getAsJsonObject(SerialiseurEtat.ELEMENTS);
+        assertEquals(1, joueurs.size());
+        assertTrue(joueurs.has("0"));
+        assertFalse(joueurs.getAsJsonObject("0").has("nom"));
+        assertFalse(modifs.has("cartesTransportVisibles"));
+        JsonArray ajouts = modifs.getAsJsonObject("log").getAsJsonArray(SerialiseurEtat.AJOUTS);
+        assertEquals("message", ajouts.get(ajouts.size() - 1).getAsString());
+        assertFalse(ajouts.contains(new JsonPrimitive("premier message")));
+    }
+}
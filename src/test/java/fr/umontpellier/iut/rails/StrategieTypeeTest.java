@@ -0,0 +1,126 @@
+package fr.umontpellier.iut.rails;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import fr.umontpellier.iut.rails.data.CarteTransport;
+import fr.umontpellier.iut.rails.data.Destination;
+import fr.umontpellier.iut.rails.data.TypeCarteTransport;
+
+public class StrategieTypeeTest {
+
+    @BeforeAll
+    static void staticInit() {
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    /**
+     * Capture la plus longue route possible, sinon pioche des cartes (et ne garde que ses premières
+     * destinations)
+     */
+    private static class StrategieGloutonne implements StrategieTypee {
+        @Override
+        public Action choisirAction(Jeu jeu, Joueur joueur, List<Action> actions) {
+            assertFalse(actions.isEmpty());
+            Action meilleure = null;
+            for (Action a : actions) {
+                if (a.type() == Action.Type.CAPTURER_ROUTE
+                        && (meilleure == null || a.route().getLongueur() > meilleure.route().getLongueur())) {
+                    meilleure = a;
+                }
+            }
+            if (meilleure != null) {
+                return meilleure;
+            }
+            for (Action a : actions) {
+                if (a.type() == Action.Type.PIOCHER_WAGON || a.type() == Action.Type.PIOCHER_BATEAU
+                        || a.type() == Action.Type.PRENDRE_CARTE_VISIBLE) {
+                    return a;
+                }
+            }
+            return actions.get(actions.size() - 1);
+        }
+
+        @Override
+        public CarteTransport choisirCarte(Jeu jeu, Joueur joueur, List<CarteTransport> cartes) {
+            assertFalse(cartes.isEmpty());
+            return cartes.get(0);
+        }
+
+        @Override
+        public Destination choisirDestinationADefausser(Jeu jeu, Joueur joueur, List<Destination> destinations) {
+            return destinations.size() > 3 ? destinations.get(destinations.size() - 1) : null;
+        }
+
+        @Override
+        public int choisirNombrePionsWagon(Jeu jeu, Joueur joueur, List<Integer> nombres) {
+            return nombres.get(nombres.size() / 2);
+        }
+
+        @Override
+        public int choisirNombrePionsAEchanger(Jeu jeu, Joueur joueur, List<Integer> nombres) {
+            return nombres.get(0);
+        }
+
+        @Override
+        public TypeCarteTransport choisirPile(Jeu jeu, Joueur joueur, List<TypeCarteTransport> piles) {
+            return piles.get(0);
+        }
+
+        @Override
+        public String choisir(Jeu jeu, Invite invite) {
+            assertNotNull(invite.nature(), invite.instruction());
+            return StrategieTypee.super.choisir(jeu, invite);
+        }
+    }
+
+    @Test
+    void testPartiesEntreStrategiesTypees() {
+        MoteurSimulation moteur = new MoteurSimulation(List.of(new StrategieGloutonne(), new StrategieGloutonne()));
+        for (int graine = 0; graine < 5; graine++) {
+            ResultatSimulation resultat = moteur.jouer(graine);
+            assertTrue(resultat.terminee());
+            assertTrue(resultat.scores().get(0).pointsRoutes() > 0);
+        }
+    }
+
+    @Test
+    void testJoueursPilotesParUneStrategie() {
+        Jeu jeu = new Jeu(new String[] { "Guybrush", "Largo", "LeChuck" }, 1);
+        for (Joueur j : jeu.getJoueurs()) {
+            j.setStrategie(new StrategieGloutonne());
+        }
+        // tous les joueurs sont pilotés : la partie se joue entièrement au démarrage
+        assertNull(jeu.demarrer());
+        for (Joueur j : jeu.getJoueurs()) {
+            assertFalse(j.getRoutes().isEmpty());
+        }
+    }
+
+    @Test
+    void testOptionsDuTypeDeLaNature() {
+        Invite invite = new Invite(null, "Action", List.of(), List.of(), true, Invite.Nature.ACTION,
+                List.of(Action.PIOCHER_WAGON, Action.PASSER));
+        assertEquals(List.of(Action.PIOCHER_WAGON, Action.PASSER), invite.options(Action.class));
+        assertThrows(IllegalStateException.class, () -> invite.options(Destination.class));
+        assertThrows(IllegalStateException.class,
+                () -> new Invite(null, "Choix", List.of("a"), List.of(), false).options(Action.class));
+        assertThrows(IllegalArgumentException.class,
+                () -> new Invite(null, "Pions", List.of(), List.of(), false, Invite.Nature.PIONS_WAGON, List.of(Action.PASSER)));
+        IllegalArgumentException erreur = assertThrows(IllegalArgumentException.class,
+                () -> new Invite(null, "Choix", Arrays.asList("a", null), List.of(), false));
+        assertTrue(erreur.getMessage().contains("choix"));
+    }
+}
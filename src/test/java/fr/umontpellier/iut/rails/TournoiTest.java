@@ -0,0 +1,45 @@
+package fr.umontpellier.iut.rails;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.LongFunction;
+
+import org.junit.jupiter.api.Test;
+
+public class TournoiTest {
+
+    private static final LongFunction<Strategie> ALEATOIRE = g -> new StrategieAleatoire(new SplittableRandom(g));
+
+    @Test
+    void testTournoiParalleleDeterministe() {
+        Tournoi tournoi = new Tournoi(List.of(ALEATOIRE, ALEATOIRE, ALEATOIRE));
+        StatistiquesTournoi parallele = tournoi.jouer(24, 42);
+        ForkJoinPool unCoeur = new ForkJoinPool(1);
+        StatistiquesTournoi sequentiel;
+        try {
+            sequentiel = tournoi.jouer(24, 42, unCoeur);
+        } finally {
+            unCoeur.shutdown();
+        }
+
+        assertEquals(24, parallele.getNbParties());
+        assertEquals(24, parallele.getNbPartiesTerminees());
+        double sommeTaux = 0;
+        for (int i = 0; i < 3; i++) {
+            sommeTaux += parallele.tauxVictoire(i);
+            assertTrue(parallele.scoreMoyen(i) != 0);
+            assertTrue(parallele.tauxDestinationsCompletes(i) >= 0 && parallele.tauxDestinationsCompletes(i) <= 1);
+            assertEquals(parallele.getNbVictoires(i), sequentiel.getNbVictoires(i));
+            assertEquals(parallele.scoreMoyen(i), sequentiel.scoreMoyen(i));
+            assertEquals(parallele.tauxDestinationsCompletes(i), sequentiel.tauxDestinationsCompletes(i));
+        }
+        assertEquals(1, sommeTaux, 1e-9);
+        assertTrue(parallele.getLongueurMin() <= parallele.longueurMoyenne());
+        assertTrue(parallele.longueurMoyenne() <= parallele.getLongueurMax());
+        assertEquals(parallele.toString(), sequentiel.toString());
+    }
+}